@@ -17,28 +17,26 @@
 package io.github.brevilo.jolm;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.sun.jna.Memory;
 import io.github.brevilo.jolm.Utils.OlmException;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
 import io.github.brevilo.jolm.jna.OlmAccount;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.model.IdentityKeys;
 import io.github.brevilo.jolm.model.OneTimeKeys;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /** Class to represent an Olm account. */
-public class Account {
+public class Account implements AutoCloseable {
 
   // backing store
   public final OlmAccount instance;
 
-  private final JsonMapper jsonMapper;
-
-  // initializer
-  {
-    jsonMapper = JsonMapper.builder().build();
-  }
-
   /**
    * Creates a new account initialized with random data.
    *
@@ -46,14 +44,14 @@ public class Account {
    */
   public Account() throws OlmException {
     // initialize account backing store
-    instance = Utils.initialize(OlmLibrary::olm_account, OlmLibrary::olm_account_size);
+    instance = Utils.initialize(OlmLibrary::olm_account, OlmConstants.Olm.ACCOUNT_SIZE);
 
     // generate randomness and create account
-    NativeSize randomLength = OlmLibrary.olm_create_account_random_length(instance);
+    NativeSize randomLength = OlmLibrary.olm_create_account_random_length(instance());
     Memory randomBuffer = Utils.randomBuffer(randomLength);
 
     // call olm
-    NativeSize result = OlmLibrary.olm_create_account(instance, randomBuffer, randomLength);
+    NativeSize result = OlmLibrary.olm_create_account(instance(), randomBuffer, randomLength);
 
     // clear the random buffer
     randomBuffer.clear();
@@ -61,9 +59,43 @@ public class Account {
     checkOlmResult(result);
   }
 
+  /**
+   * Private constructor adopting an allocated backing store (e.g. to be populated by unpickling).
+   *
+   * @param instance olm account
+   */
+  private Account(OlmAccount instance) {
+    this.instance = instance;
+  }
+
   /** Clears the memory used to back this account. */
   public void clear() {
-    OlmLibrary.olm_clear_account(instance);
+    OlmLibrary.olm_clear_account(instance());
+  }
+
+  /**
+   * Clears this account and releases its backing store right away. Using the account afterwards
+   * throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this account
+   * @throws IllegalStateException if this account has been closed
+   */
+  OlmAccount instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("Account has been closed");
+    }
+    return instance;
   }
 
   /**
@@ -75,16 +107,16 @@ public class Account {
    */
   public IdentityKeys identityKeys() throws OlmException, JsonProcessingException {
     // prepare output buffer
-    NativeSize identityKeysLength = OlmLibrary.olm_account_identity_keys_length(instance);
+    NativeSize identityKeysLength = OlmLibrary.olm_account_identity_keys_length(instance());
     Memory identityKeys = new Memory(identityKeysLength.longValue());
 
     // call olm
     NativeSize result =
-        OlmLibrary.olm_account_identity_keys(instance, identityKeys, identityKeysLength);
+        OlmLibrary.olm_account_identity_keys(instance(), identityKeys, identityKeysLength);
 
     checkOlmResult(result);
 
-    return jsonMapper.readValue(Utils.fromNative(identityKeys), IdentityKeys.class);
+    return toIdentityKeys(Utils.JSON_MAPPER.readTree(NativeString.decode(identityKeys, result)));
   }
 
   /**
@@ -93,7 +125,7 @@ public class Account {
    * @return maximum number of one time keys
    */
   public long maxNumberOfOneTimeKeys() {
-    return OlmLibrary.olm_account_max_number_of_one_time_keys(instance).longValue();
+    return OlmLibrary.olm_account_max_number_of_one_time_keys(instance()).longValue();
   }
 
   /**
@@ -107,13 +139,13 @@ public class Account {
     // generate randomness
     NativeSize randomLength =
         OlmLibrary.olm_account_generate_one_time_keys_random_length(
-            instance, new NativeSize(numberOfKeys));
+            instance(), new NativeSize(numberOfKeys));
     Memory randomBuffer = Utils.randomBuffer(randomLength);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_account_generate_one_time_keys(
-            instance, new NativeSize(numberOfKeys), randomBuffer, randomLength);
+            instance(), new NativeSize(numberOfKeys), randomBuffer, randomLength);
 
     // clear the random buffer
     randomBuffer.clear();
@@ -130,14 +162,14 @@ public class Account {
    */
   public OneTimeKeys oneTimeKeys() throws OlmException, JsonProcessingException {
     // prepare output buffer
-    NativeSize keysLength = OlmLibrary.olm_account_one_time_keys_length(instance);
+    NativeSize keysLength = OlmLibrary.olm_account_one_time_keys_length(instance());
     Memory oneTimeKeys = new Memory(keysLength.longValue());
 
     // call olm
-    NativeSize result = OlmLibrary.olm_account_one_time_keys(instance, oneTimeKeys, keysLength);
+    NativeSize result = OlmLibrary.olm_account_one_time_keys(instance(), oneTimeKeys, keysLength);
     checkOlmResult(result);
 
-    return jsonMapper.readValue(Utils.fromNative(oneTimeKeys), OneTimeKeys.class);
+    return toOneTimeKeys(Utils.JSON_MAPPER.readTree(NativeString.decode(oneTimeKeys, result)));
   }
 
   /**
@@ -149,7 +181,7 @@ public class Account {
    */
   public void removeOneTimeKeys(Session session) throws OlmException {
     // call olm
-    NativeSize result = OlmLibrary.olm_remove_one_time_keys(instance, session.instance);
+    NativeSize result = OlmLibrary.olm_remove_one_time_keys(instance(), session.instance());
     checkOlmResult(result);
   }
 
@@ -164,7 +196,7 @@ public class Account {
    */
   public void markKeysAsPublished() throws OlmException {
     // call olm
-    NativeSize result = OlmLibrary.olm_account_mark_keys_as_published(instance);
+    NativeSize result = OlmLibrary.olm_account_mark_keys_as_published(instance());
     checkOlmResult(result);
   }
 
@@ -175,12 +207,13 @@ public class Account {
    */
   public void generateFallbackKey() throws OlmException {
     // generate randomness
-    NativeSize randomLength = OlmLibrary.olm_account_generate_fallback_key_random_length(instance);
-    Memory randomBuffer = new Memory(randomLength.longValue());
+    NativeSize randomLength =
+        OlmLibrary.olm_account_generate_fallback_key_random_length(instance());
+    Memory randomBuffer = Utils.randomBuffer(randomLength);
 
     // call olm
     NativeSize result =
-        OlmLibrary.olm_account_generate_fallback_key(instance, randomBuffer, randomLength);
+        OlmLibrary.olm_account_generate_fallback_key(instance(), randomBuffer, randomLength);
 
     // clear the random buffer
     randomBuffer.clear();
@@ -197,15 +230,15 @@ public class Account {
    */
   public OneTimeKeys unpublishedFallbackKey() throws OlmException, JsonProcessingException {
     // prepare output buffer
-    NativeSize keyLength = OlmLibrary.olm_account_unpublished_fallback_key_length(instance);
+    NativeSize keyLength = OlmLibrary.olm_account_unpublished_fallback_key_length(instance());
     Memory fallbackKey = new Memory(keyLength.longValue());
 
     // call olm
     NativeSize result =
-        OlmLibrary.olm_account_unpublished_fallback_key(instance, fallbackKey, keyLength);
+        OlmLibrary.olm_account_unpublished_fallback_key(instance(), fallbackKey, keyLength);
     checkOlmResult(result);
 
-    return jsonMapper.readValue(Utils.fromNative(fallbackKey), OneTimeKeys.class);
+    return toOneTimeKeys(Utils.JSON_MAPPER.readTree(NativeString.decode(fallbackKey, result)));
   }
 
   /**
@@ -217,7 +250,7 @@ public class Account {
    */
   public void forgetFallbackKey() {
     // call olm
-    OlmLibrary.olm_account_forget_old_fallback_key(instance);
+    OlmLibrary.olm_account_forget_old_fallback_key(instance());
   }
 
   /**
@@ -229,18 +262,18 @@ public class Account {
    */
   public String sign(String message) throws OlmException {
     // get native message
-    Memory messageBuffer = Utils.toNative(message);
+    NativeString messageBuffer = NativeString.encode(message);
 
     // prepare output buffer
-    NativeSize signatureLength = OlmLibrary.olm_account_signature_length(instance);
+    NativeSize signatureLength = OlmLibrary.olm_account_signature_length(instance());
     Memory signatureBuffer = new Memory(signatureLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_account_sign(
-            instance,
-            messageBuffer,
-            new NativeSize(messageBuffer),
+            instance(),
+            messageBuffer.getPointer(),
+            messageBuffer.getLength(),
             signatureBuffer,
             signatureLength);
 
@@ -249,7 +282,42 @@ public class Account {
 
     checkOlmResult(result);
 
-    return Utils.fromNative(signatureBuffer);
+    return NativeString.decode(signatureBuffer, result);
+  }
+
+  /**
+   * Signs a message with the ed25519 key for this account.
+   *
+   * @param message message bytes to sign
+   * @return message signature bytes (base64)
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the signature buffer was too small
+   */
+  public byte[] sign(byte[] message) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage message
+      NativeSize messageLength = new NativeSize(scratch.write(ScratchArena.INPUT, message));
+
+      // prepare output buffer
+      NativeSize signatureLength = OlmLibrary.olm_account_signature_length(instance());
+      Memory signatureBuffer = scratch.buffer(ScratchArena.OUTPUT, signatureLength.longValue());
+
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_account_sign(
+              instance(),
+              scratch.buffer(ScratchArena.INPUT, messageLength.longValue()),
+              messageLength,
+              signatureBuffer,
+              signatureLength);
+
+      checkOlmResult(result);
+
+      return scratch.read(ScratchArena.OUTPUT, result.longValue());
+    } finally {
+      // clear the message buffer
+      scratch.release();
+    }
   }
 
   /**
@@ -261,8 +329,80 @@ public class Account {
    *     too small
    */
   public String pickle(String key) throws RuntimeException {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return pickle(pickleKey);
+    }
+  }
+
+  /**
+   * Stores an account as a base64 string. Encrypts the account using the supplied key.
+   *
+   * @param key key used to encrypt the serialized account data (see {@link PickleKey})
+   * @return serialized account
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public String pickle(PickleKey key) throws RuntimeException {
     return Utils.pickle(
-        instance,
+        instance(),
+        key,
+        OlmLibrary::olm_pickle_account_length,
+        OlmLibrary::olm_pickle_account,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Stores an account as base64 straight into a caller-supplied direct buffer. Encrypts the account
+   * using the supplied key. On success the buffer's position is advanced past the pickle.
+   *
+   * @param key key used to encrypt the serialized account data
+   * @param pickle direct buffer receiving the serialized account (see {@link #pickledLength()})
+   * @return number of bytes written
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the buffer is too small
+   * @throws IllegalArgumentException if the buffer isn't direct or is read-only
+   */
+  public int pickle(PickleKey key, ByteBuffer pickle) throws RuntimeException {
+    return Utils.pickle(
+        instance(),
+        key,
+        pickle,
+        OlmLibrary::olm_pickle_account,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Gets the length of this account's pickle (independent of the key), e.g. to pre-size buffers for
+   * {@link #pickle(PickleKey, ByteBuffer)}.
+   *
+   * @return pickle length in bytes
+   */
+  public long pickledLength() {
+    return OlmLibrary.olm_pickle_account_length(instance()).longValue();
+  }
+
+  /**
+   * Stores an account as base64 bytes (ASCII). Encrypts the account using the supplied key.
+   *
+   * @param key key used to encrypt the serialized account data
+   * @return serialized account
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public byte[] pickleBytes(PickleKey key) throws RuntimeException {
+    return Utils.pickleBytes(
+        instance(),
         key,
         OlmLibrary::olm_pickle_account_length,
         OlmLibrary::olm_pickle_account,
@@ -282,7 +422,7 @@ public class Account {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    Account.checkOlmResult(instance, result);
+    Account.checkOlmResult(instance(), result);
   }
 
   // ================= static methods =================
@@ -295,25 +435,119 @@ public class Account {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private static void checkOlmResult(OlmAccount instance, NativeSize result) throws OlmException {
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_account_last_error(instance));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_account_last_error_code(instance));
     }
   }
 
+  /**
+   * Maps the identity keys returned by olm (bound manually, no reflection involved).
+   *
+   * @param node parsed identity keys
+   * @return identity keys
+   */
+  private static IdentityKeys toIdentityKeys(JsonNode node) {
+    IdentityKeys identityKeys = new IdentityKeys();
+    identityKeys.setCurve25519(node.path(Constant.KEY_CURVE25519).textValue());
+    identityKeys.setEd25519(node.path(Constant.KEY_ED25519).textValue());
+
+    return identityKeys;
+  }
+
+  /**
+   * Maps the one time (or fallback) keys returned by olm (bound manually, no reflection involved).
+   *
+   * @param node parsed one time keys
+   * @return one time keys
+   */
+  private static OneTimeKeys toOneTimeKeys(JsonNode node) {
+    OneTimeKeys oneTimeKeys = new OneTimeKeys();
+    JsonNode keys = node.get(Constant.KEY_CURVE25519);
+    if (keys != null && keys.isObject()) {
+      Map<String, String> curve25519 = new LinkedHashMap<>();
+      keys.fields().forEachRemaining(key -> curve25519.put(key.getKey(), key.getValue().asText()));
+      oneTimeKeys.setCurve25519(curve25519);
+    }
+
+    return oneTimeKeys;
+  }
+
   /**
    * Loads an account from a pickled base64 string. Decrypts the account using the supplied key.
    *
    * @param key key used to encrypt the serialized account data
    * @param pickle serialized account data
    * @return new initialized account instance
-   * @throws OlmException <code>NOT_ENOUGH_RANDOM</code> if there weren't enough random bytes to
-   *     create the new Account
+   * @throws OlmException not thrown anymore (unpickling requires no randomness), declared for
+   *     compatibility
    * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
    *     encrypt the account; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
    */
   public static Account unpickle(String key, String pickle) throws OlmException, RuntimeException {
-    // create new instance
-    Account account = new Account();
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return unpickle(pickleKey, pickle);
+    }
+  }
+
+  /**
+   * Loads an account from a pickled base64 string. Decrypts the account using the supplied key.
+   *
+   * @param key key used to encrypt the serialized account data (see {@link PickleKey})
+   * @param pickle serialized account data
+   * @return new initialized account instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the account; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static Account unpickle(PickleKey key, String pickle) throws RuntimeException {
+    // allocate new instance (its state is overwritten anyway)
+    Account account =
+        new Account(Utils.initialize(OlmLibrary::olm_account, OlmConstants.Olm.ACCOUNT_SIZE));
+
+    // populate instance from persisted data
+    Utils.unpickle(
+        account.instance,
+        key,
+        pickle,
+        OlmLibrary::olm_unpickle_account,
+        (a, r) -> {
+          try {
+            checkOlmResult(a, r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+
+    return account;
+  }
+
+  /**
+   * Loads an account from pickled base64 bytes. Decrypts the account using the supplied key.
+   *
+   * @param key key used to encrypt the serialized account data (see {@link PickleKey})
+   * @param pickle serialized account data
+   * @return new initialized account instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the account; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static Account unpickle(PickleKey key, byte[] pickle) throws RuntimeException {
+    return unpickle(key, ByteBuffer.wrap(pickle));
+  }
+
+  /**
+   * Loads an account from a buffer holding pickled base64 data. Decrypts the account using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized account data (see {@link PickleKey})
+   * @param pickle buffer holding the (remaining) serialized account data, its position is advanced
+   *     to its limit on success
+   * @return new initialized account instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the account; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static Account unpickle(PickleKey key, ByteBuffer pickle) throws RuntimeException {
+    // allocate new instance (its state is overwritten anyway)
+    Account account =
+        new Account(Utils.initialize(OlmLibrary::olm_account, OlmConstants.Olm.ACCOUNT_SIZE));
 
     // populate instance from persisted data
     Utils.unpickle(
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import io.github.brevilo.jolm.model.Message;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable outcome of a non-throwing decryption (see {@link InboundGroupSession#tryDecrypt(String,
+ * DecryptResult)} and {@link Session#tryDecrypt(Message, DecryptResult)}), holding either the plain
+ * text or the olm error that prevented decryption.
+ */
+public final class DecryptResult {
+  private OlmError error = OlmError.UNKNOWN;
+  private String plainText;
+  private byte[] plainTextBytes;
+  private long messageIndex = -1;
+
+  /**
+   * Checks if the decryption succeeded.
+   *
+   * @return true if the plain text is available
+   */
+  public boolean isSuccess() {
+    return error == OlmError.SUCCESS;
+  }
+
+  /**
+   * Gets the decryption status.
+   *
+   * @return {@link OlmError#SUCCESS} or the olm error that prevented decryption ({@link
+   *     OlmError#UNKNOWN} if no decryption has been attempted yet)
+   */
+  public OlmError getError() {
+    return error;
+  }
+
+  /**
+   * Gets the plain text.
+   *
+   * @return decrypted message (<code>null</code> if the decryption failed)
+   */
+  public String getPlainText() {
+    if (plainText == null && plainTextBytes != null) {
+      plainText = new String(plainTextBytes, StandardCharsets.UTF_8);
+    }
+    return plainText;
+  }
+
+  /**
+   * Gets the raw plain text bytes.
+   *
+   * @return decrypted message bytes (<code>null</code> if the decryption failed)
+   */
+  public byte[] getPlainTextBytes() {
+    if (plainTextBytes == null && plainText != null) {
+      plainTextBytes = plainText.getBytes(StandardCharsets.UTF_8);
+    }
+    return plainTextBytes;
+  }
+
+  /**
+   * Gets the message index of a decrypted Megolm message.
+   *
+   * @return message index (-1 if the decryption failed or for Olm messages)
+   */
+  public long getMessageIndex() {
+    return messageIndex;
+  }
+
+  /**
+   * Records a successful decryption.
+   *
+   * @param plainText decrypted message
+   * @param messageIndex message index (-1 if not applicable)
+   * @return this result
+   */
+  DecryptResult succeeded(String plainText, long messageIndex) {
+    return set(OlmError.SUCCESS, plainText, null, messageIndex);
+  }
+
+  /**
+   * Records a successful decryption.
+   *
+   * @param plainTextBytes decrypted message bytes
+   * @param messageIndex message index (-1 if not applicable)
+   * @return this result
+   */
+  DecryptResult succeeded(byte[] plainTextBytes, long messageIndex) {
+    return set(OlmError.SUCCESS, null, plainTextBytes, messageIndex);
+  }
+
+  /**
+   * Records a failed decryption.
+   *
+   * @param code olm error code
+   * @return this result
+   */
+  DecryptResult failed(int code) {
+    return set(OlmError.fromCode(code), null, null, -1);
+  }
+
+  private DecryptResult set(
+      OlmError error, String plainText, byte[] plainTextBytes, long messageIndex) {
+    this.error = error;
+    this.plainText = plainText;
+    this.plainTextBytes = plainTextBytes;
+    this.messageIndex = messageIndex;
+
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccess() ? "SUCCESS (index: " + messageIndex + ")" : error.name();
+  }
+}
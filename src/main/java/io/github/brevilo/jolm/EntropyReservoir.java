@@ -0,0 +1,287 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link RandomSource} serving random bytes from an off-heap reservoir that is kept filled by a
+ * background thread, taking random number generation off the latency-critical path (e.g. session
+ * creation, ratchet steps, encryption).
+ *
+ * <p>Bytes handed out are wiped from the reservoir right away. Requests that can't be served from
+ * the reservoir (too large, or the reservoir ran dry) fall back to generating randomness
+ * synchronously using the underlying source and are counted as starvations. Typical usage:
+ *
+ * <pre>
+ * EntropyReservoir reservoir = new EntropyReservoir(64 * 1024, new SecureRandomSource());
+ * Jolm.setRandomSource(reservoir);
+ * </pre>
+ */
+public final class EntropyReservoir implements RandomSource, AutoCloseable {
+  /** Default reservoir capacity in bytes. */
+  public static final long DEFAULT_CAPACITY = 64 * 1024;
+
+  private static final long RETRY_DELAY = 100;
+
+  private final RandomSource source;
+  private final Memory reservoir;
+  private final long capacity;
+  private final long lowWatermark;
+  private final Thread filler;
+  private final Object lock = new Object();
+
+  // guarded by lock
+  private long readPosition;
+  private long writePosition;
+  private long available;
+  private boolean closed;
+
+  // metrics, guarded by lock
+  private long refills;
+  private long refilledBytes;
+  private long served;
+  private long starvations;
+
+  /**
+   * Creates a reservoir of {@link #DEFAULT_CAPACITY} bytes backed by a {@link SecureRandomSource}.
+   */
+  public EntropyReservoir() {
+    this(DEFAULT_CAPACITY, new SecureRandomSource());
+  }
+
+  /**
+   * Creates a reservoir and starts filling it in the background. The reservoir is topped up
+   * whenever it drops to half its capacity.
+   *
+   * @param capacity reservoir capacity in bytes
+   * @param source underlying random source used for (re)filling and synchronous fallback
+   * @throws IllegalArgumentException if the capacity isn't positive
+   */
+  public EntropyReservoir(long capacity, RandomSource source) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Invalid reservoir capacity: " + capacity);
+    }
+
+    this.source = source;
+    this.capacity = capacity;
+    this.lowWatermark = capacity / 2;
+    this.reservoir = new Memory(capacity);
+    this.reservoir.clear();
+
+    filler = new Thread(this::run, "jOlm entropy reservoir");
+    filler.setDaemon(true);
+    filler.start();
+  }
+
+  @Override
+  public void fill(Pointer buffer, long length) {
+    synchronized (lock) {
+      if (!closed && available >= length) {
+        take(buffer, length);
+        served++;
+        if (available <= lowWatermark) {
+          lock.notifyAll();
+        }
+        return;
+      }
+
+      starvations++;
+      lock.notifyAll();
+    }
+
+    // fall back to synchronous generation
+    source.fill(buffer, length);
+  }
+
+  /**
+   * Stops the background thread and wipes the reservoir. Subsequent requests are served
+   * synchronously by the underlying source. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      lock.notifyAll();
+    }
+
+    // wait for a pending refill before wiping
+    boolean interrupted = false;
+    while (filler.isAlive()) {
+      try {
+        filler.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (lock) {
+      reservoir.clear();
+      available = 0;
+    }
+  }
+
+  /**
+   * Gets the reservoir capacity.
+   *
+   * @return capacity in bytes
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the number of random bytes ready to be served.
+   *
+   * @return available bytes
+   */
+  public long getAvailable() {
+    synchronized (lock) {
+      return available;
+    }
+  }
+
+  /**
+   * Gets the number of refills performed by the background thread.
+   *
+   * @return number of refills
+   */
+  public long getRefills() {
+    synchronized (lock) {
+      return refills;
+    }
+  }
+
+  /**
+   * Gets the total number of bytes added by the background thread.
+   *
+   * @return refilled bytes
+   */
+  public long getRefilledBytes() {
+    synchronized (lock) {
+      return refilledBytes;
+    }
+  }
+
+  /**
+   * Gets the number of requests served from the reservoir.
+   *
+   * @return number of served requests
+   */
+  public long getServed() {
+    synchronized (lock) {
+      return served;
+    }
+  }
+
+  /**
+   * Gets the number of requests that couldn't be served from the reservoir and fell back to
+   * synchronous generation.
+   *
+   * @return number of starved requests
+   */
+  public long getStarvations() {
+    synchronized (lock) {
+      return starvations;
+    }
+  }
+
+  @Override
+  public String toString() {
+    synchronized (lock) {
+      return String.format(
+          "available: %d/%d, refills: %d (%d bytes), served: %d, starvations: %d",
+          available, capacity, refills, refilledBytes, served, starvations);
+    }
+  }
+
+  /**
+   * Copies random bytes out of the reservoir and wipes them (lock must be held).
+   *
+   * @param buffer target native memory
+   * @param length number of bytes (must be available)
+   */
+  private void take(Pointer buffer, long length) {
+    long offset = 0;
+    while (offset < length) {
+      // contiguous segment up to the end of the ring
+      long segment = Math.min(length - offset, capacity - readPosition);
+
+      ByteBuffer target = buffer.getByteBuffer(offset, segment);
+      target.put(reservoir.getByteBuffer(readPosition, segment));
+      reservoir.setMemory(readPosition, segment, (byte) 0);
+
+      readPosition = (readPosition + segment) % capacity;
+      offset += segment;
+    }
+    available -= length;
+  }
+
+  /** Background thread: tops up the reservoir whenever it dropped to the low watermark. */
+  private void run() {
+    while (true) {
+      long offset;
+      long length;
+      synchronized (lock) {
+        while (!closed && available > lowWatermark) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            // keep going, daemon thread
+          }
+        }
+        if (closed) {
+          return;
+        }
+
+        // free space is contiguous up to the end of the ring (the rest is done next round)
+        offset = writePosition;
+        length = Math.min(capacity - available, capacity - writePosition);
+      }
+
+      // consumers never touch free space, so fill it without holding the lock
+      try {
+        source.fill(reservoir.share(offset, length), length);
+      } catch (RuntimeException e) {
+        // back off and keep going, requests fall back to the underlying source meanwhile
+        synchronized (lock) {
+          try {
+            lock.wait(RETRY_DELAY);
+          } catch (InterruptedException ie) {
+            // keep going, daemon thread
+          }
+        }
+        continue;
+      }
+
+      synchronized (lock) {
+        writePosition = (writePosition + length) % capacity;
+        available += length;
+        refills++;
+        refilledBytes += length;
+      }
+    }
+  }
+}
@@ -17,15 +17,18 @@
 package io.github.brevilo.jolm;
 
 import com.sun.jna.Memory;
-import com.sun.jna.ptr.IntByReference;
 import io.github.brevilo.jolm.Utils.OlmException;
+import io.github.brevilo.jolm.jna.NativeBackend;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmInboundGroupSession;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.model.GroupMessage;
+import java.nio.ByteBuffer;
 
 /** Class to represent an inbound Megolm session. */
-public class InboundGroupSession {
+public class InboundGroupSession implements AutoCloseable {
 
   // backing store
   private final OlmInboundGroupSession instance;
@@ -39,7 +42,17 @@ public class InboundGroupSession {
     // initialize backing store
     instance =
         Utils.initialize(
-            OlmLibrary::olm_inbound_group_session, OlmLibrary::olm_inbound_group_session_size);
+            OlmLibrary::olm_inbound_group_session,
+            OlmConstants.MegolmInbound.INBOUND_GROUP_SESSION_SIZE);
+  }
+
+  /**
+   * Private constructor adopting an already initialized backing store.
+   *
+   * @param instance olm inbound group session
+   */
+  private InboundGroupSession(OlmInboundGroupSession instance) {
+    this.instance = instance;
   }
 
   /**
@@ -55,12 +68,12 @@ public class InboundGroupSession {
     this();
 
     // get native key
-    Memory sessionKeyBuffer = Utils.toNative(sessionKey);
+    NativeString sessionKeyBuffer = NativeString.encode(sessionKey);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_init_inbound_group_session(
-            instance, sessionKeyBuffer, new NativeSize(sessionKeyBuffer));
+            instance(), sessionKeyBuffer.getPointer(), sessionKeyBuffer.getLength());
 
     // clear the key buffer
     sessionKeyBuffer.clear();
@@ -68,9 +81,79 @@ public class InboundGroupSession {
     checkOlmResult(result);
   }
 
+  /**
+   * Creates a new inbound Megolm session using the provided session key bytes. The key can be
+   * exported by {@link OutboundGroupSession#sessionKey()}.
+   *
+   * @param sessionKey session key bytes (base64) to generate the session for
+   * @throws OlmException <code>OLM_INVALID_BASE64</code> if the sessionKey is not valid base64;
+   *     <code>OLM_BAD_SESSION_KEY</code> if the sessionKey is invalid
+   */
+  public InboundGroupSession(byte[] sessionKey) throws OlmException {
+    // call private constructor
+    this();
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage key
+      NativeSize sessionKeyLength = new NativeSize(scratch.write(ScratchArena.INPUT, sessionKey));
+
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_init_inbound_group_session(
+              instance(),
+              scratch.buffer(ScratchArena.INPUT, sessionKeyLength.longValue()),
+              sessionKeyLength);
+
+      checkOlmResult(result);
+    } finally {
+      // clear the key buffer
+      scratch.release();
+    }
+  }
+
   /** Clears the memory used to back this group session. */
   public void clear() {
-    OlmLibrary.olm_clear_inbound_group_session(instance);
+    OlmLibrary.olm_clear_inbound_group_session(instance());
+  }
+
+  /**
+   * Clears this group session and releases its backing store right away. Using the group session
+   * afterwards throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this group session
+   * @throws IllegalStateException if this group session has been closed
+   */
+  OlmInboundGroupSession instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("InboundGroupSession has been closed");
+    }
+    return instance;
+  }
+
+  /**
+   * Creates an independent copy of this group session by duplicating its native state (much cheaper
+   * than a pickle round trip), e.g. to decrypt in parallel.
+   *
+   * @return copy of this group session
+   */
+  public InboundGroupSession copy() {
+    return new InboundGroupSession(
+        Utils.copy(
+            instance(),
+            OlmLibrary::olm_inbound_group_session,
+            OlmConstants.MegolmInbound.INBOUND_GROUP_SESSION_SIZE));
   }
 
   /**
@@ -81,14 +164,14 @@ public class InboundGroupSession {
    */
   public String sessionId() throws OlmException {
     // prepare output buffer
-    NativeSize idLength = OlmLibrary.olm_inbound_group_session_id_length(instance);
+    NativeSize idLength = OlmLibrary.olm_inbound_group_session_id_length(instance());
     Memory id = new Memory(idLength.longValue());
 
     // call olm
-    NativeSize result = OlmLibrary.olm_inbound_group_session_id(instance, id, idLength);
+    NativeSize result = OlmLibrary.olm_inbound_group_session_id(instance(), id, idLength);
     checkOlmResult(result);
 
-    return Utils.fromNative(id);
+    return NativeString.decode(id, result);
   }
 
   /**
@@ -97,7 +180,7 @@ public class InboundGroupSession {
    * @return index of the first message ready for decryption
    */
   public long firstKnownIndex() {
-    return OlmLibrary.olm_inbound_group_session_first_known_index(instance);
+    return OlmLibrary.olm_inbound_group_session_first_known_index(instance());
   }
 
   /**
@@ -108,7 +191,7 @@ public class InboundGroupSession {
    * @return true if session is verified
    */
   public boolean isVerified() {
-    return OlmLibrary.olm_inbound_group_session_is_verified(instance) != 0;
+    return OlmLibrary.olm_inbound_group_session_is_verified(instance()) != 0;
   }
 
   /**
@@ -123,21 +206,22 @@ public class InboundGroupSession {
    */
   public String exportKey(long messageIndex) throws OlmException {
     // prepare output buffer
-    NativeSize sessionKeyLength = OlmLibrary.olm_export_inbound_group_session_length(instance);
+    NativeSize sessionKeyLength = OlmLibrary.olm_export_inbound_group_session_length(instance());
     Memory sessionKeyBuffer = new Memory(sessionKeyLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_export_inbound_group_session(
-            instance, sessionKeyBuffer, sessionKeyLength, (int) messageIndex);
-
-    // clear the key buffer
-    String sessionKey = Utils.fromNative(sessionKeyBuffer);
-    sessionKeyBuffer.clear();
+            instance(), sessionKeyBuffer, sessionKeyLength, (int) messageIndex);
 
-    checkOlmResult(result);
+    try {
+      checkOlmResult(result);
 
-    return sessionKey;
+      return NativeString.decode(sessionKeyBuffer, result);
+    } finally {
+      // clear the key buffer
+      sessionKeyBuffer.clear();
+    }
   }
 
   /**
@@ -149,12 +233,12 @@ public class InboundGroupSession {
    */
   public void importKey(String sessionKey) throws OlmException {
     // get native key
-    Memory sessionKeyBuffer = Utils.toNative(sessionKey);
+    NativeString sessionKeyBuffer = NativeString.encode(sessionKey);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_import_inbound_group_session(
-            instance, sessionKeyBuffer, new NativeSize(sessionKeyBuffer));
+            instance(), sessionKeyBuffer.getPointer(), sessionKeyBuffer.getLength());
 
     // clear the key buffer
     sessionKeyBuffer.clear();
@@ -162,6 +246,33 @@ public class InboundGroupSession {
     checkOlmResult(result);
   }
 
+  /**
+   * Import an inbound group session key, from a previous export via {@link #exportKey(long)}.
+   *
+   * @param sessionKey session key bytes (base64) to start the new session from
+   * @throws OlmException <code>OLM_INVALID_BASE64</code> if the session key is not valid base64;
+   *     <code>OLM_BAD_SESSION_KEY</code> if the session key is invalid
+   */
+  public void importKey(byte[] sessionKey) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage key
+      NativeSize sessionKeyLength = new NativeSize(scratch.write(ScratchArena.INPUT, sessionKey));
+
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_import_inbound_group_session(
+              instance(),
+              scratch.buffer(ScratchArena.INPUT, sessionKeyLength.longValue()),
+              sessionKeyLength);
+
+      checkOlmResult(result);
+    } finally {
+      // clear the key buffer
+      scratch.release();
+    }
+  }
+
   /**
    * Decrypt a message.
    *
@@ -176,38 +287,169 @@ public class InboundGroupSession {
    *     message's index (ie, it was sent before the session key was shared with us)
    */
   public GroupMessage decrypt(String message) throws OlmException {
-    // get native message
-    // (add a separate message buffer as olm_group_decrypt_max_plaintext_length() destroys it!)
-    Memory messageBuffer = Utils.toNative(message);
-    Memory messageBufferCopy = Utils.toNative(message);
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage message
+      long plainTextLength = decryptStaged(scratch, scratch.encode(ScratchArena.INPUT, message));
+
+      return new GroupMessage(
+          scratch.decode(ScratchArena.OUTPUT, plainTextLength), messageIndex(scratch));
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
 
-    // prepare output buffer and index reference
-    NativeSize maxPlainTextLength =
-        OlmLibrary.olm_group_decrypt_max_plaintext_length(
-            instance, messageBufferCopy, new NativeSize(messageBufferCopy));
+  /**
+   * Decrypt a message.
+   *
+   * @param message message bytes (base64) to be decrypted
+   * @return decrypted message
+   * @throws OlmException <code>OLM_OUTPUT_BUFFER_TOO_SMALL</code> if the plain-text buffer is too
+   *     small; <code>OLM_INVALID_BASE64</code> if the message is not valid base64; <code>
+   *     OLM_BAD_MESSAGE_VERSION</code> if the message was encrypted with an unsupported version of
+   *     the protocol; <code>OLM_BAD_MESSAGE_FORMAT</code> if the message headers could not be
+   *     decoded; <code>OLM_BAD_MESSAGE_MAC</code> if the message could not be verified; <code>
+   *     OLM_UNKNOWN_MESSAGE_INDEX</code> if we do not have a session key corresponding to the
+   *     message's index (ie, it was sent before the session key was shared with us)
+   */
+  public GroupMessage decrypt(byte[] message) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage message
+      long plainTextLength = decryptStaged(scratch, scratch.write(ScratchArena.INPUT, message));
+
+      return new GroupMessage(
+          scratch.read(ScratchArena.OUTPUT, plainTextLength), messageIndex(scratch));
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
 
-    checkOlmResult(maxPlainTextLength);
+  /**
+   * Decrypt a message, reading it from and writing the plain text into caller-supplied direct
+   * buffers. A plain text buffer with as much room as the encrypted message is always sufficient.
+   * On success the position of the message buffer is advanced to its limit and the position of the
+   * plain text buffer past the plain text.
+   *
+   * <p><b>Note:</b> the content of the message buffer is destroyed in the process.
+   *
+   * @param message direct buffer holding the (remaining) encrypted message bytes
+   * @param plainText direct buffer receiving the plain text
+   * @return message index
+   * @throws OlmException <code>OLM_OUTPUT_BUFFER_TOO_SMALL</code> if the plain-text buffer is too
+   *     small; <code>OLM_INVALID_BASE64</code> if the message is not valid base64; <code>
+   *     OLM_BAD_MESSAGE_VERSION</code> if the message was encrypted with an unsupported version of
+   *     the protocol; <code>OLM_BAD_MESSAGE_FORMAT</code> if the message headers could not be
+   *     decoded; <code>OLM_BAD_MESSAGE_MAC</code> if the message could not be verified; <code>
+   *     OLM_UNKNOWN_MESSAGE_INDEX</code> if we do not have a session key corresponding to the
+   *     message's index (ie, it was sent before the session key was shared with us)
+   * @throws IllegalArgumentException if a buffer isn't direct or is read-only
+   */
+  public long decrypt(ByteBuffer message, ByteBuffer plainText) throws OlmException {
+    ByteBuffer messageView = Utils.nativeView(message, true);
+    ByteBuffer plainTextView = Utils.nativeView(plainText, true);
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      Memory messageIndex = scratch.buffer(ScratchArena.SCALAR, Integer.BYTES);
+
+      // call olm (the message length is a safe upper bound for the plain text length)
+      NativeSize result =
+          OlmLibrary.olm_group_decrypt(
+              instance(),
+              messageView,
+              new NativeSize(messageView.remaining()),
+              plainTextView,
+              new NativeSize(plainTextView.remaining()),
+              messageIndex);
+
+      checkOlmResult(result);
+
+      message.position(message.limit());
+      plainText.position(plainText.position() + result.intValue());
+
+      return Integer.toUnsignedLong(messageIndex.getInt(0));
+    } finally {
+      scratch.release();
+    }
+  }
 
-    Memory plainTextBuffer = new Memory(maxPlainTextLength.longValue());
-    IntByReference messageIndex = new IntByReference();
+  /**
+   * Decrypt a message without throwing on failure, e.g. when replaying history where undecryptable
+   * messages are routine.
+   *
+   * @param message message to be decrypted
+   * @return decryption result holding either the decrypted message and its index or the olm error
+   *     (see {@link #decrypt(String)})
+   */
+  public DecryptResult tryDecrypt(String message) {
+    return tryDecrypt(message, new DecryptResult());
+  }
 
-    // call olm
-    NativeSize plainTextLength =
-        OlmLibrary.olm_group_decrypt(
-            instance,
-            messageBuffer,
-            new NativeSize(messageBuffer),
-            plainTextBuffer,
-            maxPlainTextLength,
-            messageIndex);
-
-    // clear the plaintext buffer
-    String plainText = Utils.fromNative(plainTextBuffer);
-    plainTextBuffer.clear();
+  /**
+   * Decrypt a message without throwing on failure, reusing the given result object. Apart from the
+   * plain text nothing is allocated on success.
+   *
+   * @param message message to be decrypted
+   * @param result result object to be (re)populated
+   * @return the given result object, holding either the decrypted message and its index or the olm
+   *     error (see {@link #decrypt(String)})
+   */
+  public DecryptResult tryDecrypt(String message, DecryptResult result) {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage message
+      long plainTextLength = decryptUnchecked(scratch, scratch.encode(ScratchArena.INPUT, message));
+      if (plainTextLength == OlmConstants.ERROR) {
+        return result.failed(OlmLibrary.olm_inbound_group_session_last_error_code(instance()));
+      }
+
+      return result.succeeded(
+          scratch.decode(ScratchArena.OUTPUT, plainTextLength), messageIndex(scratch));
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
 
-    checkOlmResult(plainTextLength);
+  /**
+   * Decrypt a message without throwing on failure, e.g. when replaying history where undecryptable
+   * messages are routine.
+   *
+   * @param message message bytes (base64) to be decrypted
+   * @return decryption result holding either the decrypted message bytes and their index or the olm
+   *     error (see {@link #decrypt(byte[])})
+   */
+  public DecryptResult tryDecrypt(byte[] message) {
+    return tryDecrypt(message, new DecryptResult());
+  }
 
-    return new GroupMessage(plainText, messageIndex.getValue());
+  /**
+   * Decrypt a message without throwing on failure, reusing the given result object. Apart from the
+   * plain text nothing is allocated on success.
+   *
+   * @param message message bytes (base64) to be decrypted
+   * @param result result object to be (re)populated
+   * @return the given result object, holding either the decrypted message bytes and their index or
+   *     the olm error (see {@link #decrypt(byte[])})
+   */
+  public DecryptResult tryDecrypt(byte[] message, DecryptResult result) {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage message
+      long plainTextLength = decryptUnchecked(scratch, scratch.write(ScratchArena.INPUT, message));
+      if (plainTextLength == OlmConstants.ERROR) {
+        return result.failed(OlmLibrary.olm_inbound_group_session_last_error_code(instance()));
+      }
+
+      return result.succeeded(
+          scratch.read(ScratchArena.OUTPUT, plainTextLength), messageIndex(scratch));
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
   }
 
   /**
@@ -220,8 +462,23 @@ public class InboundGroupSession {
    *     too small
    */
   public String pickle(String key) {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return pickle(pickleKey);
+    }
+  }
+
+  /**
+   * Stores an inbound group session as a base64 string. Encrypts the session using the supplied
+   * key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @return serialized session
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public String pickle(PickleKey key) {
     return Utils.pickle(
-        instance,
+        instance(),
         key,
         OlmLibrary::olm_pickle_inbound_group_session_length,
         OlmLibrary::olm_pickle_inbound_group_session,
@@ -234,6 +491,129 @@ public class InboundGroupSession {
         });
   }
 
+  /**
+   * Stores an inbound group session as base64 straight into a caller-supplied direct buffer.
+   * Encrypts the session using the supplied key. On success the buffer's position is advanced past
+   * the pickle.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @param pickle direct buffer receiving the serialized session (see {@link #pickledLength()})
+   * @return number of bytes written
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the buffer is too small
+   * @throws IllegalArgumentException if the buffer isn't direct or is read-only
+   */
+  public int pickle(PickleKey key, ByteBuffer pickle) {
+    return Utils.pickle(
+        instance(),
+        key,
+        pickle,
+        OlmLibrary::olm_pickle_inbound_group_session,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Gets the length of this inbound group session's pickle (independent of the key), e.g. to
+   * pre-size buffers for {@link #pickle(PickleKey, ByteBuffer)}.
+   *
+   * @return pickle length in bytes
+   */
+  public long pickledLength() {
+    return OlmLibrary.olm_pickle_inbound_group_session_length(instance()).longValue();
+  }
+
+  /**
+   * Stores an inbound group session as base64 bytes (ASCII). Encrypts the session using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @return serialized session
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public byte[] pickleBytes(PickleKey key) {
+    return Utils.pickleBytes(
+        instance(),
+        key,
+        OlmLibrary::olm_pickle_inbound_group_session_length,
+        OlmLibrary::olm_pickle_inbound_group_session,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Decrypt the message staged in the scratch arena's input slot into its output slot. The message
+   * index is stored in the scalar slot (see {@link #messageIndex(ScratchArena)}).
+   *
+   * @param scratch acquired scratch arena
+   * @param messageLength staged message length in bytes
+   * @return plain text length in bytes
+   * @throws OlmException thrown if an error occurred (incl. error details)
+   */
+  private long decryptStaged(ScratchArena scratch, long messageLength) throws OlmException {
+    long plainTextLength = decryptUnchecked(scratch, messageLength);
+
+    checkOlmResult(plainTextLength);
+
+    return plainTextLength;
+  }
+
+  /**
+   * Decrypt the message staged in the scratch arena's input slot into its output slot, without
+   * checking the result (see {@link #decryptStaged(ScratchArena, long)}).
+   *
+   * @param scratch acquired scratch arena
+   * @param messageLength staged message length in bytes
+   * @return plain text length in bytes or {@link OlmConstants#ERROR}
+   */
+  private long decryptUnchecked(ScratchArena scratch, long messageLength) {
+    long messageBuffer = NativeBackend.address(scratch.buffer(ScratchArena.INPUT, messageLength));
+
+    // prepare output buffer and index reference
+    // (bounded by the decoded message length, saving olm_group_decrypt_max_plaintext_length()
+    // which would destroy the message)
+    long maxPlainTextLength = Utils.decodedBase64Length(messageLength);
+    long plainTextBuffer =
+        NativeBackend.address(scratch.buffer(ScratchArena.OUTPUT, maxPlainTextLength));
+    long messageIndex = NativeBackend.address(scratch.buffer(ScratchArena.SCALAR, Integer.BYTES));
+
+    // call olm
+    long result =
+        NativeBackend.getInstance()
+            .olm_group_decrypt(
+                NativeBackend.address(instance()),
+                messageBuffer,
+                messageLength,
+                plainTextBuffer,
+                maxPlainTextLength,
+                messageIndex);
+
+    // keep the backing store alive until olm is done with it
+    NativeBackend.reachabilityFence(instance);
+
+    return result;
+  }
+
+  /**
+   * Get the message index of the last message decrypted using the given scratch arena.
+   *
+   * @param scratch acquired scratch arena
+   * @return message index
+   */
+  private static long messageIndex(ScratchArena scratch) {
+    return Integer.toUnsignedLong(scratch.buffer(ScratchArena.SCALAR, Integer.BYTES).getInt(0));
+  }
+
   /**
    * Check the latest olm function call for errors.
    *
@@ -241,7 +621,19 @@ public class InboundGroupSession {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    InboundGroupSession.checkOlmResult(instance, result);
+    InboundGroupSession.checkOlmResult(instance(), result);
+  }
+
+  /**
+   * Check the latest olm function call for errors.
+   *
+   * @param result raw result returned by the olm function call to check
+   * @throws OlmException thrown if an error occurred (incl. error details)
+   */
+  private void checkOlmResult(long result) throws OlmException {
+    if (result == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_inbound_group_session_last_error_code(instance()));
+    }
   }
 
   // ================= static methods =================
@@ -256,8 +648,8 @@ public class InboundGroupSession {
   private static void checkOlmResult(OlmInboundGroupSession session, NativeSize result)
       throws OlmException {
 
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_inbound_group_session_last_error(session));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_inbound_group_session_last_error_code(session));
     }
   }
 
@@ -272,6 +664,69 @@ public class InboundGroupSession {
    *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
    */
   public static InboundGroupSession unpickle(String key, String pickle) throws RuntimeException {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return unpickle(pickleKey, pickle);
+    }
+  }
+
+  /**
+   * Loads an inbound group session from a pickled base64 string. Decrypts the session using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle serialized session data
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static InboundGroupSession unpickle(PickleKey key, String pickle) throws RuntimeException {
+    // create new instance
+    InboundGroupSession session = new InboundGroupSession();
+
+    // populate instance from persisted data
+    Utils.unpickle(
+        session.instance,
+        key,
+        pickle,
+        OlmLibrary::olm_unpickle_inbound_group_session,
+        (a, r) -> {
+          try {
+            checkOlmResult(a, r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+
+    return session;
+  }
+
+  /**
+   * Loads an inbound group session from pickled base64 bytes. Decrypts the session using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle serialized session data
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static InboundGroupSession unpickle(PickleKey key, byte[] pickle) throws RuntimeException {
+    return unpickle(key, ByteBuffer.wrap(pickle));
+  }
+
+  /**
+   * Loads an inbound group session from a buffer holding pickled base64 data. Decrypts the session
+   * using the supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle buffer holding the (remaining) serialized session data, its position is advanced
+   *     to its limit on success
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static InboundGroupSession unpickle(PickleKey key, ByteBuffer pickle)
+      throws RuntimeException {
     // create new instance
     InboundGroupSession session = new InboundGroupSession();
 
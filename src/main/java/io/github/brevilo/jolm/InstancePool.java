@@ -0,0 +1,283 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import io.github.brevilo.jolm.Utils.OlmException;
+import io.github.brevilo.jolm.Utils.OlmSupplier;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of ready-to-use olm objects (e.g. new outbound group sessions for room key rotation),
+ * created ahead of time by a background thread so that the randomness and key generation don't
+ * burden the requesting thread.
+ *
+ * <p>The pool is topped up to its target size whenever an object is taken. Every pooled object is
+ * handed out exactly once and becomes the caller's responsibility. Objects still pooled when the
+ * pool is closed are cleared and released. Requests that find the pool empty create an object
+ * synchronously and are counted as misses. Typical usage:
+ *
+ * <pre>
+ * try (InstancePool&lt;OutboundGroupSession&gt; pool = InstancePool.outboundGroupSessions(16)) {
+ *   // ...
+ *   OutboundGroupSession session = pool.take();
+ * }
+ * </pre>
+ *
+ * @param <T> pooled object type
+ */
+public final class InstancePool<T extends AutoCloseable> implements AutoCloseable {
+  private static final long RETRY_DELAY = 100;
+
+  private final OlmSupplier<T> factory;
+  private final int targetSize;
+  private final Deque<T> pool = new ArrayDeque<>();
+  private final Thread filler;
+
+  // guarded by pool
+  private boolean closed;
+  private long hits;
+  private long misses;
+  private long created;
+
+  /**
+   * Creates a pool and starts filling it in the background.
+   *
+   * @param name pool name (used for its thread)
+   * @param factory creates a single new object
+   * @param targetSize number of objects to keep ready
+   * @throws IllegalArgumentException if the target size is negative
+   */
+  InstancePool(String name, OlmSupplier<T> factory, int targetSize) {
+    if (targetSize < 0) {
+      throw new IllegalArgumentException("Negative target size: " + targetSize);
+    }
+
+    this.factory = factory;
+    this.targetSize = targetSize;
+
+    filler = new Thread(this::run, "jOlm " + name + " pool");
+    filler.setDaemon(true);
+    filler.start();
+  }
+
+  /**
+   * Creates a pool of new outbound group sessions.
+   *
+   * @param targetSize number of sessions to keep ready
+   * @return new pool
+   */
+  public static InstancePool<OutboundGroupSession> outboundGroupSessions(int targetSize) {
+    return new InstancePool<>("outbound group session", OutboundGroupSession::new, targetSize);
+  }
+
+  /**
+   * Creates a pool of new SAS objects.
+   *
+   * @param targetSize number of SAS objects to keep ready
+   * @return new pool
+   */
+  public static InstancePool<Sas> sas(int targetSize) {
+    return new InstancePool<>("SAS", Sas::new, targetSize);
+  }
+
+  /**
+   * Creates a pool of new decryption objects (key pairs).
+   *
+   * @param targetSize number of decryption objects to keep ready
+   * @return new pool
+   */
+  public static InstancePool<PkDecryption> pkDecryptions(int targetSize) {
+    return new InstancePool<>("PK decryption", PkDecryption::new, targetSize);
+  }
+
+  /**
+   * Takes a ready-to-use object from the pool, or creates a new one if the pool is empty (or
+   * closed).
+   *
+   * @return new object, owned by the caller
+   * @throws OlmException if the object had to be created and creation failed
+   */
+  public T take() throws OlmException {
+    synchronized (pool) {
+      T instance = closed ? null : pool.pollFirst();
+      if (instance != null) {
+        hits++;
+        pool.notifyAll();
+        return instance;
+      }
+      misses++;
+      pool.notifyAll();
+    }
+
+    // fall back to synchronous creation
+    return factory.get();
+  }
+
+  /**
+   * Stops the background thread and clears and releases all objects still pooled. Subsequent
+   * requests create new objects synchronously. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    synchronized (pool) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      pool.notifyAll();
+    }
+
+    // wait for a pending creation, it's discarded as well
+    boolean interrupted = false;
+    while (filler.isAlive()) {
+      try {
+        filler.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (pool) {
+      for (T instance : pool) {
+        discard(instance);
+      }
+      pool.clear();
+    }
+  }
+
+  /**
+   * Gets the number of objects the pool is kept filled to.
+   *
+   * @return target size
+   */
+  public int getTargetSize() {
+    return targetSize;
+  }
+
+  /**
+   * Gets the number of objects ready to be taken.
+   *
+   * @return pooled objects
+   */
+  public int getSize() {
+    synchronized (pool) {
+      return pool.size();
+    }
+  }
+
+  /**
+   * Gets the number of requests served from the pool.
+   *
+   * @return number of hits
+   */
+  public long getHits() {
+    synchronized (pool) {
+      return hits;
+    }
+  }
+
+  /**
+   * Gets the number of requests that found the pool empty and created an object synchronously.
+   *
+   * @return number of misses
+   */
+  public long getMisses() {
+    synchronized (pool) {
+      return misses;
+    }
+  }
+
+  /**
+   * Gets the number of objects created by the background thread.
+   *
+   * @return number of created objects
+   */
+  public long getCreated() {
+    synchronized (pool) {
+      return created;
+    }
+  }
+
+  @Override
+  public String toString() {
+    synchronized (pool) {
+      return String.format(
+          "size: %d/%d, created: %d, hits: %d, misses: %d",
+          pool.size(), targetSize, created, hits, misses);
+    }
+  }
+
+  /** Background thread: tops up the pool whenever objects were taken. */
+  private void run() {
+    while (true) {
+      synchronized (pool) {
+        while (!closed && pool.size() >= targetSize) {
+          try {
+            pool.wait();
+          } catch (InterruptedException e) {
+            // keep going, daemon thread
+          }
+        }
+        if (closed) {
+          return;
+        }
+      }
+
+      // create without holding the lock
+      T instance;
+      try {
+        instance = factory.get();
+      } catch (OlmException | RuntimeException e) {
+        // back off and keep going, requests fall back to synchronous creation meanwhile
+        synchronized (pool) {
+          try {
+            pool.wait(RETRY_DELAY);
+          } catch (InterruptedException ie) {
+            // keep going, daemon thread
+          }
+        }
+        continue;
+      }
+
+      synchronized (pool) {
+        if (closed) {
+          discard(instance);
+          return;
+        }
+        pool.addLast(instance);
+        created++;
+      }
+    }
+  }
+
+  /**
+   * Clears and releases an unused object.
+   *
+   * @param instance object to discard
+   */
+  private static void discard(AutoCloseable instance) {
+    try {
+      instance.close();
+    } catch (Exception e) {
+      // olm objects don't throw on close
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.brevilo.jolm.Utils.OlmException;
+import io.github.brevilo.jolm.model.GroupMessage;
+import io.github.brevilo.jolm.model.Message;
+import io.github.brevilo.jolm.model.OneTimeKeys;
+import io.github.brevilo.jolm.model.PkMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/** Library-wide entry points. */
+public final class Jolm {
+  /** Default number of iterations run per subsystem by {@link #warmUp()}. */
+  public static final int DEFAULT_WARM_UP_ITERATIONS = 200;
+
+  private static final String WARM_UP_MESSAGE = "{\"warm\":\"up\"}";
+
+  private static volatile RandomSource randomSource;
+
+  private Jolm() {}
+
+  /**
+   * Gets the random source used for all olm operations requiring randomness.
+   *
+   * @return active random source
+   * @see RandomSource
+   */
+  public static RandomSource getRandomSource() {
+    RandomSource source = randomSource;
+    if (source == null) {
+      synchronized (Jolm.class) {
+        source = randomSource;
+        if (source == null) {
+          // prefer a registered service provider
+          Iterator<RandomSource> providers = ServiceLoader.load(RandomSource.class).iterator();
+          source = providers.hasNext() ? providers.next() : new SecureRandomSource();
+          randomSource = source;
+        }
+      }
+    }
+    return source;
+  }
+
+  /**
+   * Sets the random source used for all subsequent olm operations requiring randomness.
+   *
+   * @param source random source to use (<code>null</code> restores the default)
+   */
+  public static void setRandomSource(RandomSource source) {
+    randomSource = source;
+  }
+
+  /** libolm subsystems exercised by {@link #warmUp(int)}. */
+  public enum Subsystem {
+    /** Olm accounts and sessions (incl. JSON signing). */
+    OLM,
+    /** Megolm inbound and outbound group sessions. */
+    MEGOLM,
+    /** Public key encryption, decryption and signing. */
+    PK,
+    /** Short authentication strings. */
+    SAS,
+    /** Hashing and signature verification. */
+    UTILITY
+  }
+
+  /**
+   * Warms up all subsystems using {@link #DEFAULT_WARM_UP_ITERATIONS} iterations each.
+   *
+   * @return time taken per subsystem
+   * @throws OlmException if an olm call failed
+   * @throws JsonProcessingException (de)serialization error
+   * @see #warmUp(int)
+   */
+  public static WarmUpReport warmUp() throws OlmException, JsonProcessingException {
+    return warmUp(DEFAULT_WARM_UP_ITERATIONS);
+  }
+
+  /**
+   * Warms up all subsystems so that the first real requests don't pay for native symbol binding,
+   * class initialization and interpreted execution. Every subsystem's hot paths are run the given
+   * number of times on throwaway objects, which are cleared and released afterwards.
+   *
+   * @param iterations number of iterations per subsystem (more iterations allow the JIT compiler to
+   *     kick in)
+   * @return time taken per subsystem
+   * @throws OlmException if an olm call failed
+   * @throws JsonProcessingException (de)serialization error
+   * @throws IllegalArgumentException if the number of iterations is negative
+   */
+  public static WarmUpReport warmUp(int iterations) throws OlmException, JsonProcessingException {
+    if (iterations < 0) {
+      throw new IllegalArgumentException("Negative number of iterations: " + iterations);
+    }
+
+    Map<Subsystem, Long> nanos = new EnumMap<>(Subsystem.class);
+    long start = System.nanoTime();
+    warmUpOlm(iterations);
+    nanos.put(Subsystem.OLM, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    warmUpMegolm(iterations);
+    nanos.put(Subsystem.MEGOLM, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    warmUpPk(iterations);
+    nanos.put(Subsystem.PK, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    warmUpSas(iterations);
+    nanos.put(Subsystem.SAS, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    warmUpUtility(iterations);
+    nanos.put(Subsystem.UTILITY, System.nanoTime() - start);
+
+    return new WarmUpReport(iterations, nanos);
+  }
+
+  private static void warmUpOlm(int iterations) throws OlmException, JsonProcessingException {
+    try (Account alice = new Account();
+        Account bob = new Account()) {
+      bob.generateOneTimeKeys(1);
+      OneTimeKeys oneTimeKeys = bob.oneTimeKeys();
+      String oneTimeKey = oneTimeKeys.getCurve25519().values().iterator().next();
+      String identityKey = bob.identityKeys().getCurve25519();
+
+      try (Session outbound = Session.createOutboundSession(alice, identityKey, oneTimeKey)) {
+        Message message = outbound.encrypt(WARM_UP_MESSAGE);
+        try (Session inbound = Session.createInboundSession(bob, message.getCipherText())) {
+          inbound.decrypt(message);
+
+          for (int i = 0; i < iterations; i++) {
+            inbound.decrypt(outbound.encrypt(WARM_UP_MESSAGE));
+            outbound.decryptBytes(
+                inbound.encrypt(WARM_UP_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+            Utils.signJson(alice, WARM_UP_MESSAGE, "@warm:up", Constant.KEY_ED25519, "WARMUP");
+          }
+        }
+      }
+    }
+  }
+
+  private static void warmUpMegolm(int iterations) throws OlmException {
+    try (OutboundGroupSession outbound = new OutboundGroupSession();
+        InboundGroupSession inbound = new InboundGroupSession(outbound.sessionKey())) {
+      for (int i = 0; i < iterations; i++) {
+        GroupMessage message = inbound.decrypt(outbound.encrypt(WARM_UP_MESSAGE));
+        message.getMessage();
+        inbound.decrypt(outbound.encrypt(WARM_UP_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+      }
+    }
+  }
+
+  private static void warmUpPk(int iterations) throws OlmException {
+    try (PkDecryption decryption = new PkDecryption();
+        PkEncryption encryption = new PkEncryption(decryption.publicKey());
+        PkSigning signing = new PkSigning()) {
+      for (int i = 0; i < iterations; i++) {
+        PkMessage message = encryption.encrypt(WARM_UP_MESSAGE);
+        decryption.decrypt(message);
+        signing.sign(WARM_UP_MESSAGE);
+      }
+    }
+  }
+
+  private static void warmUpSas(int iterations) throws OlmException {
+    try (Sas alice = new Sas();
+        Sas bob = new Sas()) {
+      alice.setTheirKey(bob.publicKey());
+      bob.setTheirKey(alice.publicKey());
+
+      for (int i = 0; i < iterations; i++) {
+        alice.generateBytes(WARM_UP_MESSAGE, 6);
+        bob.calculateMac(WARM_UP_MESSAGE, WARM_UP_MESSAGE);
+      }
+    }
+  }
+
+  private static void warmUpUtility(int iterations) throws OlmException, JsonProcessingException {
+    try (Utility utility = new Utility();
+        Account account = new Account()) {
+      String key = account.identityKeys().getEd25519();
+      String signature = account.sign(Utils.canonicalizeJson(WARM_UP_MESSAGE));
+
+      for (int i = 0; i < iterations; i++) {
+        utility.sha256(WARM_UP_MESSAGE);
+        utility.verifyEd25519(key, WARM_UP_MESSAGE, signature);
+      }
+    }
+  }
+
+  /** Time taken by {@link #warmUp(int)}. */
+  public static final class WarmUpReport {
+    private final int iterations;
+    private final Map<Subsystem, Long> nanos;
+
+    private WarmUpReport(int iterations, Map<Subsystem, Long> nanos) {
+      this.iterations = iterations;
+      this.nanos = Collections.unmodifiableMap(nanos);
+    }
+
+    /**
+     * Gets the number of iterations run per subsystem.
+     *
+     * @return number of iterations
+     */
+    public int getIterations() {
+      return iterations;
+    }
+
+    /**
+     * Gets the time taken to warm up the given subsystem.
+     *
+     * @param subsystem subsystem
+     * @return time in nanoseconds
+     */
+    public long getNanos(Subsystem subsystem) {
+      return nanos.get(subsystem);
+    }
+
+    /**
+     * Gets the total time taken to warm up all subsystems.
+     *
+     * @return time in nanoseconds
+     */
+    public long getTotalNanos() {
+      long total = 0;
+      for (long value : nanos.values()) {
+        total += value;
+      }
+      return total;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder =
+          new StringBuilder(
+              String.format("warm-up (%d iterations): %.1f ms", iterations, getTotalNanos() / 1e6));
+      for (Map.Entry<Subsystem, Long> entry : nanos.entrySet()) {
+        builder.append(String.format(", %s: %.1f ms", entry.getKey(), entry.getValue() / 1e6));
+      }
+      return builder.toString();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import io.github.brevilo.jolm.jna.OlmLibrary;
+import io.github.brevilo.jolm.jna.OlmLibrary.OlmErrorCode;
+
+/** Error codes reported by olm (see {@link OlmErrorCode}). */
+public enum OlmError {
+  SUCCESS(OlmErrorCode.OLM_SUCCESS, false),
+  NOT_ENOUGH_RANDOM(OlmErrorCode.OLM_NOT_ENOUGH_RANDOM, false),
+  OUTPUT_BUFFER_TOO_SMALL(OlmErrorCode.OLM_OUTPUT_BUFFER_TOO_SMALL, false),
+  BAD_MESSAGE_VERSION(OlmErrorCode.OLM_BAD_MESSAGE_VERSION, true),
+  BAD_MESSAGE_FORMAT(OlmErrorCode.OLM_BAD_MESSAGE_FORMAT, true),
+  BAD_MESSAGE_MAC(OlmErrorCode.OLM_BAD_MESSAGE_MAC, true),
+  BAD_MESSAGE_KEY_ID(OlmErrorCode.OLM_BAD_MESSAGE_KEY_ID, true),
+  INVALID_BASE64(OlmErrorCode.OLM_INVALID_BASE64, true),
+  BAD_ACCOUNT_KEY(OlmErrorCode.OLM_BAD_ACCOUNT_KEY, false),
+  UNKNOWN_PICKLE_VERSION(OlmErrorCode.OLM_UNKNOWN_PICKLE_VERSION, false),
+  CORRUPTED_PICKLE(OlmErrorCode.OLM_CORRUPTED_PICKLE, false),
+  BAD_SESSION_KEY(OlmErrorCode.OLM_BAD_SESSION_KEY, false),
+  UNKNOWN_MESSAGE_INDEX(OlmErrorCode.OLM_UNKNOWN_MESSAGE_INDEX, true),
+  BAD_LEGACY_ACCOUNT_PICKLE(OlmErrorCode.OLM_BAD_LEGACY_ACCOUNT_PICKLE, false),
+  BAD_SIGNATURE(OlmErrorCode.OLM_BAD_SIGNATURE, true),
+  INPUT_BUFFER_TOO_SMALL(OlmErrorCode.OLM_INPUT_BUFFER_TOO_SMALL, false),
+  SAS_THEIR_KEY_NOT_SET(OlmErrorCode.OLM_SAS_THEIR_KEY_NOT_SET, false),
+  PICKLE_EXTRA_DATA(OlmErrorCode.OLM_PICKLE_EXTRA_DATA, false),
+  /** Error code not known to this version of jOlm. */
+  UNKNOWN(-1, false);
+
+  private static final OlmError[] BY_CODE;
+
+  static {
+    int max = 0;
+    for (OlmError error : values()) {
+      max = Math.max(max, error.code);
+    }
+    BY_CODE = new OlmError[max + 1];
+    for (OlmError error : values()) {
+      if (error.code >= 0) {
+        BY_CODE[error.code] = error;
+      }
+    }
+  }
+
+  private final int code;
+  private final boolean routine;
+  private volatile String message;
+
+  private OlmError(int code, boolean routine) {
+    this.code = code;
+    this.routine = routine;
+  }
+
+  /**
+   * Gets the error for the given olm error code.
+   *
+   * @param code olm error code
+   * @return matching error ({@link #UNKNOWN} for unknown codes)
+   */
+  public static OlmError fromCode(int code) {
+    return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : UNKNOWN;
+  }
+
+  /**
+   * Gets the olm error code.
+   *
+   * @return olm error code (-1 for {@link #UNKNOWN})
+   */
+  public int getCode() {
+    return code;
+  }
+
+  /**
+   * Checks if this error is routine in normal operation (e.g. undecryptable messages), so that
+   * exceptions reporting it are created without a stack trace.
+   *
+   * @return true if routine
+   */
+  public boolean isRoutine() {
+    return routine;
+  }
+
+  /**
+   * Gets olm's error message (looked up once, on first use).
+   *
+   * @return error message
+   */
+  public String getMessage() {
+    String result = message;
+    if (result == null) {
+      result = this == UNKNOWN ? name() : OlmLibrary._olm_error_to_string(code);
+      message = result;
+    }
+    return result;
+  }
+}
@@ -18,12 +18,18 @@ package io.github.brevilo.jolm;
 
 import com.sun.jna.Memory;
 import io.github.brevilo.jolm.Utils.OlmException;
+import io.github.brevilo.jolm.jna.NativeBackend;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.jna.OlmOutboundGroupSession;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /** Class to represent an outbound Megolm session. */
-public class OutboundGroupSession {
+public class OutboundGroupSession implements AutoCloseable {
 
   // backing store
   private final OlmOutboundGroupSession instance;
@@ -37,15 +43,16 @@ public class OutboundGroupSession {
     // initialize backing store
     instance =
         Utils.initialize(
-            OlmLibrary::olm_outbound_group_session, OlmLibrary::olm_outbound_group_session_size);
+            OlmLibrary::olm_outbound_group_session,
+            OlmConstants.MegolmOutbound.OUTBOUND_GROUP_SESSION_SIZE);
 
     // generate randomness and create session
-    NativeSize randomLength = OlmLibrary.olm_init_outbound_group_session_random_length(instance);
+    NativeSize randomLength = OlmLibrary.olm_init_outbound_group_session_random_length(instance());
     Memory randomBuffer = Utils.randomBuffer(randomLength);
 
     // call olm
     NativeSize result =
-        OlmLibrary.olm_init_outbound_group_session(instance, randomBuffer, randomLength);
+        OlmLibrary.olm_init_outbound_group_session(instance(), randomBuffer, randomLength);
 
     // clear the random buffer
     randomBuffer.clear();
@@ -53,9 +60,57 @@ public class OutboundGroupSession {
     checkOlmResult(result);
   }
 
+  /**
+   * Private constructor adopting an already initialized backing store.
+   *
+   * @param instance olm outbound group session
+   */
+  private OutboundGroupSession(OlmOutboundGroupSession instance) {
+    this.instance = instance;
+  }
+
   /** Clears the memory used to back this group session. */
   public void clear() {
-    OlmLibrary.olm_clear_outbound_group_session(instance);
+    OlmLibrary.olm_clear_outbound_group_session(instance());
+  }
+
+  /**
+   * Clears this group session and releases its backing store right away. Using the group session
+   * afterwards throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this group session
+   * @throws IllegalStateException if this group session has been closed
+   */
+  OlmOutboundGroupSession instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("OutboundGroupSession has been closed");
+    }
+    return instance;
+  }
+
+  /**
+   * Creates an independent copy of this group session by duplicating its native state (much cheaper
+   * than a pickle round trip).
+   *
+   * @return copy of this group session
+   */
+  public OutboundGroupSession copy() {
+    return new OutboundGroupSession(
+        Utils.copy(
+            instance(),
+            OlmLibrary::olm_outbound_group_session,
+            OlmConstants.MegolmOutbound.OUTBOUND_GROUP_SESSION_SIZE));
   }
 
   /**
@@ -66,14 +121,14 @@ public class OutboundGroupSession {
    */
   public String sessionId() throws OlmException {
     // prepare output buffer
-    NativeSize idLength = OlmLibrary.olm_outbound_group_session_id_length(instance);
+    NativeSize idLength = OlmLibrary.olm_outbound_group_session_id_length(instance());
     Memory id = new Memory(idLength.longValue());
 
     // call olm
-    NativeSize result = OlmLibrary.olm_outbound_group_session_id(instance, id, idLength);
+    NativeSize result = OlmLibrary.olm_outbound_group_session_id(instance(), id, idLength);
     checkOlmResult(result);
 
-    return Utils.fromNative(id);
+    return NativeString.decode(id, result);
   }
 
   /**
@@ -82,7 +137,7 @@ public class OutboundGroupSession {
    * @return current message index
    */
   public int messageIndex() {
-    return OlmLibrary.olm_outbound_group_session_message_index(instance);
+    return OlmLibrary.olm_outbound_group_session_message_index(instance());
   }
 
   /**
@@ -95,19 +150,20 @@ public class OutboundGroupSession {
    * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the key buffer was too small
    */
   public String sessionKey() throws OlmException {
-    NativeSize keyLength = OlmLibrary.olm_outbound_group_session_key_length(instance);
+    NativeSize keyLength = OlmLibrary.olm_outbound_group_session_key_length(instance());
     Memory key = new Memory(keyLength.longValue());
 
     // call olm
-    NativeSize result = OlmLibrary.olm_outbound_group_session_key(instance, key, keyLength);
+    NativeSize result = OlmLibrary.olm_outbound_group_session_key(instance(), key, keyLength);
 
-    // clear the key buffer
-    String sessionKey = Utils.fromNative(key);
-    key.clear();
-
-    checkOlmResult(result);
+    try {
+      checkOlmResult(result);
 
-    return sessionKey;
+      return NativeString.decode(key, result);
+    } finally {
+      // clear the key buffer
+      key.clear();
+    }
   }
 
   /**
@@ -118,29 +174,81 @@ public class OutboundGroupSession {
    * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the output buffer was too small
    */
   public String encrypt(String plainText) throws OlmException {
-    // get native plain text
-    Memory plainTextBuffer = Utils.toNative(plainText);
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage plain text
+      long messageLength = encryptStaged(scratch, scratch.encode(ScratchArena.INPUT, plainText));
+
+      return scratch.decode(ScratchArena.OUTPUT, messageLength);
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
 
-    // prepare output buffer
-    NativeSize messageLength =
-        OlmLibrary.olm_group_encrypt_message_length(instance, new NativeSize(plainTextBuffer));
-    Memory messageBuffer = new Memory(messageLength.longValue());
+  /**
+   * Encrypt some plain-text bytes.
+   *
+   * @param plainText bytes to be encrypted
+   * @return encrypted message bytes (base64)
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the output buffer was too small
+   */
+  public byte[] encrypt(byte[] plainText) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage plain text
+      long messageLength = encryptStaged(scratch, scratch.write(ScratchArena.INPUT, plainText));
+
+      return scratch.read(ScratchArena.OUTPUT, messageLength);
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
+
+  /**
+   * Encrypt some plain text, reading it from and writing the encrypted message into caller-supplied
+   * direct buffers. On success the position of the plain text buffer is advanced to its limit and
+   * the position of the message buffer past the encrypted message.
+   *
+   * @param plainText direct buffer holding the (remaining) plain text bytes
+   * @param message direct buffer receiving the encrypted message (see {@link
+   *     #encryptMessageLength(long)})
+   * @return encrypted message length in bytes
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the message buffer is too small
+   * @throws IllegalArgumentException if a buffer isn't direct or the message buffer is read-only
+   */
+  public int encrypt(ByteBuffer plainText, ByteBuffer message) throws OlmException {
+    ByteBuffer plainTextView = Utils.nativeView(plainText, false);
+    ByteBuffer messageView = Utils.nativeView(message, true);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_group_encrypt(
-            instance,
-            plainTextBuffer,
-            new NativeSize(plainTextBuffer),
-            messageBuffer,
-            messageLength);
-
-    // clear the plaintext buffer
-    plainTextBuffer.clear();
+            instance(),
+            plainTextView,
+            new NativeSize(plainTextView.remaining()),
+            messageView,
+            new NativeSize(messageView.remaining()));
 
     checkOlmResult(result);
 
-    return Utils.fromNative(messageBuffer);
+    plainText.position(plainText.limit());
+    message.position(message.position() + result.intValue());
+
+    return result.intValue();
+  }
+
+  /**
+   * Get the length of the encrypted message for a plain text of the given length. Use this to size
+   * the message buffer passed to {@link #encrypt(ByteBuffer, ByteBuffer)}.
+   *
+   * @param plainTextLength plain text length in bytes
+   * @return encrypted message length in bytes
+   */
+  public long encryptMessageLength(long plainTextLength) {
+    return OlmLibrary.olm_group_encrypt_message_length(instance(), new NativeSize(plainTextLength))
+        .longValue();
   }
 
   /**
@@ -153,8 +261,83 @@ public class OutboundGroupSession {
    *     too small
    */
   public String pickle(String key) throws RuntimeException {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return pickle(pickleKey);
+    }
+  }
+
+  /**
+   * Stores an outbound group session as a base64 string. Encrypts the session using the supplied
+   * key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @return serialized session
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public String pickle(PickleKey key) throws RuntimeException {
+    return Utils.pickle(
+        instance(),
+        key,
+        OlmLibrary::olm_pickle_outbound_group_session_length,
+        OlmLibrary::olm_pickle_outbound_group_session,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Stores an outbound group session as base64 straight into a caller-supplied direct buffer.
+   * Encrypts the session using the supplied key. On success the buffer's position is advanced past
+   * the pickle.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @param pickle direct buffer receiving the serialized session (see {@link #pickledLength()})
+   * @return number of bytes written
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the buffer is too small
+   * @throws IllegalArgumentException if the buffer isn't direct or is read-only
+   */
+  public int pickle(PickleKey key, ByteBuffer pickle) throws RuntimeException {
     return Utils.pickle(
-        instance,
+        instance(),
+        key,
+        pickle,
+        OlmLibrary::olm_pickle_outbound_group_session,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Gets the length of this outbound group session's pickle (independent of the key), e.g. to
+   * pre-size buffers for {@link #pickle(PickleKey, ByteBuffer)}.
+   *
+   * @return pickle length in bytes
+   */
+  public long pickledLength() {
+    return OlmLibrary.olm_pickle_outbound_group_session_length(instance()).longValue();
+  }
+
+  /**
+   * Stores an outbound group session as base64 bytes (ASCII). Encrypts the session using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @return serialized session
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public byte[] pickleBytes(PickleKey key) throws RuntimeException {
+    return Utils.pickleBytes(
+        instance(),
         key,
         OlmLibrary::olm_pickle_outbound_group_session_length,
         OlmLibrary::olm_pickle_outbound_group_session,
@@ -167,6 +350,86 @@ public class OutboundGroupSession {
         });
   }
 
+  /**
+   * Stores a snapshot of this session as a base64 string in the background. The current state is
+   * captured right away (see {@link #copy()}) while the expensive pickle encryption runs on the
+   * given executor, so the session can be used again as soon as this method returns.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @param executor executor running the pickle encryption
+   * @return serialized session as of this call (completes exceptionally with a <code>
+   *     RuntimeException</code> if pickling failed)
+   * @throws java.util.concurrent.RejectedExecutionException if the executor rejected the task
+   */
+  public CompletableFuture<String> pickleSnapshot(String key, Executor executor) {
+    PickleKey pickleKey = new PickleKey(key);
+    try {
+      return pickleSnapshot(pickleKey, executor).whenComplete((pickle, e) -> pickleKey.close());
+    } catch (RuntimeException e) {
+      pickleKey.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Stores a snapshot of this session as a base64 string in the background. The current state is
+   * captured right away (see {@link #copy()}) while the expensive pickle encryption runs on the
+   * given executor, so the session can be used again as soon as this method returns.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey}), must not be
+   *     closed before the returned future completed
+   * @param executor executor running the pickle encryption
+   * @return serialized session as of this call (completes exceptionally with a <code>
+   *     RuntimeException</code> if pickling failed)
+   * @throws java.util.concurrent.RejectedExecutionException if the executor rejected the task
+   */
+  public CompletableFuture<String> pickleSnapshot(PickleKey key, Executor executor) {
+    OutboundGroupSession snapshot = copy();
+    try {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            try (OutboundGroupSession pickled = snapshot) {
+              return pickled.pickle(key);
+            }
+          },
+          executor);
+    } catch (RuntimeException e) {
+      snapshot.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Encrypt the plain text staged in the scratch arena's input slot into its output slot.
+   *
+   * @param scratch acquired scratch arena
+   * @param plainTextLength staged plain text length in bytes
+   * @return encrypted message length in bytes
+   * @throws OlmException thrown if an error occurred (incl. error details)
+   */
+  private long encryptStaged(ScratchArena scratch, long plainTextLength) throws OlmException {
+    NativeBackend backend = NativeBackend.getInstance();
+    long session = NativeBackend.address(instance());
+    long plainTextBuffer =
+        NativeBackend.address(scratch.buffer(ScratchArena.INPUT, plainTextLength));
+
+    // prepare output buffer
+    long messageLength = backend.olm_group_encrypt_message_length(session, plainTextLength);
+    long messageBuffer = NativeBackend.address(scratch.buffer(ScratchArena.OUTPUT, messageLength));
+
+    // call olm
+    long result =
+        backend.olm_group_encrypt(
+            session, plainTextBuffer, plainTextLength, messageBuffer, messageLength);
+
+    // keep the backing store alive until olm is done with it
+    NativeBackend.reachabilityFence(instance);
+
+    checkOlmResult(result);
+
+    return result;
+  }
+
   /**
    * Check the latest olm function call for errors.
    *
@@ -174,7 +437,19 @@ public class OutboundGroupSession {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    OutboundGroupSession.checkOlmResult(instance, result);
+    OutboundGroupSession.checkOlmResult(instance(), result);
+  }
+
+  /**
+   * Check the latest olm function call for errors.
+   *
+   * @param result raw result returned by the olm function call to check
+   * @throws OlmException thrown if an error occurred (incl. error details)
+   */
+  private void checkOlmResult(long result) throws OlmException {
+    if (result == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_outbound_group_session_last_error_code(instance()));
+    }
   }
 
   // ================= static methods =================
@@ -189,8 +464,8 @@ public class OutboundGroupSession {
   private static void checkOlmResult(OlmOutboundGroupSession session, NativeSize result)
       throws OlmException {
 
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_outbound_group_session_last_error(session));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_outbound_group_session_last_error_code(session));
     }
   }
 
@@ -201,16 +476,90 @@ public class OutboundGroupSession {
    * @param key key used to encrypt the serialized session data
    * @param pickle serialized session data
    * @return new initialized session instance
-   * @throws OlmException <code>NOT_ENOUGH_RANDOM</code> if there weren't enough random bytes to
-   *     create the new session
+   * @throws OlmException not thrown anymore (unpickling requires no randomness), declared for
+   *     compatibility
    * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
    *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
    */
   public static OutboundGroupSession unpickle(String key, String pickle)
       throws OlmException, RuntimeException {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return unpickle(pickleKey, pickle);
+    }
+  }
 
-    // create new instance
-    OutboundGroupSession session = new OutboundGroupSession();
+  /**
+   * Loads an outbound group session from a pickled base64 string. Decrypts the session using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle serialized session data
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static OutboundGroupSession unpickle(PickleKey key, String pickle)
+      throws RuntimeException {
+
+    // allocate new instance (its state is overwritten anyway)
+    OutboundGroupSession session =
+        new OutboundGroupSession(
+            Utils.initialize(
+                OlmLibrary::olm_outbound_group_session,
+                OlmConstants.MegolmOutbound.OUTBOUND_GROUP_SESSION_SIZE));
+
+    // populate instance from persisted data
+    Utils.unpickle(
+        session.instance,
+        key,
+        pickle,
+        OlmLibrary::olm_unpickle_outbound_group_session,
+        (a, r) -> {
+          try {
+            checkOlmResult(a, r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+
+    return session;
+  }
+
+  /**
+   * Loads an outbound group session from pickled base64 bytes. Decrypts the session using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle serialized session data
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static OutboundGroupSession unpickle(PickleKey key, byte[] pickle)
+      throws RuntimeException {
+    return unpickle(key, ByteBuffer.wrap(pickle));
+  }
+
+  /**
+   * Loads an outbound group session from a buffer holding pickled base64 data. Decrypts the session
+   * using the supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle buffer holding the (remaining) serialized session data, its position is advanced
+   *     to its limit on success
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static OutboundGroupSession unpickle(PickleKey key, ByteBuffer pickle)
+      throws RuntimeException {
+
+    // allocate new instance (its state is overwritten anyway)
+    OutboundGroupSession session =
+        new OutboundGroupSession(
+            Utils.initialize(
+                OlmLibrary::olm_outbound_group_session,
+                OlmConstants.MegolmOutbound.OUTBOUND_GROUP_SESSION_SIZE));
 
     // populate instance from persisted data
     Utils.unpickle(
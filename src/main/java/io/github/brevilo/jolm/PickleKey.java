@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import io.github.brevilo.jolm.jna.NativeCleaner;
+import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+
+/**
+ * Pickle key held in native memory, for pickling or unpickling many objects with the same key
+ * without encoding it each time (see e.g. {@link Session#pickle(PickleKey)}).
+ *
+ * <p>The key is wiped when the handle is closed (or, as a last resort, once it became unreachable).
+ * A handle may be shared between threads, but must not be closed while in use.
+ */
+public final class PickleKey implements AutoCloseable {
+  private final Memory memory;
+  private final NativeSize length;
+  private final NativeCleaner.Cleanable cleanable;
+  private volatile boolean closed;
+
+  /**
+   * Creates a pickle key from a string (encoded as UTF-8, like the <code>String</code> key
+   * variants).
+   *
+   * @param key pickle key
+   */
+  public PickleKey(String key) {
+    NativeString encoded = NativeString.encode(key);
+    this.memory = (Memory) encoded.getPointer();
+    this.length = encoded.getLength();
+    this.cleanable = register(memory);
+  }
+
+  /**
+   * Creates a pickle key from raw bytes.
+   *
+   * @param key pickle key
+   */
+  public PickleKey(byte[] key) {
+    this.memory = key.length == 0 ? null : new Memory(key.length);
+    if (memory != null) {
+      memory.write(0, key, 0, key.length);
+    }
+    this.length = new NativeSize(key.length);
+    this.cleanable = register(memory);
+  }
+
+  /** Wipes the key. The key must not be used afterwards. Subsequent calls are no-ops. */
+  @Override
+  public void close() {
+    closed = true;
+    cleanable.clean();
+  }
+
+  /**
+   * Gets the native memory holding the key.
+   *
+   * @return native key (<code>null</code> for empty keys)
+   * @throws IllegalStateException if the key has been closed
+   */
+  Pointer getPointer() {
+    if (closed) {
+      throw new IllegalStateException("Pickle key has been closed");
+    }
+    return memory;
+  }
+
+  /**
+   * Gets the key length.
+   *
+   * @return key length in bytes
+   */
+  NativeSize getLength() {
+    return length;
+  }
+
+  /**
+   * Registers wiping the key with the cleaner.
+   *
+   * @param memory native key
+   * @return cleanable wiping the key
+   */
+  private NativeCleaner.Cleanable register(Memory memory) {
+    return NativeCleaner.register(
+        this,
+        () -> {
+          if (memory != null) {
+            memory.clear();
+          }
+        });
+  }
+}
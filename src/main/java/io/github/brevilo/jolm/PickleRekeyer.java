@@ -0,0 +1,497 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import io.github.brevilo.jolm.Utils.OlmException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk re-keying of pickles: every pickle is unpickled with the old key and pickled again with the
+ * new key.
+ *
+ * <p>Pickles are streamed from an input iterator (see {@link #read(BufferedReader)} for a simple
+ * file format) and processed in batches on a fork/join pool, so memory use is bounded by the batch
+ * size. Results are written to a {@link Sink} in input order. After every batch the number of
+ * processed entries is recorded in an (optional) checkpoint file, so an interrupted run can be
+ * resumed with the same input and checkpoint (appending to the same output). Entries of a batch
+ * that was interrupted before its checkpoint was written are written again when resuming, so later
+ * output entries supersede earlier ones with the same identifier. Typical usage:
+ *
+ * <pre>
+ * try (PickleKey oldKey = new PickleKey(oldSecret);
+ *     PickleKey newKey = new PickleKey(newSecret);
+ *     BufferedReader in = Files.newBufferedReader(input);
+ *     Writer out = Files.newBufferedWriter(output, CREATE, APPEND)) {
+ *   PickleRekeyer rekeyer = new PickleRekeyer(oldKey, newKey);
+ *   rekeyer.rekey(
+ *       PickleRekeyer.read(in), PickleRekeyer.write(out), checkpoint, System.out::println);
+ * }
+ * </pre>
+ */
+public class PickleRekeyer {
+  /** Default number of entries processed per batch. */
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private static final char SEPARATOR = '\t';
+
+  private final PickleKey oldKey;
+  private final PickleKey newKey;
+  private final ForkJoinPool pool;
+  private final int batchSize;
+
+  /**
+   * Creates a re-keyer using the common fork-join pool and {@link #DEFAULT_BATCH_SIZE}.
+   *
+   * @param oldKey key the pickles are currently encrypted with
+   * @param newKey key the pickles are to be encrypted with
+   */
+  public PickleRekeyer(PickleKey oldKey, PickleKey newKey) {
+    this(oldKey, newKey, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a re-keyer.
+   *
+   * @param oldKey key the pickles are currently encrypted with
+   * @param newKey key the pickles are to be encrypted with
+   * @param pool pool processing the batches
+   * @param batchSize number of entries processed (and held in memory) at once
+   * @throws IllegalArgumentException if the batch size isn't positive
+   */
+  public PickleRekeyer(PickleKey oldKey, PickleKey newKey, ForkJoinPool pool, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+    }
+
+    this.oldKey = oldKey;
+    this.newKey = newKey;
+    this.pool = pool;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Re-keys all pickles of the input.
+   *
+   * @param input pickles encrypted with the old key
+   * @param output receives the pickles encrypted with the new key (and failed entries)
+   * @param checkpoint file recording the number of processed entries (<code>null</code> to
+   *     disable), input entries already processed according to it are skipped
+   * @param listener receives the progress after every batch (<code>null</code> to disable)
+   * @return final progress
+   * @throws IOException if reading the checkpoint or writing the output or checkpoint failed
+   * @throws InterruptedException if interrupted while waiting for a batch
+   */
+  public Progress rekey(
+      Iterator<Entry> input, Sink output, Path checkpoint, Consumer<Progress> listener)
+      throws IOException, InterruptedException {
+    long start = System.nanoTime();
+
+    // resume
+    long skipped = checkpoint != null ? readCheckpoint(checkpoint) : 0;
+    for (long i = 0; i < skipped; i++) {
+      if (!input.hasNext()) {
+        throw new IOException("Input shorter than checkpoint: " + skipped + " entries");
+      }
+      input.next();
+    }
+
+    long processed = 0;
+    long failed = 0;
+    List<Entry> batch = new ArrayList<>(batchSize);
+    while (input.hasNext()) {
+      batch.clear();
+      while (batch.size() < batchSize && input.hasNext()) {
+        batch.add(input.next());
+      }
+
+      // re-key in parallel, write in order
+      Object[] results = process(batch);
+      for (int i = 0; i < results.length; i++) {
+        if (results[i] instanceof Entry) {
+          output.write((Entry) results[i]);
+        } else {
+          output.failed(batch.get(i), (Exception) results[i]);
+          failed++;
+        }
+      }
+      output.flush();
+      processed += batch.size();
+
+      if (checkpoint != null) {
+        writeCheckpoint(checkpoint, skipped + processed);
+      }
+      if (listener != null) {
+        listener.accept(new Progress(skipped, processed, failed, System.nanoTime() - start));
+      }
+    }
+
+    return new Progress(skipped, processed, failed, System.nanoTime() - start);
+  }
+
+  /**
+   * Re-keys a single pickle.
+   *
+   * @param entry pickle encrypted with the old key
+   * @return pickle encrypted with the new key
+   * @throws OlmException if unpickling failed (e.g. wrong old key)
+   * @throws RuntimeException if unpickling or pickling failed, for the types reporting olm errors
+   *     as <code>RuntimeException</code>
+   */
+  public Entry rekey(Entry entry) throws OlmException {
+    return new Entry(entry.type, entry.id, entry.type.rekey(oldKey, newKey, entry.pickle));
+  }
+
+  /**
+   * Re-keys a batch on the pool.
+   *
+   * @param batch entries to re-key
+   * @return re-keyed entry or exception, per batch entry
+   * @throws InterruptedException if interrupted while waiting
+   */
+  private Object[] process(List<Entry> batch) throws InterruptedException {
+    Object[] results = new Object[batch.size()];
+    try {
+      pool.submit(
+              () ->
+                  IntStream.range(0, results.length)
+                      .parallel()
+                      .forEach(
+                          i -> {
+                            try {
+                              results[i] = rekey(batch.get(i));
+                            } catch (Exception e) {
+                              results[i] = e;
+                            }
+                          }))
+          .get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+    return results;
+  }
+
+  /**
+   * Creates an input iterator reading one entry per line: type, identifier and pickle separated by
+   * tabs (identifiers must not contain tabs or line breaks). I/O errors are thrown as {@link
+   * UncheckedIOException}.
+   *
+   * @param reader reader to read the entries from
+   * @return entry iterator
+   */
+  public static Iterator<Entry> read(BufferedReader reader) {
+    return new Iterator<Entry>() {
+      private String next;
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          try {
+            do {
+              next = reader.readLine();
+            } while (next != null && next.isEmpty());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public Entry next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        String line = next;
+        next = null;
+
+        int first = line.indexOf(SEPARATOR);
+        int second = line.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+          throw new IllegalArgumentException("Malformed entry: " + line);
+        }
+        return new Entry(
+            Type.valueOf(line.substring(0, first)),
+            line.substring(first + 1, second),
+            line.substring(second + 1).getBytes(StandardCharsets.US_ASCII));
+      }
+    };
+  }
+
+  /**
+   * Creates a sink writing one entry per line, in the format understood by {@link
+   * #read(BufferedReader)}. Failed entries are reported as {@link IOException}.
+   *
+   * @param writer writer to write the entries to
+   * @return entry sink
+   */
+  public static Sink write(Writer writer) {
+    return new Sink() {
+      @Override
+      public void write(Entry entry) throws IOException {
+        writer
+            .append(entry.type.name())
+            .append(SEPARATOR)
+            .append(entry.id)
+            .append(SEPARATOR)
+            .append(new String(entry.pickle, StandardCharsets.US_ASCII))
+            .append('\n');
+      }
+
+      @Override
+      public void flush() throws IOException {
+        writer.flush();
+      }
+    };
+  }
+
+  /**
+   * Reads the number of processed entries from a checkpoint file.
+   *
+   * @param checkpoint checkpoint file
+   * @return number of processed entries (0 if there's no checkpoint yet)
+   * @throws IOException if reading failed
+   */
+  private static long readCheckpoint(Path checkpoint) throws IOException {
+    if (!Files.exists(checkpoint)) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(
+          new String(Files.readAllBytes(checkpoint), StandardCharsets.US_ASCII).trim());
+    } catch (NumberFormatException e) {
+      throw new IOException("Corrupt checkpoint: " + checkpoint, e);
+    }
+  }
+
+  /**
+   * Atomically replaces a checkpoint file.
+   *
+   * @param checkpoint checkpoint file
+   * @param processed number of processed entries
+   * @throws IOException if writing failed
+   */
+  private static void writeCheckpoint(Path checkpoint, long processed) throws IOException {
+    Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+    Files.write(temporary, Long.toString(processed).getBytes(StandardCharsets.US_ASCII));
+    Files.move(
+        temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** Pickled object types. */
+  public enum Type {
+    ACCOUNT {
+      @Override
+      byte[] rekey(PickleKey oldKey, PickleKey newKey, byte[] pickle) {
+        try (Account account = Account.unpickle(oldKey, pickle)) {
+          return account.pickleBytes(newKey);
+        }
+      }
+    },
+    SESSION {
+      @Override
+      byte[] rekey(PickleKey oldKey, PickleKey newKey, byte[] pickle) {
+        try (Session session = Session.unpickle(oldKey, pickle)) {
+          return session.pickleBytes(newKey);
+        }
+      }
+    },
+    INBOUND_GROUP_SESSION {
+      @Override
+      byte[] rekey(PickleKey oldKey, PickleKey newKey, byte[] pickle) {
+        try (InboundGroupSession session = InboundGroupSession.unpickle(oldKey, pickle)) {
+          return session.pickleBytes(newKey);
+        }
+      }
+    },
+    OUTBOUND_GROUP_SESSION {
+      @Override
+      byte[] rekey(PickleKey oldKey, PickleKey newKey, byte[] pickle) {
+        try (OutboundGroupSession session = OutboundGroupSession.unpickle(oldKey, pickle)) {
+          return session.pickleBytes(newKey);
+        }
+      }
+    },
+    PK_DECRYPTION {
+      @Override
+      byte[] rekey(PickleKey oldKey, PickleKey newKey, byte[] pickle) throws OlmException {
+        try (PkDecryption decryption = PkDecryption.unpickle(oldKey, pickle)) {
+          return decryption.pickleBytes(newKey);
+        }
+      }
+    };
+
+    abstract byte[] rekey(PickleKey oldKey, PickleKey newKey, byte[] pickle) throws OlmException;
+  }
+
+  /** Pickled object along with its type and an identifier (e.g. a database key). */
+  public static final class Entry {
+    private final Type type;
+    private final String id;
+    private final byte[] pickle;
+
+    /**
+     * Creates an entry.
+     *
+     * @param type pickled object type
+     * @param id identifier of the pickled object
+     * @param pickle pickle (base64, ASCII)
+     */
+    public Entry(Type type, String id, byte[] pickle) {
+      this.type = type;
+      this.id = id;
+      this.pickle = pickle;
+    }
+
+    /**
+     * Gets the pickled object type.
+     *
+     * @return object type
+     */
+    public Type getType() {
+      return type;
+    }
+
+    /**
+     * Gets the identifier of the pickled object.
+     *
+     * @return identifier
+     */
+    public String getId() {
+      return id;
+    }
+
+    /**
+     * Gets the pickle.
+     *
+     * @return pickle (base64, ASCII)
+     */
+    public byte[] getPickle() {
+      return pickle;
+    }
+  }
+
+  /** Receiver of re-keyed pickles. */
+  public interface Sink {
+    /**
+     * Writes a re-keyed entry.
+     *
+     * @param entry entry encrypted with the new key
+     * @throws IOException if writing failed
+     */
+    void write(Entry entry) throws IOException;
+
+    /**
+     * Handles an entry that couldn't be re-keyed. Fails the run by default.
+     *
+     * @param entry entry encrypted with the old key
+     * @param cause reason of the failure
+     * @throws IOException to abort the run
+     */
+    default void failed(Entry entry, Exception cause) throws IOException {
+      throw new IOException("Re-keying failed: " + entry.getId(), cause);
+    }
+
+    /**
+     * Flushes all entries written so far, called before the checkpoint is updated.
+     *
+     * @throws IOException if flushing failed
+     */
+    default void flush() throws IOException {}
+  }
+
+  /** Progress of a re-keying run. */
+  public static final class Progress {
+    private final long skipped;
+    private final long processed;
+    private final long failed;
+    private final long elapsedNanos;
+
+    private Progress(long skipped, long processed, long failed, long elapsedNanos) {
+      this.skipped = skipped;
+      this.processed = processed;
+      this.failed = failed;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of entries skipped because they had been processed by a previous run.
+     *
+     * @return number of skipped entries
+     */
+    public long getSkipped() {
+      return skipped;
+    }
+
+    /**
+     * Gets the number of entries processed by this run (incl. failed ones).
+     *
+     * @return number of processed entries
+     */
+    public long getProcessed() {
+      return processed;
+    }
+
+    /**
+     * Gets the number of entries that couldn't be re-keyed by this run.
+     *
+     * @return number of failed entries
+     */
+    public long getFailed() {
+      return failed;
+    }
+
+    /**
+     * Gets the time elapsed since this run started.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Gets the throughput of this run.
+     *
+     * @return processed entries per second
+     */
+    public double getThroughput() {
+      return elapsedNanos == 0 ? 0 : processed / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "processed: %d (skipped: %d, failed: %d), %.1f s, %.0f entries/s",
+          processed, skipped, failed, elapsedNanos / 1e9, getThroughput());
+    }
+  }
+}
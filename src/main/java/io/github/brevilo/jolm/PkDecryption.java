@@ -17,14 +17,21 @@
 package io.github.brevilo.jolm;
 
 import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
 import io.github.brevilo.jolm.Utils.OlmException;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.jna.OlmPkDecryption;
 import io.github.brevilo.jolm.model.PkMessage;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /** Class to represent an Olm decryption object. */
-public class PkDecryption {
+public class PkDecryption implements AutoCloseable {
 
   // backing store
   public final OlmPkDecryption instance;
@@ -39,20 +46,20 @@ public class PkDecryption {
    */
   public PkDecryption() throws OlmException {
     // initialize backing store
-    instance = Utils.initialize(OlmLibrary::olm_pk_decryption, OlmLibrary::olm_pk_decryption_size);
+    instance = Utils.initialize(OlmLibrary::olm_pk_decryption, OlmConstants.Pk.PK_DECRYPTION_SIZE);
 
     // generate random private key
-    NativeSize privateKeyLength = OlmLibrary.olm_pk_private_key_length();
+    NativeSize privateKeyLength = new NativeSize(OlmConstants.Pk.PK_PRIVATE_KEY_LENGTH);
     Memory privateKeyBuffer = Utils.randomBuffer(privateKeyLength);
 
     // prepare output buffer
-    NativeSize publicKeyLength = OlmLibrary.olm_pk_key_length();
+    NativeSize publicKeyLength = new NativeSize(OlmConstants.Pk.PK_KEY_LENGTH);
     Memory publicKeyBuffer = new Memory(publicKeyLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_pk_key_from_private(
-            instance, publicKeyBuffer, publicKeyLength, privateKeyBuffer, privateKeyLength);
+            instance(), publicKeyBuffer, publicKeyLength, privateKeyBuffer, privateKeyLength);
 
     // clear the random private key buffer
     privateKeyBuffer.clear();
@@ -60,12 +67,62 @@ public class PkDecryption {
     checkOlmResult(result);
 
     // store associated public key
-    this.publicKey = Utils.fromNative(publicKeyBuffer);
+    this.publicKey = NativeString.decode(publicKeyBuffer, publicKeyLength);
+  }
+
+  /**
+   * Private constructor adopting an already initialized backing store.
+   *
+   * @param instance olm decryption object
+   */
+  private PkDecryption(OlmPkDecryption instance) {
+    this.instance = instance;
   }
 
   /** Clears the memory used to back this decryption object. */
   public void clear() {
-    OlmLibrary.olm_clear_pk_decryption(instance);
+    OlmLibrary.olm_clear_pk_decryption(instance());
+  }
+
+  /**
+   * Clears this decryption object and releases its backing store right away. Using the decryption
+   * object afterwards throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this decryption object
+   * @throws IllegalStateException if this decryption object has been closed
+   */
+  OlmPkDecryption instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("PkDecryption has been closed");
+    }
+    return instance;
+  }
+
+  /**
+   * Creates an independent copy of this decryption object by duplicating its native state (much
+   * cheaper than a pickle round trip).
+   *
+   * @return copy of this decryption object
+   */
+  public PkDecryption copy() {
+    PkDecryption copy =
+        new PkDecryption(
+            Utils.copy(
+                instance(), OlmLibrary::olm_pk_decryption, OlmConstants.Pk.PK_DECRYPTION_SIZE));
+    copy.publicKey = publicKey;
+
+    return copy;
   }
 
   /**
@@ -87,20 +144,21 @@ public class PkDecryption {
    */
   public String privateKey() throws OlmException {
     // prepare output buffer
-    NativeSize privateKeyLength = OlmLibrary.olm_pk_private_key_length();
+    NativeSize privateKeyLength = new NativeSize(OlmConstants.Pk.PK_PRIVATE_KEY_LENGTH);
     Memory privateKeyBuffer = new Memory(privateKeyLength.longValue());
 
     // call olm
     NativeSize result =
-        OlmLibrary.olm_pk_get_private_key(instance, privateKeyBuffer, privateKeyLength);
+        OlmLibrary.olm_pk_get_private_key(instance(), privateKeyBuffer, privateKeyLength);
 
-    // clear the private key buffer
-    String privateKey = Utils.fromNative(privateKeyBuffer);
-    privateKeyBuffer.clear();
+    try {
+      checkOlmResult(result);
 
-    checkOlmResult(result);
-
-    return privateKey;
+      return NativeString.decode(privateKeyBuffer, result);
+    } finally {
+      // clear the private key buffer
+      privateKeyBuffer.clear();
+    }
   }
 
   /**
@@ -112,35 +170,84 @@ public class PkDecryption {
    */
   public String decrypt(PkMessage message) throws OlmException {
     // get native message content
-    Memory cipherTextBuffer = Utils.toNative(message.getCipherText());
-    Memory macBuffer = Utils.toNative(message.getMac());
-    Memory ephemeralBuffer = Utils.toNative(message.getEphemeral());
+    NativeString cipherTextBuffer = NativeString.encode(message.getCipherText());
+    NativeString macBuffer = NativeString.encode(message.getMac());
+    NativeString ephemeralBuffer = NativeString.encode(message.getEphemeral());
 
     // prepare output buffer
     NativeSize plainTextLength =
-        OlmLibrary.olm_pk_max_plaintext_length(instance, new NativeSize(cipherTextBuffer));
+        OlmLibrary.olm_pk_max_plaintext_length(instance(), cipherTextBuffer.getLength());
     Memory plainTextBuffer = new Memory(plainTextLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_pk_decrypt(
-            instance,
-            ephemeralBuffer,
-            new NativeSize(ephemeralBuffer),
-            macBuffer,
-            new NativeSize(macBuffer),
-            cipherTextBuffer,
-            new NativeSize(cipherTextBuffer),
+            instance(),
+            ephemeralBuffer.getPointer(),
+            ephemeralBuffer.getLength(),
+            macBuffer.getPointer(),
+            macBuffer.getLength(),
+            cipherTextBuffer.getPointer(),
+            cipherTextBuffer.getLength(),
             plainTextBuffer,
             plainTextLength);
 
-    // clear the plaintext buffer
-    String plainText = Utils.fromNative(plainTextBuffer);
-    plainTextBuffer.clear();
+    try {
+      checkOlmResult(result);
+
+      return NativeString.decode(plainTextBuffer, result);
+    } finally {
+      // clear the plaintext buffer
+      plainTextBuffer.clear();
+    }
+  }
+
+  /**
+   * Decrypt a ciphertext, reading the message details from and writing the plain text into
+   * caller-supplied direct buffers. A plain text buffer with as much room as the cipher text is
+   * always sufficient. On success the positions of the input buffers are advanced to their limits
+   * and the position of the plain text buffer past the plain text.
+   *
+   * <p><b>Note:</b> the content of the cipher text buffer is destroyed in the process.
+   *
+   * @param ephemeral direct buffer holding the (remaining) ephemeral key bytes
+   * @param mac direct buffer holding the (remaining) MAC bytes
+   * @param cipherText direct buffer holding the (remaining) cipher text bytes
+   * @param plainText direct buffer receiving the plain text
+   * @return plain text length in bytes
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the plaintext buffer is too small
+   * @throws IllegalArgumentException if a buffer isn't direct or the cipher text or plain text
+   *     buffer is read-only
+   */
+  public int decrypt(
+      ByteBuffer ephemeral, ByteBuffer mac, ByteBuffer cipherText, ByteBuffer plainText)
+      throws OlmException {
+    ByteBuffer ephemeralView = Utils.nativeView(ephemeral, false);
+    ByteBuffer macView = Utils.nativeView(mac, false);
+    ByteBuffer cipherTextView = Utils.nativeView(cipherText, true);
+    ByteBuffer plainTextView = Utils.nativeView(plainText, true);
+
+    // call olm
+    NativeSize result =
+        OlmLibrary.olm_pk_decrypt(
+            instance(),
+            ephemeralView,
+            new NativeSize(ephemeralView.remaining()),
+            macView,
+            new NativeSize(macView.remaining()),
+            cipherTextView,
+            new NativeSize(cipherTextView.remaining()),
+            plainTextView,
+            new NativeSize(plainTextView.remaining()));
 
     checkOlmResult(result);
 
-    return plainText;
+    ephemeral.position(ephemeral.limit());
+    mac.position(mac.limit());
+    cipherText.position(cipherText.limit());
+    plainText.position(plainText.position() + result.intValue());
+
+    return result.intValue();
   }
 
   /**
@@ -153,8 +260,84 @@ public class PkDecryption {
    *     too small
    */
   public String pickle(String key) throws RuntimeException {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return pickle(pickleKey);
+    }
+  }
+
+  /**
+   * Stores an decryption object as a base64 string. Encrypts the decryption object using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized decryption object data (see {@link PickleKey})
+   * @return serialized decryption object.
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public String pickle(PickleKey key) throws RuntimeException {
     return Utils.pickle(
-        instance,
+        instance(),
+        key,
+        OlmLibrary::olm_pickle_pk_decryption_length,
+        OlmLibrary::olm_pickle_pk_decryption,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Stores a decryption object as base64 straight into a caller-supplied direct buffer. Encrypts
+   * the decryption object using the supplied key. On success the buffer's position is advanced past
+   * the pickle.
+   *
+   * @param key key used to encrypt the serialized decryption object data
+   * @param pickle direct buffer receiving the serialized decryption object (see {@link
+   *     #pickledLength()})
+   * @return number of bytes written
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the buffer is too small
+   * @throws IllegalArgumentException if the buffer isn't direct or is read-only
+   */
+  public int pickle(PickleKey key, ByteBuffer pickle) throws RuntimeException {
+    return Utils.pickle(
+        instance(),
+        key,
+        pickle,
+        OlmLibrary::olm_pickle_pk_decryption,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Gets the length of this decryption object's pickle (independent of the key), e.g. to pre-size
+   * buffers for {@link #pickle(PickleKey, ByteBuffer)}.
+   *
+   * @return pickle length in bytes
+   */
+  public long pickledLength() {
+    return OlmLibrary.olm_pickle_pk_decryption_length(instance()).longValue();
+  }
+
+  /**
+   * Stores a decryption object as base64 bytes (ASCII). Encrypts the decryption object using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized decryption object data
+   * @return serialized decryption object
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public byte[] pickleBytes(PickleKey key) throws RuntimeException {
+    return Utils.pickleBytes(
+        instance(),
         key,
         OlmLibrary::olm_pickle_pk_decryption_length,
         OlmLibrary::olm_pickle_pk_decryption,
@@ -174,7 +357,7 @@ public class PkDecryption {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    PkDecryption.checkOlmResult(instance, result);
+    PkDecryption.checkOlmResult(instance(), result);
   }
 
   // ================= static methods =================
@@ -189,8 +372,8 @@ public class PkDecryption {
   private static void checkOlmResult(OlmPkDecryption instance, NativeSize result)
       throws OlmException {
 
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_pk_decryption_last_error(instance));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_pk_decryption_last_error_code(instance));
     }
   }
 
@@ -201,38 +384,141 @@ public class PkDecryption {
    * @param key key used to encrypt the serialized decryption object data
    * @param pickle serialized decryption object data
    * @return new initialized decryption object instance
-   * @throws OlmException <code>OLM_INPUT_BUFFER_TOO_SMALL</code> if the private key was not long
-   *     enough to create the new session; <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key
-   *     buffer was too small to create the new session; <code>BAD_ACCOUNT_KEY</code> if the key
-   *     doesn't match the one used to encrypt the session; <code>INVALID_BASE64</code> if the
-   *     base64 couldn't be decoded.
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer was too
+   *     small; <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to encrypt the
+   *     session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
    */
   public static PkDecryption unpickle(String key, String pickle) throws OlmException {
-    // create new instance
-    PkDecryption decryption = new PkDecryption();
-
-    // populate instance from persisted data
-    // prepare keys and pickle data
-    Memory keyBuffer = Utils.toNative(key);
-    Memory pickledBuffer = Utils.toNative(pickle);
-    NativeSize publicKeyLength = OlmLibrary.olm_pk_key_length();
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return unpickle(pickleKey, pickle);
+    }
+  }
+
+  /**
+   * Loads a decryption object from a pickled base64 string. The associated public key will be
+   * written to the publicKey buffer. Decrypts the object using the supplied key.
+   *
+   * @param key key used to encrypt the serialized decryption object data (see {@link PickleKey})
+   * @param pickle serialized decryption object data
+   * @return new initialized decryption object instance
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer was too
+   *     small; <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to encrypt the
+   *     session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static PkDecryption unpickle(PickleKey key, String pickle) throws OlmException {
+    NativeString pickledBuffer = NativeString.encode(pickle);
+
+    return unpickle(key, pickledBuffer.getPointer(), pickledBuffer.getLength());
+  }
+
+  /**
+   * Loads a decryption object from pickled base64 bytes. The associated public key will be written
+   * to the publicKey buffer. Decrypts the object using the supplied key.
+   *
+   * @param key key used to encrypt the serialized decryption object data (see {@link PickleKey})
+   * @param pickle serialized decryption object data
+   * @return new initialized decryption object instance
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer was too
+   *     small; <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to encrypt the
+   *     session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static PkDecryption unpickle(PickleKey key, byte[] pickle) throws OlmException {
+    return unpickle(key, ByteBuffer.wrap(pickle));
+  }
+
+  /**
+   * Loads a decryption object from a buffer holding pickled base64 data. The associated public key
+   * will be written to the publicKey buffer. Decrypts the object using the supplied key.
+   *
+   * @param key key used to encrypt the serialized decryption object data (see {@link PickleKey})
+   * @param pickle buffer holding the (remaining) serialized decryption object data, its position is
+   *     advanced to its limit on success
+   * @return new initialized decryption object instance
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer was too
+   *     small; <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to encrypt the
+   *     session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  public static PkDecryption unpickle(PickleKey key, ByteBuffer pickle) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // olm decodes the pickle in place, so stage it
+      long pickledLength = scratch.write(ScratchArena.INPUT, pickle);
+      PkDecryption decryption =
+          unpickle(
+              key,
+              scratch.buffer(ScratchArena.INPUT, pickledLength),
+              new NativeSize(pickledLength));
+
+      pickle.position(pickle.limit());
+
+      return decryption;
+    } finally {
+      scratch.release();
+    }
+  }
+
+  /**
+   * Loads a decryption object from pickled base64 data in native memory (which is overwritten).
+   *
+   * @param key key used to encrypt the serialized decryption object data
+   * @param pickled native serialized decryption object data
+   * @param pickledLength length of the serialized data in bytes
+   * @return new initialized decryption object instance
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer was too
+   *     small; <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to encrypt the
+   *     session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded.
+   */
+  private static PkDecryption unpickle(PickleKey key, Pointer pickled, NativeSize pickledLength)
+      throws OlmException {
+    // allocate new instance (its state is overwritten anyway)
+    PkDecryption decryption =
+        new PkDecryption(
+            Utils.initialize(OlmLibrary::olm_pk_decryption, OlmConstants.Pk.PK_DECRYPTION_SIZE));
+
+    // prepare output buffer
+    NativeSize publicKeyLength = new NativeSize(OlmConstants.Pk.PK_KEY_LENGTH);
     Memory publicKeyBuffer = new Memory(publicKeyLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_unpickle_pk_decryption(
             decryption.instance,
-            keyBuffer,
-            new NativeSize(keyBuffer),
-            pickledBuffer,
-            new NativeSize(pickledBuffer),
+            key.getPointer(),
+            key.getLength(),
+            pickled,
+            pickledLength,
             publicKeyBuffer,
             publicKeyLength);
 
     PkDecryption.checkOlmResult(decryption.instance, result);
 
-    decryption.publicKey = Utils.fromNative(publicKeyBuffer);
+    decryption.publicKey = NativeString.decode(publicKeyBuffer, publicKeyLength);
 
     return decryption;
   }
+
+  /**
+   * Creates several decryption objects with new random key pairs in parallel, using the common
+   * fork-join pool.
+   *
+   * @param count number of decryption objects to create
+   * @return new decryption objects
+   * @throws OlmException if any decryption object couldn't be created (none are returned then)
+   * @see #create(int, Executor)
+   */
+  public static List<PkDecryption> create(int count) throws OlmException {
+    return create(count, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates several decryption objects with new random key pairs in parallel.
+   *
+   * @param count number of decryption objects to create
+   * @param executor executor running the individual key pair generations
+   * @return new decryption objects
+   * @throws OlmException if any decryption object couldn't be created (none are returned then)
+   */
+  public static List<PkDecryption> create(int count, Executor executor) throws OlmException {
+    return Utils.createAll(count, executor, PkDecryption::new);
+  }
 }
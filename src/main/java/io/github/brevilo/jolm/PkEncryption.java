@@ -19,12 +19,15 @@ package io.github.brevilo.jolm;
 import com.sun.jna.Memory;
 import io.github.brevilo.jolm.Utils.OlmException;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.jna.OlmPkEncryption;
 import io.github.brevilo.jolm.model.PkMessage;
+import java.nio.ByteBuffer;
 
 /** Class to represent an Olm encryption object. */
-public class PkEncryption {
+public class PkEncryption implements AutoCloseable {
 
   // backing store
   public final OlmPkEncryption instance;
@@ -38,22 +41,47 @@ public class PkEncryption {
    */
   public PkEncryption(String recipientKey) throws OlmException {
     // initialize backing store
-    instance = Utils.initialize(OlmLibrary::olm_pk_encryption, OlmLibrary::olm_pk_encryption_size);
+    instance = Utils.initialize(OlmLibrary::olm_pk_encryption, OlmConstants.Pk.PK_ENCRYPTION_SIZE);
 
     // get native key
-    Memory keyBuffer = Utils.toNative(recipientKey);
+    NativeString keyBuffer = NativeString.encode(recipientKey);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_pk_encryption_set_recipient_key(
-            instance, keyBuffer, new NativeSize(keyBuffer));
+            instance(), keyBuffer.getPointer(), keyBuffer.getLength());
 
     checkOlmResult(result);
   }
 
   /** Clears the memory used to back this encryption object. */
   public void clear() {
-    OlmLibrary.olm_clear_pk_encryption(instance);
+    OlmLibrary.olm_clear_pk_encryption(instance());
+  }
+
+  /**
+   * Clears this encryption object and releases its backing store right away. Using the encryption
+   * object afterwards throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this encryption object
+   * @throws IllegalStateException if this encryption object has been closed
+   */
+  OlmPkEncryption instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("PkEncryption has been closed");
+    }
+    return instance;
   }
 
   /**
@@ -68,14 +96,14 @@ public class PkEncryption {
    */
   public PkMessage encrypt(String plainText) throws OlmException {
     // get native text
-    Memory plainTextBuffer = Utils.toNative(plainText);
+    NativeString plainTextBuffer = NativeString.encode(plainText);
 
     // get required buffer sizes
     NativeSize cipherTextLength =
-        OlmLibrary.olm_pk_ciphertext_length(instance, new NativeSize(plainTextBuffer));
-    NativeSize macLength = OlmLibrary.olm_pk_mac_length(instance);
-    NativeSize ephemeralLength = OlmLibrary.olm_pk_key_length();
-    NativeSize randomLength = OlmLibrary.olm_pk_encrypt_random_length(instance);
+        OlmLibrary.olm_pk_ciphertext_length(instance(), plainTextBuffer.getLength());
+    NativeSize macLength = OlmLibrary.olm_pk_mac_length(instance());
+    NativeSize ephemeralLength = new NativeSize(OlmConstants.Pk.PK_KEY_LENGTH);
+    NativeSize randomLength = OlmLibrary.olm_pk_encrypt_random_length(instance());
 
     // prepare required buffers
     Memory cipherTextBuffer = new Memory(cipherTextLength.longValue());
@@ -86,9 +114,9 @@ public class PkEncryption {
     // call olm
     NativeSize result =
         OlmLibrary.olm_pk_encrypt(
-            instance,
-            plainTextBuffer,
-            new NativeSize(plainTextBuffer),
+            instance(),
+            plainTextBuffer.getPointer(),
+            plainTextBuffer.getLength(),
             cipherTextBuffer,
             cipherTextLength,
             macBuffer,
@@ -105,9 +133,101 @@ public class PkEncryption {
     checkOlmResult(result);
 
     return new PkMessage(
-        Utils.fromNative(cipherTextBuffer),
-        Utils.fromNative(macBuffer),
-        Utils.fromNative(ephemeralBuffer));
+        NativeString.decode(cipherTextBuffer, cipherTextLength),
+        NativeString.decode(macBuffer, macLength),
+        NativeString.decode(ephemeralBuffer, ephemeralLength));
+  }
+
+  /**
+   * Encrypt a plaintext for the recipient set via {@link #PkEncryption(String)}, reading it from
+   * and writing the message details into caller-supplied direct buffers. On success the position of
+   * the plain text buffer is advanced to its limit and the positions of the output buffers past
+   * their respective content.
+   *
+   * @param plainText direct buffer holding the (remaining) plain text bytes
+   * @param cipherText direct buffer receiving the cipher text (see {@link #cipherTextLength(long)})
+   * @param mac direct buffer receiving the MAC (see {@link #macLength()})
+   * @param ephemeral direct buffer receiving the ephemeral key (see {@link #ephemeralKeyLength()})
+   * @return cipher text length in bytes
+   * @throws OlmException <code>OLM_INPUT_BUFFER_TOO_SMALL</code> if there weren't enough random
+   *     bytes; <code>OUTPUT_BUFFER_TOO_SMALL</code> if the ciphertext, MAC, or ephemeral key
+   *     buffers were too small
+   * @throws IllegalArgumentException if a buffer isn't direct or an output buffer is read-only
+   */
+  public int encrypt(
+      ByteBuffer plainText, ByteBuffer cipherText, ByteBuffer mac, ByteBuffer ephemeral)
+      throws OlmException {
+    ByteBuffer plainTextView = Utils.nativeView(plainText, false);
+    ByteBuffer cipherTextView = Utils.nativeView(cipherText, true);
+    ByteBuffer macView = Utils.nativeView(mac, true);
+    ByteBuffer ephemeralView = Utils.nativeView(ephemeral, true);
+
+    // get required buffer sizes (olm writes the complete cipher text, MAC and key)
+    NativeSize plainTextLength = new NativeSize(plainTextView.remaining());
+    NativeSize cipherTextLength = OlmLibrary.olm_pk_ciphertext_length(instance(), plainTextLength);
+    NativeSize macLength = OlmLibrary.olm_pk_mac_length(instance());
+    NativeSize ephemeralLength = new NativeSize(OlmConstants.Pk.PK_KEY_LENGTH);
+    NativeSize randomLength = OlmLibrary.olm_pk_encrypt_random_length(instance());
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_pk_encrypt(
+              instance(),
+              plainTextView,
+              plainTextLength,
+              cipherTextView,
+              new NativeSize(cipherTextView.remaining()),
+              macView,
+              new NativeSize(macView.remaining()),
+              ephemeralView,
+              new NativeSize(ephemeralView.remaining()),
+              scratch.random(randomLength.longValue()),
+              randomLength);
+
+      checkOlmResult(result);
+
+      plainText.position(plainText.limit());
+      cipherText.position(cipherText.position() + cipherTextLength.intValue());
+      mac.position(mac.position() + macLength.intValue());
+      ephemeral.position(ephemeral.position() + ephemeralLength.intValue());
+
+      return cipherTextLength.intValue();
+    } finally {
+      // clear the random buffer
+      scratch.release();
+    }
+  }
+
+  /**
+   * Get the length of the cipher text for a plain text of the given length. Use this to size the
+   * cipher text buffer passed to {@link #encrypt(ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer)}.
+   *
+   * @param plainTextLength plain text length in bytes
+   * @return cipher text length in bytes
+   */
+  public long cipherTextLength(long plainTextLength) {
+    return OlmLibrary.olm_pk_ciphertext_length(instance(), new NativeSize(plainTextLength))
+        .longValue();
+  }
+
+  /**
+   * Get the length of the MAC.
+   *
+   * @return MAC length in bytes
+   */
+  public long macLength() {
+    return OlmLibrary.olm_pk_mac_length(instance()).longValue();
+  }
+
+  /**
+   * Get the length of the ephemeral key.
+   *
+   * @return ephemeral key length in bytes
+   */
+  public long ephemeralKeyLength() {
+    return OlmConstants.Pk.PK_KEY_LENGTH;
   }
 
   /**
@@ -117,8 +237,8 @@ public class PkEncryption {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_pk_encryption_last_error(instance));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_pk_encryption_last_error_code(instance()));
     }
   }
 }
@@ -19,12 +19,16 @@ package io.github.brevilo.jolm;
 import com.sun.jna.Memory;
 import io.github.brevilo.jolm.Utils.OlmException;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.jna.OlmPkSigning;
-import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /** Class to represent an Olm signing object. */
-public class PkSigning {
+public class PkSigning implements AutoCloseable {
 
   // backing store
   public final OlmPkSigning instance;
@@ -38,7 +42,8 @@ public class PkSigning {
    *     <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer is too small
    */
   public PkSigning() throws OlmException {
-    this(generateSeed());
+    // generate the seed straight into native memory
+    this(Utils.randomBuffer(new NativeSize(OlmConstants.Pk.PK_SIGNING_SEED_LENGTH)));
   }
 
   /**
@@ -51,21 +56,29 @@ public class PkSigning {
    *     <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer is too small
    */
   public PkSigning(byte[] seed) throws OlmException {
-    // initialize backing store
-    instance = Utils.initialize(OlmLibrary::olm_pk_signing, OlmLibrary::olm_pk_signing_size);
+    this(toNative(seed));
+  }
 
-    // get native seed
-    Memory seedBuffer = new Memory(seed.length);
-    seedBuffer.write(0, seed, 0, seed.length);
+  /**
+   * Private constructor initializing a new key pair based on a native seed, which is cleared
+   * afterwards.
+   *
+   * @param seedBuffer native seed
+   * @throws OlmException <code>INPUT_BUFFER_TOO_SMALL</code> if the seed buffer is too small;
+   *     <code>OUTPUT_BUFFER_TOO_SMALL</code> if the public key buffer is too small
+   */
+  private PkSigning(Memory seedBuffer) throws OlmException {
+    // initialize backing store
+    instance = Utils.initialize(OlmLibrary::olm_pk_signing, OlmConstants.Pk.PK_SIGNING_SIZE);
 
     // prepare output buffer
-    NativeSize publicKeyLength = OlmLibrary.olm_pk_signing_public_key_length();
+    NativeSize publicKeyLength = new NativeSize(OlmConstants.Pk.PK_SIGNING_PUBLIC_KEY_LENGTH);
     Memory publicKeyBuffer = new Memory(publicKeyLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_pk_signing_key_from_seed(
-            instance, publicKeyBuffer, publicKeyLength, seedBuffer, new NativeSize(seedBuffer));
+            instance(), publicKeyBuffer, publicKeyLength, seedBuffer, new NativeSize(seedBuffer));
 
     // clear the seed buffer
     seedBuffer.clear();
@@ -73,12 +86,37 @@ public class PkSigning {
     checkOlmResult(result);
 
     // store associated public key
-    this.publicKey = Utils.fromNative(publicKeyBuffer);
+    this.publicKey = NativeString.decode(publicKeyBuffer, publicKeyLength);
   }
 
   /** Clears the memory used to back this signing object. */
   public void clear() {
-    OlmLibrary.olm_clear_pk_signing(instance);
+    OlmLibrary.olm_clear_pk_signing(instance());
+  }
+
+  /**
+   * Clears this signing object and releases its backing store right away. Using the signing object
+   * afterwards throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this signing object
+   * @throws IllegalStateException if this signing object has been closed
+   */
+  OlmPkSigning instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("PkSigning has been closed");
+    }
+    return instance;
   }
 
   /**
@@ -100,18 +138,18 @@ public class PkSigning {
    */
   public String sign(String message) throws OlmException {
     // get native message
-    Memory messageBuffer = Utils.toNative(message);
+    NativeString messageBuffer = NativeString.encode(message);
 
     // prepare output buffer
-    NativeSize signatureLength = OlmLibrary.olm_pk_signature_length();
+    NativeSize signatureLength = new NativeSize(OlmConstants.Pk.PK_SIGNATURE_LENGTH);
     Memory signatureBuffer = new Memory(signatureLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_pk_sign(
-            instance,
-            messageBuffer,
-            new NativeSize(messageBuffer),
+            instance(),
+            messageBuffer.getPointer(),
+            messageBuffer.getLength(),
             signatureBuffer,
             signatureLength);
 
@@ -120,7 +158,42 @@ public class PkSigning {
 
     checkOlmResult(result);
 
-    return Utils.fromNative(signatureBuffer);
+    return NativeString.decode(signatureBuffer, signatureLength);
+  }
+
+  /**
+   * Sign a message using this object.
+   *
+   * @param message message bytes to sign
+   * @return signature bytes (base64)
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the output buffer was too small
+   */
+  public byte[] sign(byte[] message) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage message
+      NativeSize messageLength = new NativeSize(scratch.write(ScratchArena.INPUT, message));
+
+      // prepare output buffer
+      NativeSize signatureLength = new NativeSize(OlmConstants.Pk.PK_SIGNATURE_LENGTH);
+      Memory signatureBuffer = scratch.buffer(ScratchArena.OUTPUT, signatureLength.longValue());
+
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_pk_sign(
+              instance(),
+              scratch.buffer(ScratchArena.INPUT, messageLength.longValue()),
+              messageLength,
+              signatureBuffer,
+              signatureLength);
+
+      checkOlmResult(result);
+
+      return scratch.read(ScratchArena.OUTPUT, signatureLength.longValue());
+    } finally {
+      // clear the message buffer
+      scratch.release();
+    }
   }
 
   /**
@@ -130,8 +203,8 @@ public class PkSigning {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_pk_signing_last_error(instance));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_pk_signing_last_error_code(instance()));
     }
   }
 
@@ -143,16 +216,58 @@ public class PkSigning {
    * @return required random seed length
    */
   public static int seedLength() {
-    return OlmLibrary.olm_pk_signing_seed_length().intValue();
+    return (int) OlmConstants.Pk.PK_SIGNING_SEED_LENGTH;
   }
 
   /**
-   * Generate a random seed that can be used to initialize a signing object.
+   * Generate a random seed that can be used to initialize a signing object. The seed is drawn from
+   * {@link Jolm#getRandomSource()} and never blocks waiting for system entropy.
    *
    * @return random seed of the required length
    */
   public static byte[] generateSeed() {
-    SecureRandom random = new SecureRandom();
-    return random.generateSeed(seedLength());
+    Memory seedBuffer = Utils.randomBuffer(new NativeSize(seedLength()));
+    byte[] seed = seedBuffer.getByteArray(0, seedLength());
+    seedBuffer.clear();
+
+    return seed;
+  }
+
+  /**
+   * Creates several signing objects with new random key pairs in parallel, using the common
+   * fork-join pool.
+   *
+   * @param count number of signing objects to create
+   * @return new signing objects
+   * @throws OlmException if any signing object couldn't be created (none are returned then)
+   * @see #create(int, Executor)
+   */
+  public static List<PkSigning> create(int count) throws OlmException {
+    return create(count, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates several signing objects with new random key pairs in parallel.
+   *
+   * @param count number of signing objects to create
+   * @param executor executor running the individual key pair generations
+   * @return new signing objects
+   * @throws OlmException if any signing object couldn't be created (none are returned then)
+   */
+  public static List<PkSigning> create(int count, Executor executor) throws OlmException {
+    return Utils.createAll(count, executor, PkSigning::new);
+  }
+
+  /**
+   * Copies a seed into native memory.
+   *
+   * @param seed seed
+   * @return native seed
+   */
+  private static Memory toNative(byte[] seed) {
+    Memory seedBuffer = new Memory(seed.length);
+    seedBuffer.write(0, seed, 0, seed.length);
+
+    return seedBuffer;
   }
 }
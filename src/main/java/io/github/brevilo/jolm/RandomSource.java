@@ -0,0 +1,39 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Source of the random bytes fed to libolm (key generation, ratchet steps, encryption).
+ *
+ * <p>The active source is returned by {@link Jolm#getRandomSource()}. Unless one is set explicitly
+ * via {@link Jolm#setRandomSource(RandomSource)}, the first implementation registered with {@link
+ * java.util.ServiceLoader} (<code>META-INF/services/io.github.brevilo.jolm.RandomSource</code>) is
+ * used, falling back to {@link SecureRandomSource}. Implementations must be thread-safe and must
+ * produce cryptographically secure random bytes.
+ */
+@FunctionalInterface
+public interface RandomSource {
+  /**
+   * Fills native memory with random bytes.
+   *
+   * @param buffer native memory to fill
+   * @param length number of bytes to fill, starting at offset 0
+   */
+  void fill(Pointer buffer, long length);
+}
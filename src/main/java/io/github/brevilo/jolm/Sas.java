@@ -19,11 +19,13 @@ package io.github.brevilo.jolm;
 import com.sun.jna.Memory;
 import io.github.brevilo.jolm.Utils.OlmException;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.jna.OlmSas;
 
 /** Class to represent an Olm short authentication string (SAS) object. */
-public class Sas {
+public class Sas implements AutoCloseable {
 
   // backing store
   public final OlmSas instance;
@@ -35,14 +37,14 @@ public class Sas {
    */
   public Sas() throws OlmException {
     // initialize backing store
-    instance = Utils.initialize(OlmLibrary::olm_sas, OlmLibrary::olm_sas_size);
+    instance = Utils.initialize(OlmLibrary::olm_sas, OlmConstants.Sas.SAS_SIZE);
 
     // generate random private key
-    NativeSize randomLength = OlmLibrary.olm_create_sas_random_length(instance);
+    NativeSize randomLength = OlmLibrary.olm_create_sas_random_length(instance());
     Memory randomBuffer = Utils.randomBuffer(randomLength);
 
     // call olm
-    NativeSize result = OlmLibrary.olm_create_sas(instance, randomBuffer, randomLength);
+    NativeSize result = OlmLibrary.olm_create_sas(instance(), randomBuffer, randomLength);
 
     // clear the random buffer
     randomBuffer.clear();
@@ -52,7 +54,32 @@ public class Sas {
 
   /** Clears the memory used to back this SAS object. */
   public void clear() {
-    OlmLibrary.olm_clear_pk_decryption(instance);
+    OlmLibrary.olm_clear_sas(instance());
+  }
+
+  /**
+   * Clears this SAS object and releases its backing store right away. Using the SAS object
+   * afterwards throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this SAS object
+   * @throws IllegalStateException if this SAS object has been closed
+   */
+  OlmSas instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("Sas has been closed");
+    }
+    return instance;
   }
 
   /**
@@ -64,14 +91,14 @@ public class Sas {
    */
   public String publicKey() throws OlmException {
     // prepare output buffer
-    NativeSize publicKeyLength = OlmLibrary.olm_sas_pubkey_length(instance);
+    NativeSize publicKeyLength = OlmLibrary.olm_sas_pubkey_length(instance());
     Memory publicKeyBuffer = new Memory(publicKeyLength.longValue());
 
     // call olm
-    NativeSize result = OlmLibrary.olm_sas_get_pubkey(instance, publicKeyBuffer, publicKeyLength);
+    NativeSize result = OlmLibrary.olm_sas_get_pubkey(instance(), publicKeyBuffer, publicKeyLength);
     checkOlmResult(result);
 
-    return Utils.fromNative(publicKeyBuffer);
+    return NativeString.decode(publicKeyBuffer, publicKeyLength);
   }
 
   /**
@@ -83,11 +110,12 @@ public class Sas {
    */
   public void setTheirKey(String publicKey) throws OlmException {
     // get native key
-    Memory theirKeyBuffer = Utils.toNative(publicKey);
+    NativeString theirKeyBuffer = NativeString.encode(publicKey);
 
     // call olm
     NativeSize result =
-        OlmLibrary.olm_sas_set_their_key(instance, theirKeyBuffer, new NativeSize(theirKeyBuffer));
+        OlmLibrary.olm_sas_set_their_key(
+            instance(), theirKeyBuffer.getPointer(), theirKeyBuffer.getLength());
 
     checkOlmResult(result);
   }
@@ -98,7 +126,7 @@ public class Sas {
    * @return true if key was set
    */
   public boolean isTheirKeySet() {
-    return OlmLibrary.olm_sas_is_their_key_set(instance) != 0;
+    return OlmLibrary.olm_sas_is_their_key_set(instance()) != 0;
   }
 
   /**
@@ -113,7 +141,7 @@ public class Sas {
    */
   public byte[] generateBytes(String info, int numberOfBytes) throws OlmException {
     // get native extra info
-    Memory infoBuffer = Utils.toNative(info);
+    NativeString infoBuffer = NativeString.encode(info);
 
     // prepare output buffer
     Memory bytesBuffer = new Memory(numberOfBytes);
@@ -121,9 +149,9 @@ public class Sas {
     // call olm
     NativeSize result =
         OlmLibrary.olm_sas_generate_bytes(
-            instance,
-            infoBuffer,
-            new NativeSize(infoBuffer),
+            instance(),
+            infoBuffer.getPointer(),
+            infoBuffer.getLength(),
             bytesBuffer,
             new NativeSize(bytesBuffer));
 
@@ -143,27 +171,27 @@ public class Sas {
    */
   public String calculateMac(String message, String info) throws OlmException {
     // get native message and info
-    Memory messageBuffer = Utils.toNative(message);
-    Memory infoBuffer = Utils.toNative(info);
+    NativeString messageBuffer = NativeString.encode(message);
+    NativeString infoBuffer = NativeString.encode(info);
 
     // prepare output buffer
-    NativeSize macLength = OlmLibrary.olm_sas_mac_length(instance);
+    NativeSize macLength = OlmLibrary.olm_sas_mac_length(instance());
     Memory macBuffer = new Memory(macLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_sas_calculate_mac(
-            instance,
-            messageBuffer,
-            new NativeSize(messageBuffer),
-            infoBuffer,
-            new NativeSize(infoBuffer),
+            instance(),
+            messageBuffer.getPointer(),
+            messageBuffer.getLength(),
+            infoBuffer.getPointer(),
+            infoBuffer.getLength(),
             macBuffer,
             macLength);
 
     checkOlmResult(result);
 
-    return Utils.fromNative(macBuffer);
+    return NativeString.decode(macBuffer, macLength);
   }
 
   /**
@@ -178,27 +206,27 @@ public class Sas {
    */
   public String calculateMacFixedBase64(String message, String info) throws OlmException {
     // get native message and info
-    Memory messageBuffer = Utils.toNative(message);
-    Memory infoBuffer = Utils.toNative(info);
+    NativeString messageBuffer = NativeString.encode(message);
+    NativeString infoBuffer = NativeString.encode(info);
 
     // prepare output buffer
-    NativeSize macLength = OlmLibrary.olm_sas_mac_length(instance);
+    NativeSize macLength = OlmLibrary.olm_sas_mac_length(instance());
     Memory macBuffer = new Memory(macLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_sas_calculate_mac_fixed_base64(
-            instance,
-            messageBuffer,
-            new NativeSize(messageBuffer),
-            infoBuffer,
-            new NativeSize(infoBuffer),
+            instance(),
+            messageBuffer.getPointer(),
+            messageBuffer.getLength(),
+            infoBuffer.getPointer(),
+            infoBuffer.getLength(),
             macBuffer,
             macLength);
 
     checkOlmResult(result);
 
-    return Utils.fromNative(macBuffer);
+    return NativeString.decode(macBuffer, macLength);
   }
 
   /**
@@ -208,8 +236,8 @@ public class Sas {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_sas_last_error(instance));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_sas_last_error_code(instance()));
     }
   }
 }
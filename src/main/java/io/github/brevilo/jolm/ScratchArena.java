@@ -0,0 +1,228 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import com.sun.jna.Memory;
+import io.github.brevilo.jolm.jna.NativeString;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Internal per-thread, grow-only native scratch memory used to stage plain texts, cipher texts and
+ * randomness on the encryption/decryption hot paths.
+ *
+ * <p>An arena provides a fixed number of independent slots, each backed by its own native buffer
+ * that only ever grows. All slots (and the on-heap staging area) are wiped when the arena is
+ * released, so sensitive data never outlives a single operation. Typical usage:
+ *
+ * <pre>
+ * ScratchArena scratch = ScratchArena.acquire();
+ * try {
+ *   long length = scratch.encode(ScratchArena.INPUT, plainText);
+ *   Memory buffer = scratch.buffer(ScratchArena.INPUT, length);
+ *   // ...
+ * } finally {
+ *   scratch.release();
+ * }
+ * </pre>
+ */
+public final class ScratchArena {
+
+  /** Slot for staging input data (e.g. plain text). */
+  public static final int INPUT = 0;
+
+  /** Slot for staging key material accompanying the input data. */
+  public static final int KEY = 1;
+
+  /** Slot for receiving output data (e.g. cipher text). */
+  public static final int OUTPUT = 2;
+
+  /** Slot for staging random data. */
+  public static final int RANDOM = 3;
+
+  /** Slot for receiving small scalar output values (e.g. message indices). */
+  public static final int SCALAR = 4;
+
+  /** Slot for staging a signature accompanying the input data. */
+  public static final int SIGNATURE = 5;
+
+  private static final int SLOTS = 6;
+  private static final int MIN_CAPACITY = 256;
+
+  private static final ThreadLocal<ScratchArena> ARENA = ThreadLocal.withInitial(ScratchArena::new);
+
+  private final Memory[] buffers = new Memory[SLOTS];
+  private final long[] used = new long[SLOTS];
+
+  private byte[] staging = new byte[MIN_CAPACITY];
+  private boolean acquired;
+
+  private ScratchArena() {}
+
+  /**
+   * Acquires the calling thread's scratch arena. Nested acquisitions on the same thread get a
+   * private (non-cached) arena instead. Every acquisition must be paired with {@link #release()}.
+   *
+   * @return scratch arena ready for use
+   */
+  public static ScratchArena acquire() {
+    ScratchArena arena = ARENA.get();
+    if (arena.acquired) {
+      arena = new ScratchArena();
+    }
+    arena.acquired = true;
+
+    return arena;
+  }
+
+  /** Wipes all memory used since the arena was acquired and hands it back to its thread. */
+  public void release() {
+    for (int slot = 0; slot < SLOTS; slot++) {
+      if (used[slot] > 0) {
+        buffers[slot].clear(used[slot]);
+        used[slot] = 0;
+      }
+    }
+    acquired = false;
+  }
+
+  /**
+   * Gets the native buffer of the given slot, growing it if required.
+   *
+   * @param slot slot identifier
+   * @param size minimum required buffer size in bytes
+   * @return native buffer of at least the requested size
+   */
+  public Memory buffer(int slot, long size) {
+    Memory buffer = buffers[slot];
+    if (buffer == null || buffer.size() < size) {
+      // grow (geometrically) and start with a clean buffer
+      long capacity = buffer == null ? MIN_CAPACITY : buffer.size();
+      while (capacity < size) {
+        capacity *= 2;
+      }
+      if (buffer != null) {
+        buffer.clear(used[slot]);
+      }
+      buffer = new Memory(capacity);
+      buffer.clear();
+      buffers[slot] = buffer;
+    }
+    used[slot] = Math.max(used[slot], size);
+
+    return buffer;
+  }
+
+  /**
+   * Encodes a string as UTF-8 into the buffer of the given slot.
+   *
+   * @param slot slot identifier
+   * @param content string to encode
+   * @return number of bytes written
+   */
+  public long encode(int slot, String content) {
+    long length = NativeString.encodedLength(content);
+    NativeString.encode(content, buffer(slot, length).getByteBuffer(0, length));
+
+    return length;
+  }
+
+  /**
+   * Decodes the given number of UTF-8 bytes from the buffer of the given slot.
+   *
+   * @param slot slot identifier
+   * @param length number of bytes to decode
+   * @return decoded string
+   */
+  public String decode(int slot, long length) {
+    int size = (int) length;
+    byte[] bytes = staging(size);
+
+    buffers[slot].read(0, bytes, 0, size);
+    String content = new String(bytes, 0, size, StandardCharsets.UTF_8);
+    Arrays.fill(bytes, 0, size, (byte) 0);
+
+    return content;
+  }
+
+  /**
+   * Copies raw bytes into the buffer of the given slot.
+   *
+   * @param slot slot identifier
+   * @param content bytes to copy
+   * @return number of bytes written
+   */
+  public long write(int slot, byte[] content) {
+    buffer(slot, content.length).write(0, content, 0, content.length);
+
+    return content.length;
+  }
+
+  /**
+   * Copies the remaining bytes of a (heap or direct) buffer into the buffer of the given slot,
+   * leaving the source buffer's position untouched.
+   *
+   * @param slot slot identifier
+   * @param content buffer holding the bytes to copy
+   * @return number of bytes written
+   */
+  public long write(int slot, ByteBuffer content) {
+    int length = content.remaining();
+    buffer(slot, length).getByteBuffer(0, length).put(content.duplicate());
+
+    return length;
+  }
+
+  /**
+   * Copies the given number of raw bytes out of the buffer of the given slot.
+   *
+   * @param slot slot identifier
+   * @param length number of bytes to copy
+   * @return copied bytes
+   */
+  public byte[] read(int slot, long length) {
+    return buffers[slot].getByteArray(0, (int) length);
+  }
+
+  /**
+   * Fills the random slot's buffer with the given number of random bytes.
+   *
+   * @param size number of random bytes
+   * @return native buffer holding the random bytes
+   */
+  public Memory random(long size) {
+    Memory buffer = buffer(RANDOM, size);
+    Jolm.getRandomSource().fill(buffer, size);
+
+    return buffer;
+  }
+
+  /**
+   * Gets the on-heap staging area, growing it if required.
+   *
+   * @param size minimum required size in bytes
+   * @return staging area
+   */
+  private byte[] staging(int size) {
+    if (staging.length < size) {
+      Arrays.fill(staging, (byte) 0);
+      staging = new byte[Math.max(size, staging.length * 2)];
+    }
+    return staging;
+  }
+}
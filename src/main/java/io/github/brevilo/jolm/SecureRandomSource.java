@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import com.sun.jna.Pointer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Default {@link RandomSource} backed by per-thread {@link SecureRandom} instances.
+ *
+ * <p>Random bytes are generated in bulk into a per-thread staging array, copied into native memory
+ * at once and wiped from the staging array right away. Staging arrays are kept per requested length
+ * (olm only asks for a handful of distinct lengths), as {@link SecureRandom} can't fill part of an
+ * array.
+ */
+public final class SecureRandomSource implements RandomSource {
+  /** Largest length staged in a reusable array, longer requests use a temporary one. */
+  private static final int MAX_STAGED_LENGTH = 256;
+
+  private final ThreadLocal<SecureRandom> rng;
+  private final ThreadLocal<byte[][]> staging =
+      ThreadLocal.withInitial(() -> new byte[MAX_STAGED_LENGTH + 1][]);
+
+  /** Creates a source using the platform's default {@link SecureRandom} algorithm. */
+  public SecureRandomSource() {
+    this(SecureRandom::new);
+  }
+
+  /**
+   * Creates a source using the given {@link SecureRandom} instances (e.g. a specific DRBG algorithm
+   * or provider). The factory is called once per thread using this source.
+   *
+   * @param factory factory creating a new {@link SecureRandom} instance
+   */
+  public SecureRandomSource(Supplier<SecureRandom> factory) {
+    this.rng = ThreadLocal.withInitial(factory);
+  }
+
+  @Override
+  public void fill(Pointer buffer, long length) {
+    int size = (int) length;
+    byte[] bytes;
+    if (size <= MAX_STAGED_LENGTH) {
+      byte[][] arrays = staging.get();
+      bytes = arrays[size];
+      if (bytes == null) {
+        bytes = new byte[size];
+        arrays[size] = bytes;
+      }
+    } else {
+      bytes = new byte[size];
+    }
+
+    // generate in bulk and copy into native memory at once
+    rng.get().nextBytes(bytes);
+    buffer.write(0, bytes, 0, size);
+    Arrays.fill(bytes, 0, size, (byte) 0);
+  }
+}
@@ -18,13 +18,23 @@ package io.github.brevilo.jolm;
 
 import com.sun.jna.Memory;
 import io.github.brevilo.jolm.Utils.OlmException;
+import io.github.brevilo.jolm.jna.NativeBackend;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.jna.OlmSession;
 import io.github.brevilo.jolm.model.Message;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /** Class to represent an Olm session. */
-public class Session {
+public class Session implements AutoCloseable {
+
+  // length of the throwaway pickle key used by copy()
+  private static final int COPY_KEY_LENGTH = 32;
 
   // backing store
   public final OlmSession instance;
@@ -32,12 +42,67 @@ public class Session {
   /** Private constructor. Use static create methods. */
   private Session() {
     // initialize backing store
-    instance = Utils.initialize(OlmLibrary::olm_session, OlmLibrary::olm_session_size);
+    instance = Utils.initialize(OlmLibrary::olm_session, OlmConstants.Olm.SESSION_SIZE);
   }
 
   /** Clears the memory used to back this session. */
   public void clear() {
-    OlmLibrary.olm_clear_session(instance);
+    OlmLibrary.olm_clear_session(instance());
+  }
+
+  /**
+   * Clears this session and releases its backing store right away. Using the session afterwards
+   * throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this session
+   * @throws IllegalStateException if this session has been closed
+   */
+  OlmSession instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("Session has been closed");
+    }
+    return instance;
+  }
+
+  /**
+   * Creates an independent copy of this session by round tripping its native state through a pickle
+   * under a throwaway key. Both sessions evolve separately afterwards, e.g. for speculative
+   * decryption.
+   *
+   * @return copy of this session
+   * @throws RuntimeException if pickling or unpickling failed
+   */
+  public Session copy() throws RuntimeException {
+    // the ratchet's chain lists point into the session itself, so its state can't be duplicated
+    // verbatim (see Utils#copy)
+    NativeSize keyLength = new NativeSize(COPY_KEY_LENGTH);
+    Memory randomBuffer = Utils.randomBuffer(keyLength);
+    byte[] keyBytes = randomBuffer.getByteArray(0, COPY_KEY_LENGTH);
+    randomBuffer.clear();
+
+    long pickledLength = pickledLength();
+    Memory pickleBuffer = new Memory(pickledLength);
+    try (PickleKey key = new PickleKey(keyBytes)) {
+      ByteBuffer pickle = pickleBuffer.getByteBuffer(0, pickledLength);
+      pickle(key, pickle);
+      pickle.flip();
+
+      return unpickle(key, pickle);
+    } finally {
+      Arrays.fill(keyBytes, (byte) 0);
+      pickleBuffer.clear();
+    }
   }
 
   /**
@@ -48,14 +113,14 @@ public class Session {
    */
   public String sessionId() throws OlmException {
     // prepare output buffer
-    NativeSize idLength = OlmLibrary.olm_session_id_length(instance);
+    NativeSize idLength = OlmLibrary.olm_session_id_length(instance());
     Memory id = new Memory(idLength.longValue());
 
     // call olm
-    NativeSize result = OlmLibrary.olm_session_id(instance, id, idLength);
+    NativeSize result = OlmLibrary.olm_session_id(instance(), id, idLength);
     checkOlmResult(result);
 
-    return Utils.fromNative(id);
+    return NativeString.decode(id, result);
   }
 
   /**
@@ -64,7 +129,7 @@ public class Session {
    * @return true if the session received a <code>MESSAGE</code> message
    */
   public boolean hasReceivedMessage() {
-    return OlmLibrary.olm_session_has_received_message(instance) != 0;
+    return OlmLibrary.olm_session_has_received_message(instance()) != 0;
   }
 
   /**
@@ -82,10 +147,11 @@ public class Session {
     Memory buffer = new Memory(size);
 
     // call olm
-    OlmLibrary.olm_session_describe(instance, buffer, bufferSize);
+    OlmLibrary.olm_session_describe(instance(), buffer, bufferSize);
 
-    // return result
-    return Utils.fromNative(buffer);
+    // return result (NUL-terminated)
+    long length = buffer.indexOf(0, (byte) 0);
+    return NativeString.decode(buffer, length < 0 ? size : length);
   }
 
   /**
@@ -100,12 +166,12 @@ public class Session {
    */
   public boolean matchesInboundSession(String oneTimeKeyMessage) throws OlmException {
     // get native message
-    Memory messageBuffer = Utils.toNative(oneTimeKeyMessage);
+    NativeString messageBuffer = NativeString.encode(oneTimeKeyMessage);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_matches_inbound_session(
-            instance, messageBuffer, new NativeSize(messageBuffer));
+            instance(), messageBuffer.getPointer(), messageBuffer.getLength());
 
     checkOlmResult(result);
 
@@ -129,17 +195,17 @@ public class Session {
       throws OlmException {
 
     // get native values
-    Memory keyBuffer = Utils.toNative(theirIdentityKey);
-    Memory messageBuffer = Utils.toNative(oneTimeKeyMessage);
+    NativeString keyBuffer = NativeString.encode(theirIdentityKey);
+    NativeString messageBuffer = NativeString.encode(oneTimeKeyMessage);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_matches_inbound_session_from(
-            instance,
-            keyBuffer,
-            new NativeSize(keyBuffer),
-            messageBuffer,
-            new NativeSize(messageBuffer));
+            instance(),
+            keyBuffer.getPointer(),
+            keyBuffer.getLength(),
+            messageBuffer.getPointer(),
+            messageBuffer.getLength());
 
     checkOlmResult(result);
 
@@ -156,40 +222,94 @@ public class Session {
    */
   public Message encrypt(String plainText) throws OlmException {
     // determine message type
-    final NativeSize messageType = OlmLibrary.olm_encrypt_message_type(instance);
-
-    // get native plain text
-    Memory plainTextBuffer = Utils.toNative(plainText);
-
-    // generate randomness (if needed)
-    NativeSize randomLength = OlmLibrary.olm_encrypt_random_length(instance);
-    Memory randomBuffer = randomLength.longValue() > 0 ? Utils.randomBuffer(randomLength) : null;
-
-    // prepare output buffer
-    NativeSize messageLength =
-        OlmLibrary.olm_encrypt_message_length(instance, new NativeSize(plainTextBuffer));
-    Memory messageBuffer = new Memory(messageLength.longValue());
-
-    // call olm
-    NativeSize result =
-        OlmLibrary.olm_encrypt(
-            instance,
-            plainTextBuffer,
-            new NativeSize(plainTextBuffer),
-            randomBuffer,
-            randomLength,
-            messageBuffer,
-            messageLength);
+    final long messageType =
+        NativeBackend.getInstance().olm_encrypt_message_type(NativeBackend.address(instance()));
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage plain text
+      long messageLength = encryptStaged(scratch, scratch.encode(ScratchArena.INPUT, plainText));
+
+      return Message.get(scratch.decode(ScratchArena.OUTPUT, messageLength), messageType);
+    } finally {
+      // clear the plaintext and random buffers
+      scratch.release();
+    }
+  }
 
-    // clear the plaintext and random buffers
-    plainTextBuffer.clear();
-    if (randomBuffer != null) {
-      randomBuffer.clear();
+  /**
+   * Encrypt a message using the session.
+   *
+   * @param plainText plain text message bytes
+   * @return encrypted message
+   * @throws OlmException <code>NOT_ENOUGH_RANDOM</code> if there weren't enough random bytes;
+   *     <code>OUTPUT_BUFFER_TOO_SMALL</code> if the message buffer is too small
+   */
+  public Message encrypt(byte[] plainText) throws OlmException {
+    // determine message type
+    final long messageType =
+        NativeBackend.getInstance().olm_encrypt_message_type(NativeBackend.address(instance()));
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage plain text
+      long messageLength = encryptStaged(scratch, scratch.write(ScratchArena.INPUT, plainText));
+
+      return Message.get(scratch.read(ScratchArena.OUTPUT, messageLength), messageType);
+    } finally {
+      // clear the plaintext and random buffers
+      scratch.release();
     }
+  }
 
-    checkOlmResult(result);
+  /**
+   * Encrypt a message using the session, reading the plain text from and writing the encrypted
+   * message into caller-supplied direct buffers. On success the position of the plain text buffer
+   * is advanced to its limit and the position of the message buffer past the encrypted message.
+   *
+   * @param plainText direct buffer holding the (remaining) plain text bytes
+   * @param message direct buffer receiving the encrypted message (see {@link
+   *     #encryptMessageLength(long)})
+   * @return message type (see {@link Message#type()})
+   * @throws OlmException <code>NOT_ENOUGH_RANDOM</code> if there weren't enough random bytes;
+   *     <code>OUTPUT_BUFFER_TOO_SMALL</code> if the message buffer is too small
+   * @throws IllegalArgumentException if a buffer isn't direct or the message buffer is read-only
+   */
+  public long encrypt(ByteBuffer plainText, ByteBuffer message) throws OlmException {
+    ByteBuffer plainTextView = Utils.nativeView(plainText, false);
+    ByteBuffer messageView = Utils.nativeView(message, true);
 
-    return Message.get(Utils.fromNative(messageBuffer), messageType.longValue());
+    // determine message type
+    final NativeSize messageType = OlmLibrary.olm_encrypt_message_type(instance());
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // generate randomness (if needed)
+      NativeSize randomLength = OlmLibrary.olm_encrypt_random_length(instance());
+      Memory randomBuffer =
+          randomLength.longValue() > 0 ? scratch.random(randomLength.longValue()) : null;
+
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_encrypt(
+              instance(),
+              plainTextView,
+              new NativeSize(plainTextView.remaining()),
+              randomBuffer,
+              randomLength,
+              messageView,
+              new NativeSize(messageView.remaining()));
+
+      checkOlmResult(result);
+
+      plainText.position(plainText.limit());
+      message.position(message.position() + result.intValue());
+
+      return messageType.longValue();
+    } finally {
+      // clear the random buffer
+      scratch.release();
+    }
   }
 
   /**
@@ -204,41 +324,127 @@ public class Session {
    *     plain-text buffer is too small
    */
   public String decrypt(Message message) throws OlmException {
-    // get native message
-    // (add a separate message buffer as olm_decrypt_max_plaintext_length() destroys it!)
-    Memory messageBuffer = Utils.toNative(message.getCipherText());
-    Memory messageBufferCopy = Utils.toNative(message.getCipherText());
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      long plainTextLength = decryptStaged(scratch, message);
+
+      return scratch.decode(ScratchArena.OUTPUT, plainTextLength);
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
+
+  /**
+   * Decrypt a message using the session, reading the encrypted message from and writing the plain
+   * text into caller-supplied direct buffers. A plain text buffer with as much room as the
+   * encrypted message is always sufficient. On success the position of the message buffer is
+   * advanced to its limit and the position of the plain text buffer past the plain text.
+   *
+   * <p><b>Note:</b> the content of the message buffer is destroyed in the process.
+   *
+   * @param messageType message type (see {@link Message#type()})
+   * @param message direct buffer holding the (remaining) encrypted message bytes
+   * @param plainText direct buffer receiving the plain text
+   * @return plain text length in bytes
+   * @throws OlmException <code>INVALID_BASE64</code> if the base64 couldn't be decoded; <code>
+   *     BAD_MESSAGE_VERSION</code> if the message is for an unsupported version of the protocol;
+   *     <code>BAD_MESSAGE_FORMAT</code> if the message headers couldn't be decoded; <code>
+   *     BAD_MESSAGE_MAC</code> if the message couldn't be decrypted; <code>OUTPUT_BUFFER_TOO_SMALL
+   *     </code> if the plain text buffer is too small
+   * @throws IllegalArgumentException if a buffer isn't direct or is read-only
+   */
+  public int decrypt(long messageType, ByteBuffer message, ByteBuffer plainText)
+      throws OlmException {
+    ByteBuffer messageView = Utils.nativeView(message, true);
+    ByteBuffer plainTextView = Utils.nativeView(plainText, true);
 
-    // determine output buffer length
-    NativeSize maxPlainTextLength =
-        OlmLibrary.olm_decrypt_max_plaintext_length(
-            instance,
-            new NativeSize(message.type()),
-            messageBufferCopy,
-            new NativeSize(messageBufferCopy));
+    // call olm (the message length is a safe upper bound for the plain text length)
+    NativeSize result =
+        OlmLibrary.olm_decrypt(
+            instance(),
+            new NativeSize(messageType),
+            messageView,
+            new NativeSize(messageView.remaining()),
+            plainTextView,
+            new NativeSize(plainTextView.remaining()));
 
-    checkOlmResult(maxPlainTextLength);
+    checkOlmResult(result);
 
-    // prepare output buffer
-    Memory plainTextBuffer = new Memory(maxPlainTextLength.longValue());
+    message.position(message.limit());
+    plainText.position(plainText.position() + result.intValue());
 
-    // call olm
-    NativeSize plainTextLength =
-        OlmLibrary.olm_decrypt(
-            instance,
-            new NativeSize(message.type()),
-            messageBuffer,
-            new NativeSize(messageBuffer),
-            plainTextBuffer,
-            maxPlainTextLength);
+    return result.intValue();
+  }
+
+  /**
+   * Decrypt a message using the session, returning the raw plain text bytes.
+   *
+   * @param message to decrypt
+   * @return decrypted message bytes
+   * @throws OlmException <code>INVALID_BASE64</code> if the base64 couldn't be decoded; <code>
+   *     BAD_MESSAGE_VERSION</code> if the message is for an unsupported version of the protocol;
+   *     <code>BAD_MESSAGE_FORMAT</code> if the message couldn't be decoded; <code>BAD_MESSAGE_MAC
+   *     </code> if the MAC on the message was invalid; <code>OUTPUT_BUFFER_TOO_SMALL</code> if the
+   *     plain-text buffer is too small
+   */
+  public byte[] decryptBytes(Message message) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      long plainTextLength = decryptStaged(scratch, message);
+
+      return scratch.read(ScratchArena.OUTPUT, plainTextLength);
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
 
-    // clear the plaintext buffer
-    String plainText = Utils.fromNative(plainTextBuffer);
-    plainTextBuffer.clear();
+  /**
+   * Decrypt a message using the session without throwing on failure.
+   *
+   * @param message to decrypt
+   * @return decryption result holding either the decrypted message or the olm error (see {@link
+   *     #decrypt(Message)})
+   */
+  public DecryptResult tryDecrypt(Message message) {
+    return tryDecrypt(message, new DecryptResult());
+  }
 
-    checkOlmResult(plainTextLength);
+  /**
+   * Decrypt a message using the session without throwing on failure, reusing the given result
+   * object. Apart from the plain text nothing is allocated on success.
+   *
+   * @param message to decrypt
+   * @param result result object to be (re)populated
+   * @return the given result object, holding either the decrypted message or the olm error (see
+   *     {@link #decrypt(Message)})
+   */
+  public DecryptResult tryDecrypt(Message message, DecryptResult result) {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      long plainTextLength = decryptUnchecked(scratch, message);
+      if (plainTextLength == OlmConstants.ERROR) {
+        return result.failed(OlmLibrary.olm_session_last_error_code(instance()));
+      }
+
+      return result.succeeded(scratch.decode(ScratchArena.OUTPUT, plainTextLength), -1);
+    } finally {
+      // clear the plaintext buffer
+      scratch.release();
+    }
+  }
 
-    return plainText;
+  /**
+   * Get the length of the encrypted message for a plain text of the given length. Use this to size
+   * the message buffer passed to {@link #encrypt(ByteBuffer, ByteBuffer)}.
+   *
+   * @param plainTextLength plain text length in bytes
+   * @return encrypted message length in bytes
+   */
+  public long encryptMessageLength(long plainTextLength) {
+    return OlmLibrary.olm_encrypt_message_length(instance(), new NativeSize(plainTextLength))
+        .longValue();
   }
 
   /**
@@ -250,8 +456,80 @@ public class Session {
    *     too small
    */
   public String pickle(String key) throws RuntimeException {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return pickle(pickleKey);
+    }
+  }
+
+  /**
+   * Stores a session as a base64 string. Encrypts the session using the supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @return serialized session
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public String pickle(PickleKey key) throws RuntimeException {
+    return Utils.pickle(
+        instance(),
+        key,
+        OlmLibrary::olm_pickle_session_length,
+        OlmLibrary::olm_pickle_session,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Stores a session as base64 straight into a caller-supplied direct buffer. Encrypts the session
+   * using the supplied key. On success the buffer's position is advanced past the pickle.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @param pickle direct buffer receiving the serialized session (see {@link #pickledLength()})
+   * @return number of bytes written
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the buffer is too small
+   * @throws IllegalArgumentException if the buffer isn't direct or is read-only
+   */
+  public int pickle(PickleKey key, ByteBuffer pickle) throws RuntimeException {
     return Utils.pickle(
-        instance,
+        instance(),
+        key,
+        pickle,
+        OlmLibrary::olm_pickle_session,
+        r -> {
+          try {
+            checkOlmResult(r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+  }
+
+  /**
+   * Gets the length of this session's pickle (independent of the key), e.g. to pre-size buffers for
+   * {@link #pickle(PickleKey, ByteBuffer)}.
+   *
+   * @return pickle length in bytes
+   */
+  public long pickledLength() {
+    return OlmLibrary.olm_pickle_session_length(instance()).longValue();
+  }
+
+  /**
+   * Stores a session as base64 bytes (ASCII). Encrypts the session using the supplied key.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @return serialized session
+   * @throws RuntimeException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the pickle output buffer was
+   *     too small
+   */
+  public byte[] pickleBytes(PickleKey key) throws RuntimeException {
+    return Utils.pickleBytes(
+        instance(),
         key,
         OlmLibrary::olm_pickle_session_length,
         OlmLibrary::olm_pickle_session,
@@ -264,6 +542,154 @@ public class Session {
         });
   }
 
+  /**
+   * Stores a snapshot of this session as a base64 string in the background. The current state is
+   * captured right away (see {@link #copy()}, which costs a pickle round trip itself for olm
+   * sessions) while the final pickle encryption runs on the given executor, so the session can be
+   * used again as soon as this method returns.
+   *
+   * @param key key used to encrypt the serialized session data
+   * @param executor executor running the pickle encryption
+   * @return serialized session as of this call (completes exceptionally with a <code>
+   *     RuntimeException</code> if pickling failed)
+   * @throws java.util.concurrent.RejectedExecutionException if the executor rejected the task
+   */
+  public CompletableFuture<String> pickleSnapshot(String key, Executor executor) {
+    PickleKey pickleKey = new PickleKey(key);
+    try {
+      return pickleSnapshot(pickleKey, executor).whenComplete((pickle, e) -> pickleKey.close());
+    } catch (RuntimeException e) {
+      pickleKey.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Stores a snapshot of this session as a base64 string in the background. The current state is
+   * captured right away (see {@link #copy()}, which costs a pickle round trip itself for olm
+   * sessions) while the final pickle encryption runs on the given executor, so the session can be
+   * used again as soon as this method returns.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey}), must not be
+   *     closed before the returned future completed
+   * @param executor executor running the pickle encryption
+   * @return serialized session as of this call (completes exceptionally with a <code>
+   *     RuntimeException</code> if pickling failed)
+   * @throws java.util.concurrent.RejectedExecutionException if the executor rejected the task
+   */
+  public CompletableFuture<String> pickleSnapshot(PickleKey key, Executor executor) {
+    Session snapshot = copy();
+    try {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            try (Session pickled = snapshot) {
+              return pickled.pickle(key);
+            }
+          },
+          executor);
+    } catch (RuntimeException e) {
+      snapshot.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Encrypt the plain text staged in the scratch arena's input slot into its output slot.
+   *
+   * @param scratch acquired scratch arena
+   * @param plainTextLength staged plain text length in bytes
+   * @return encrypted message length in bytes
+   * @throws OlmException thrown if an error occurred (incl. error details)
+   */
+  private long encryptStaged(ScratchArena scratch, long plainTextLength) throws OlmException {
+    NativeBackend backend = NativeBackend.getInstance();
+    long session = NativeBackend.address(instance());
+    long plainTextBuffer =
+        NativeBackend.address(scratch.buffer(ScratchArena.INPUT, plainTextLength));
+
+    // generate randomness (if needed)
+    long randomLength = backend.olm_encrypt_random_length(session);
+    long randomBuffer = randomLength > 0 ? NativeBackend.address(scratch.random(randomLength)) : 0;
+
+    // prepare output buffer
+    long messageLength = backend.olm_encrypt_message_length(session, plainTextLength);
+    long messageBuffer = NativeBackend.address(scratch.buffer(ScratchArena.OUTPUT, messageLength));
+
+    // call olm
+    long result =
+        backend.olm_encrypt(
+            session,
+            plainTextBuffer,
+            plainTextLength,
+            randomBuffer,
+            randomLength,
+            messageBuffer,
+            messageLength);
+
+    // keep the backing store alive until olm is done with it
+    NativeBackend.reachabilityFence(instance);
+
+    checkOlmResult(result);
+
+    return result;
+  }
+
+  /**
+   * Decrypt a message into the scratch arena's output slot.
+   *
+   * @param scratch acquired scratch arena
+   * @param message to decrypt
+   * @return plain text length in bytes
+   * @throws OlmException thrown if an error occurred (incl. error details)
+   */
+  private long decryptStaged(ScratchArena scratch, Message message) throws OlmException {
+    long plainTextLength = decryptUnchecked(scratch, message);
+
+    checkOlmResult(plainTextLength);
+
+    return plainTextLength;
+  }
+
+  /**
+   * Decrypt a message into the scratch arena's output slot, without checking the result (see {@link
+   * #decryptStaged(ScratchArena, Message)}).
+   *
+   * @param scratch acquired scratch arena
+   * @param message to decrypt
+   * @return plain text length in bytes or {@link OlmConstants#ERROR}
+   */
+  private long decryptUnchecked(ScratchArena scratch, Message message) {
+    // stage message
+    long messageLength =
+        message.hasCipherTextBytes()
+            ? scratch.write(ScratchArena.INPUT, message.getCipherTextBytes())
+            : scratch.encode(ScratchArena.INPUT, message.getCipherText());
+    long messageBuffer = NativeBackend.address(scratch.buffer(ScratchArena.INPUT, messageLength));
+
+    // prepare output buffer
+    // (bounded by the decoded message length, saving olm_decrypt_max_plaintext_length() which
+    // would destroy the message)
+    long maxPlainTextLength = Utils.decodedBase64Length(messageLength);
+    long plainTextBuffer =
+        NativeBackend.address(scratch.buffer(ScratchArena.OUTPUT, maxPlainTextLength));
+
+    // call olm
+    long result =
+        NativeBackend.getInstance()
+            .olm_decrypt(
+                NativeBackend.address(instance()),
+                message.type(),
+                messageBuffer,
+                messageLength,
+                plainTextBuffer,
+                maxPlainTextLength);
+
+    // keep the backing store alive until olm is done with it
+    NativeBackend.reachabilityFence(instance);
+
+    return result;
+  }
+
   /**
    * Check the latest olm function call for errors.
    *
@@ -271,7 +697,19 @@ public class Session {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    Session.checkOlmResult(instance, result);
+    Session.checkOlmResult(instance(), result);
+  }
+
+  /**
+   * Check the latest olm function call for errors.
+   *
+   * @param result raw result returned by the olm function call to check
+   * @throws OlmException thrown if an error occurred (incl. error details)
+   */
+  private void checkOlmResult(long result) throws OlmException {
+    if (result == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_session_last_error_code(instance()));
+    }
   }
 
   // ================= static methods =================
@@ -284,8 +722,8 @@ public class Session {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private static void checkOlmResult(OlmSession instance, NativeSize result) throws OlmException {
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_session_last_error(instance));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_session_last_error_code(instance));
     }
   }
 
@@ -306,8 +744,8 @@ public class Session {
     Session session = new Session();
 
     // get native message
-    Memory identityKeyBuffer = Utils.toNative(theirIdentityKey);
-    Memory oneTimeKeyBuffer = Utils.toNative(theirOneTimeKey);
+    NativeString identityKeyBuffer = NativeString.encode(theirIdentityKey);
+    NativeString oneTimeKeyBuffer = NativeString.encode(theirOneTimeKey);
 
     // generate randomness
     NativeSize randomLength =
@@ -318,11 +756,11 @@ public class Session {
     NativeSize result =
         OlmLibrary.olm_create_outbound_session(
             session.instance,
-            account.instance,
-            identityKeyBuffer,
-            new NativeSize(identityKeyBuffer),
-            oneTimeKeyBuffer,
-            new NativeSize(oneTimeKeyBuffer),
+            account.instance(),
+            identityKeyBuffer.getPointer(),
+            identityKeyBuffer.getLength(),
+            oneTimeKeyBuffer.getPointer(),
+            oneTimeKeyBuffer.getLength(),
             randomBuffer,
             randomLength);
 
@@ -353,15 +791,15 @@ public class Session {
     Session session = new Session();
 
     // get native message
-    Memory oneTimeKeyMessageBuffer = Utils.toNative(oneTimeKeyMessage);
+    NativeString oneTimeKeyMessageBuffer = NativeString.encode(oneTimeKeyMessage);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_create_inbound_session(
             session.instance,
-            account.instance,
-            oneTimeKeyMessageBuffer,
-            new NativeSize(oneTimeKeyMessageBuffer));
+            account.instance(),
+            oneTimeKeyMessageBuffer.getPointer(),
+            oneTimeKeyMessageBuffer.getLength());
 
     // clear the message buffer
     oneTimeKeyMessageBuffer.clear();
@@ -391,18 +829,18 @@ public class Session {
     Session session = new Session();
 
     // get native message
-    Memory identityKeyBuffer = Utils.toNative(theirIdentityKey);
-    Memory oneTimeKeyMessageBuffer = Utils.toNative(oneTimeKeyMessage);
+    NativeString identityKeyBuffer = NativeString.encode(theirIdentityKey);
+    NativeString oneTimeKeyMessageBuffer = NativeString.encode(oneTimeKeyMessage);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_create_inbound_session_from(
             session.instance,
-            account.instance,
-            identityKeyBuffer,
-            new NativeSize(identityKeyBuffer),
-            oneTimeKeyMessageBuffer,
-            new NativeSize(oneTimeKeyMessageBuffer));
+            account.instance(),
+            identityKeyBuffer.getPointer(),
+            identityKeyBuffer.getLength(),
+            oneTimeKeyMessageBuffer.getPointer(),
+            oneTimeKeyMessageBuffer.getLength());
 
     // clear the message buffer
     oneTimeKeyMessageBuffer.clear();
@@ -422,6 +860,66 @@ public class Session {
    *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded
    */
   public static Session unpickle(String key, String pickle) throws Exception {
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return unpickle(pickleKey, pickle);
+    }
+  }
+
+  /**
+   * Loads a session from a pickled base64 string. Decrypts the session using the supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle serialized session data
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded
+   */
+  public static Session unpickle(PickleKey key, String pickle) throws RuntimeException {
+    // create new instance
+    Session session = new Session();
+
+    // populate instance from persisted data
+    Utils.unpickle(
+        session.instance,
+        key,
+        pickle,
+        OlmLibrary::olm_unpickle_session,
+        (s, r) -> {
+          try {
+            checkOlmResult(s, r);
+          } catch (OlmException e) {
+            throw new RuntimeException(e);
+          }
+        });
+
+    return session;
+  }
+
+  /**
+   * Loads a session from pickled base64 bytes. Decrypts the session using the supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle serialized session data
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded
+   */
+  public static Session unpickle(PickleKey key, byte[] pickle) throws RuntimeException {
+    return unpickle(key, ByteBuffer.wrap(pickle));
+  }
+
+  /**
+   * Loads a session from a buffer holding pickled base64 data. Decrypts the session using the
+   * supplied key.
+   *
+   * @param key key used to encrypt the serialized session data (see {@link PickleKey})
+   * @param pickle buffer holding the (remaining) serialized session data, its position is advanced
+   *     to its limit on success
+   * @return new initialized session instance
+   * @throws RuntimeException <code>BAD_ACCOUNT_KEY</code> if the key doesn't match the one used to
+   *     encrypt the session; <code>INVALID_BASE64</code> if the base64 couldn't be decoded
+   */
+  public static Session unpickle(PickleKey key, ByteBuffer pickle) throws RuntimeException {
     // create new instance
     Session session = new Session();
 
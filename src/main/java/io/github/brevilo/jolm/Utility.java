@@ -17,36 +17,55 @@
 package io.github.brevilo.jolm;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.sun.jna.Memory;
 import io.github.brevilo.jolm.Utils.OlmException;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.jna.OlmUtility;
 
 /** Class to provide libolm utility functions. */
-public class Utility {
+public class Utility implements AutoCloseable {
 
   // backing store
   private final OlmUtility instance;
 
-  private final JsonMapper jsonMapper;
-
-  // initializer
-  {
-    jsonMapper = JsonMapper.builder().build();
-  }
-
   /** Creates a new Utility object. */
   public Utility() {
     // initialize backing store
-    instance = Utils.initialize(OlmLibrary::olm_utility, OlmLibrary::olm_utility_size);
+    instance = Utils.initialize(OlmLibrary::olm_utility, OlmConstants.Utility.UTILITY_SIZE);
   }
 
   /** Clears the memory used to back this utility. */
   public void clear() {
-    OlmLibrary.olm_clear_utility(instance);
+    OlmLibrary.olm_clear_utility(instance());
+  }
+
+  /**
+   * Clears this utility and releases its backing store right away. Using the utility afterwards
+   * throws an <code>IllegalStateException</code>. Subsequent calls are no-ops.
+   */
+  @Override
+  public void close() {
+    if (!instance.isReleased()) {
+      clear();
+      instance.release();
+    }
+  }
+
+  /**
+   * Gets the backing store, guarding native calls against use after {@link #close()}.
+   *
+   * @return olm object backing this utility object
+   * @throws IllegalStateException if this utility object has been closed
+   */
+  OlmUtility instance() throws IllegalStateException {
+    if (instance.isReleased()) {
+      throw new IllegalStateException("Utility has been closed");
+    }
+    return instance;
   }
 
   /**
@@ -62,27 +81,27 @@ public class Utility {
   public void verifyEd25519(String key, String message, String signature)
       throws OlmException, JsonProcessingException {
 
-    ObjectNode node = (ObjectNode) jsonMapper.readTree(message);
+    ObjectNode node = (ObjectNode) Utils.JSON_MAPPER.readTree(message);
 
     // strip nodes not to be verified
     node.remove(Constant.JSON_SIGNATURES);
     node.remove(Constant.JSON_UNSIGNED);
 
     // get content
-    Memory keyBuffer = Utils.toNative(key);
-    Memory messageBuffer = Utils.toNative(Utils.canonicalizeJson(node));
-    Memory signatureBuffer = Utils.toNative(signature);
+    NativeString keyBuffer = NativeString.encode(key);
+    NativeString messageBuffer = NativeString.encode(Utils.canonicalizeJson(node));
+    NativeString signatureBuffer = NativeString.encode(signature);
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_ed25519_verify(
-            instance,
-            keyBuffer,
-            new NativeSize(keyBuffer),
-            messageBuffer,
-            new NativeSize(messageBuffer),
-            signatureBuffer,
-            new NativeSize(signatureBuffer));
+            instance(),
+            keyBuffer.getPointer(),
+            keyBuffer.getLength(),
+            messageBuffer.getPointer(),
+            messageBuffer.getLength(),
+            signatureBuffer.getPointer(),
+            signatureBuffer.getLength());
 
     // clear the input buffer
     messageBuffer.clear();
@@ -90,6 +109,42 @@ public class Utility {
     checkOlmResult(result);
   }
 
+  /**
+   * Verify an ed25519 signature over raw message bytes. Unlike {@link #verifyEd25519(String,
+   * String, String)} the message is verified as is, i.e. it isn't treated as (canonical) JSON.
+   *
+   * @param key signing key bytes (base64) to use for verification
+   * @param message message bytes to be verified
+   * @param signature signature bytes (base64) to use for verification
+   * @throws OlmException <code>INVALID_BASE64</code> if the key was too small; <code>
+   *     BAD_MESSAGE_MAC</code> if the signature was invalid
+   */
+  public void verifyEd25519(byte[] key, byte[] message, byte[] signature) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage content
+      NativeSize keyLength = new NativeSize(scratch.write(ScratchArena.KEY, key));
+      NativeSize messageLength = new NativeSize(scratch.write(ScratchArena.INPUT, message));
+      NativeSize signatureLength = new NativeSize(scratch.write(ScratchArena.SIGNATURE, signature));
+
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_ed25519_verify(
+              instance(),
+              scratch.buffer(ScratchArena.KEY, keyLength.longValue()),
+              keyLength,
+              scratch.buffer(ScratchArena.INPUT, messageLength.longValue()),
+              messageLength,
+              scratch.buffer(ScratchArena.SIGNATURE, signatureLength.longValue()),
+              signatureLength);
+
+      checkOlmResult(result);
+    } finally {
+      // clear the input buffers
+      scratch.release();
+    }
+  }
+
   /**
    * Calculates the SHA-256 hash of the input and encodes it as base64.
    *
@@ -99,23 +154,62 @@ public class Utility {
    */
   public String sha256(String input) throws OlmException {
     // get native input
-    Memory inputBuffer = Utils.toNative(input);
+    NativeString inputBuffer = NativeString.encode(input);
 
     // prepare output buffer
-    NativeSize outputLength = OlmLibrary.olm_sha256_length(instance);
+    NativeSize outputLength = OlmLibrary.olm_sha256_length(instance());
     Memory outputBuffer = new Memory(outputLength.longValue());
 
     // call olm
     NativeSize result =
         OlmLibrary.olm_sha256(
-            instance, inputBuffer, new NativeSize(inputBuffer), outputBuffer, outputLength);
+            instance(),
+            inputBuffer.getPointer(),
+            inputBuffer.getLength(),
+            outputBuffer,
+            outputLength);
 
     // clear the input buffer
     inputBuffer.clear();
 
     checkOlmResult(result);
 
-    return Utils.fromNative(outputBuffer);
+    return NativeString.decode(outputBuffer, result);
+  }
+
+  /**
+   * Calculates the SHA-256 hash of the input bytes and encodes it as base64.
+   *
+   * @param input input bytes to be hashed
+   * @return base64-encoded SHA-256 hash value bytes
+   * @throws OlmException <code>OUTPUT_BUFFER_TOO_SMALL</code> if the hash buffer was too small
+   */
+  public byte[] sha256(byte[] input) throws OlmException {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // stage input
+      NativeSize inputLength = new NativeSize(scratch.write(ScratchArena.INPUT, input));
+
+      // prepare output buffer
+      NativeSize outputLength = OlmLibrary.olm_sha256_length(instance());
+      Memory outputBuffer = scratch.buffer(ScratchArena.OUTPUT, outputLength.longValue());
+
+      // call olm
+      NativeSize result =
+          OlmLibrary.olm_sha256(
+              instance(),
+              scratch.buffer(ScratchArena.INPUT, inputLength.longValue()),
+              inputLength,
+              outputBuffer,
+              outputLength);
+
+      checkOlmResult(result);
+
+      return scratch.read(ScratchArena.OUTPUT, result.longValue());
+    } finally {
+      // clear the input buffer
+      scratch.release();
+    }
   }
 
   /**
@@ -125,8 +219,8 @@ public class Utility {
    * @throws OlmException thrown if an error occurred (incl. error details)
    */
   private void checkOlmResult(NativeSize result) throws OlmException {
-    if (result.equalTo(OlmLibrary.olm_error())) {
-      throw new OlmException(OlmLibrary.olm_utility_last_error(instance));
+    if (result.longValue() == OlmConstants.ERROR) {
+      throw OlmException.of(OlmLibrary.olm_utility_last_error_code(instance()));
     }
   }
 }
@@ -22,22 +22,38 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.sun.jna.Memory;
+import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.PointerByReference;
 import io.github.brevilo.jolm.jna.NativeSize;
+import io.github.brevilo.jolm.jna.NativeString;
+import io.github.brevilo.jolm.jna.OlmConstants;
 import io.github.brevilo.jolm.jna.OlmObject;
+import io.github.brevilo.jolm.jna.SlabAllocator;
 import java.io.UnsupportedEncodingException;
-import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /** Internal helper methods to reduce code clutter. */
 public class Utils {
+  /** Shared JSON mapper (thread-safe, building one per call is expensive). */
+  static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+  /** Shared JSON mapper producing canonical JSON (keys sorted). */
+  static final JsonMapper CANONICAL_JSON_MAPPER =
+      JsonMapper.builder().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true).build();
 
   /**
-   * Generic initializer providing a backing store for olm objects.
+   * Generic initializer providing a backing store for olm objects, drawn from the shared {@link
+   * SlabAllocator}.
    *
    * @param <T> olm object type
    * @param function reference to olm object initializer function
@@ -45,39 +61,88 @@ public class Utils {
    * @return instance of the allocated olm object
    * @throws RuntimeException olm object's size function returned an error
    * @throws OutOfMemoryError backing store could not be allocated
+   * @deprecated use {@link #initialize(Function, long)} with a size from {@link OlmConstants}
    */
+  @Deprecated
   public static <T extends OlmObject> T initialize(
       Function<Pointer, T> function, Callable<NativeSize> getSize)
       throws RuntimeException, OutOfMemoryError {
 
-    // allocate required buffer
+    // determine required size
     NativeSize size;
     try {
       size = getSize.call();
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
-    Memory buffer = new Memory(size.longValue());
 
-    // create instance within buffer
-    T instance = function.apply(buffer);
+    return initialize(function, size.longValue());
+  }
+
+  /**
+   * Generic initializer providing a backing store for olm objects, drawn from the shared {@link
+   * SlabAllocator}.
+   *
+   * @param <T> olm object type
+   * @param function reference to olm object initializer function
+   * @param size olm object size (see {@link OlmConstants})
+   * @return instance of the allocated olm object
+   * @throws OutOfMemoryError backing store could not be allocated
+   */
+  public static <T extends OlmObject> T initialize(Function<Pointer, T> function, long size)
+      throws OutOfMemoryError {
+
+    // allocate required buffer
+    SlabAllocator.Slot slot = SlabAllocator.getInstance().allocate(size);
+
+    // create instance within slot
+    T instance = function.apply(slot.getMemory());
     if (instance == null) {
+      slot.free();
       throw new OutOfMemoryError();
     }
 
-    // keep backing store (prevent premature GCing)
-    instance.setBackingStore(buffer);
+    // keep backing store (prevent premature GCing, recycle slot afterwards)
+    instance.setBackingStore(slot);
 
     return instance;
   }
 
+  /**
+   * Generic helper method to copy (clone) olm objects by duplicating their native state into a new
+   * backing store, without the encryption and encoding overhead of a pickle round trip.
+   *
+   * <p>Only use this for olm objects whose struct holds no pointers, as those would still point
+   * into the source. As of libolm 3.2 this holds for megolm group sessions and pk decryption
+   * objects, but not for olm sessions (whose ratchet lists point into the session itself).
+   *
+   * @param <T> olm object type
+   * @param source olm object to copy (must not be modified concurrently)
+   * @param function reference to olm object initializer function
+   * @param size olm object size (see {@link OlmConstants})
+   * @return new olm object holding the same state as the source
+   * @throws OutOfMemoryError backing store could not be allocated
+   */
+  public static <T extends OlmObject> T copy(T source, Function<Pointer, T> function, long size)
+      throws OutOfMemoryError {
+
+    T target = initialize(function, size);
+
+    // duplicate native state (direct copy, state never enters the heap)
+    target.getPointer().getByteBuffer(0, size).put(source.getPointer().getByteBuffer(0, size));
+
+    return target;
+  }
+
   /**
    * Converts a UTF-8 string into a raw memory buffer.
    *
    * @param content string to be converted
    * @return raw memory buffer containing the converted string
    * @throws RuntimeException UTF-8 is unsupported
+   * @deprecated use {@link NativeString#encode(String)} instead
    */
+  @Deprecated
   public static Memory toNative(String content) throws RuntimeException {
     try {
       byte[] contentBytes;
@@ -97,7 +162,10 @@ public class Utils {
    * @param buffer memory buffer to convert
    * @return trimmed string representation of the memory buffer
    * @throws RuntimeException UTF-8 is unsupported
+   * @deprecated use {@link NativeString#decode(Pointer, NativeSize)} with the length returned by
+   *     olm instead
    */
+  @Deprecated
   public static String fromNative(Memory buffer) {
     // shorten to actual string length
     NativeSize size = new NativeSize(buffer.size());
@@ -113,33 +181,134 @@ public class Utils {
   }
 
   /**
-   * Allocates a memory buffer and fills it with random data.
+   * Computes the length of the data encoded by unpadded base64 of the given length (as used by
+   * olm). For olm messages this is a safe upper bound for the length of the contained plain text,
+   * as the decoded message also holds the cipher text's version, headers and MAC.
+   *
+   * @param base64Length length of the base64 encoded data in bytes
+   * @return length of the decoded data in bytes
+   */
+  public static long decodedBase64Length(long base64Length) {
+    long remainder = base64Length % 4;
+
+    return base64Length / 4 * 3 + (remainder > 1 ? remainder - 1 : 0);
+  }
+
+  /**
+   * Gets a view of the remaining content of a direct buffer, suitable for passing to olm. The view
+   * starts at the buffer's current position (at index zero).
+   *
+   * @param buffer direct buffer to pass to olm
+   * @param writable whether olm is going to write into the buffer
+   * @return view of the buffer's remaining content
+   * @throws IllegalArgumentException if the buffer isn't direct or is read-only but must be
+   *     writable
+   */
+  public static ByteBuffer nativeView(ByteBuffer buffer, boolean writable)
+      throws IllegalArgumentException {
+    if (!buffer.isDirect()) {
+      throw new IllegalArgumentException("Direct buffer required");
+    }
+    if (writable && buffer.isReadOnly()) {
+      throw new IllegalArgumentException("Writable buffer required");
+    }
+
+    return buffer.slice();
+  }
+
+  /**
+   * Allocates a memory buffer and fills it with random data drawn from {@link
+   * Jolm#getRandomSource()}.
    *
    * @param size buffer size in bytes
    * @return random data buffer
    */
   public static Memory randomBuffer(NativeSize size) {
-    SecureRandom rng = new SecureRandom();
     Memory buffer = new Memory(size.longValue());
+    Jolm.getRandomSource().fill(buffer, size.longValue());
+
+    return buffer;
+  }
 
-    // prepare buffer chunking (n integer blocks + remaining bytes)
-    long intChunks = size.longValue() / Integer.BYTES;
-    int remainder = (int) (size.longValue() % Integer.BYTES);
-    long remainderOffset = intChunks * Integer.BYTES;
+  /**
+   * Functional supplier interface used by {@link Utils#createAll(int, Executor, OlmSupplier)}.
+   *
+   * @param <T> supplied type
+   */
+  @FunctionalInterface
+  interface OlmSupplier<T> {
+    public T get() throws OlmException;
+  }
 
-    // fill buffer with random ints
-    for (long chunk = 0; chunk < intChunks; chunk++) {
-      buffer.setInt(chunk * Integer.BYTES, rng.nextInt());
+  /**
+   * Generic helper method to create several olm objects in parallel. Either all objects are created
+   * or none: if any creation fails, the objects created so far are closed.
+   *
+   * @param <T> object type
+   * @param count number of objects to create
+   * @param executor executor running the individual creations
+   * @param supplier creates a single object
+   * @return created objects
+   * @throws OlmException first error thrown by the supplier
+   * @throws IllegalArgumentException if the count is negative
+   */
+  static <T extends AutoCloseable> List<T> createAll(
+      int count, Executor executor, OlmSupplier<T> supplier) throws OlmException {
+    if (count < 0) {
+      throw new IllegalArgumentException("Negative number of objects: " + count);
     }
 
-    // fill buffer's remaining bytes
-    byte[] bytes = new byte[remainder];
-    rng.nextBytes(bytes);
-    for (int i = 0; i < remainder; i++) {
-      buffer.setByte(remainderOffset + i, bytes[i]);
+    List<CompletableFuture<T>> futures = new ArrayList<>(count);
+    Throwable failure = null;
+    try {
+      for (int i = 0; i < count; i++) {
+        futures.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  try {
+                    return supplier.get();
+                  } catch (OlmException e) {
+                    throw new CompletionException(e);
+                  }
+                },
+                executor));
+      }
+    } catch (RuntimeException e) {
+      // e.g. rejected by the executor, collect the objects already submitted
+      failure = e;
     }
 
-    return buffer;
+    List<T> created = new ArrayList<>(futures.size());
+    for (CompletableFuture<T> future : futures) {
+      try {
+        created.add(future.join());
+      } catch (CompletionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+
+    if (failure == null) {
+      return created;
+    }
+
+    // all or nothing
+    for (T object : created) {
+      try {
+        object.close();
+      } catch (Exception e) {
+        failure.addSuppressed(e);
+      }
+    }
+    if (failure instanceof OlmException) {
+      throw (OlmException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    throw new CompletionException(failure);
   }
 
   /**
@@ -176,8 +345,28 @@ public class Utils {
       OlmPickler<T, Pointer, NativeSize, Pointer, NativeSize> pickle,
       Consumer<NativeSize> checkOlmResult) {
 
-    // prepare key
-    Memory keyBuffer = Utils.toNative(key);
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      return pickle(instance, pickleKey, pickleLength, pickle, checkOlmResult);
+    }
+  }
+
+  /**
+   * Generic helper method to pickle (serialize and encrypt) olm objects.
+   *
+   * @param <T> olm object type
+   * @param instance olm object
+   * @param key encryption key
+   * @param pickleLength method reference to type-specific olm_pickle_TYPE_length()
+   * @param pickle method reference to type-specific olm_pickle_TYPE()
+   * @param checkOlmResult method reference to the type-specific error checker
+   * @return encrypted serialized instance
+   */
+  public static <T extends PointerByReference> String pickle(
+      T instance,
+      PickleKey key,
+      Function<T, NativeSize> pickleLength,
+      OlmPickler<T, Pointer, NativeSize, Pointer, NativeSize> pickle,
+      Consumer<NativeSize> checkOlmResult) {
 
     // allocate required output buffer
     NativeSize pickledLength = pickleLength.apply(instance);
@@ -185,15 +374,87 @@ public class Utils {
 
     // call olm
     NativeSize result =
-        pickle.apply(instance, keyBuffer, new NativeSize(keyBuffer), pickled, pickledLength);
-
-    // clear the key buffer
-    keyBuffer.clear();
+        pickle.apply(instance, key.getPointer(), key.getLength(), pickled, pickledLength);
 
     checkOlmResult.accept(result);
 
     // return pickled olm instance
-    return Utils.fromNative(pickled);
+    return NativeString.decode(pickled, result);
+  }
+
+  /**
+   * Generic helper method to pickle (serialize and encrypt) olm objects straight into a
+   * caller-supplied direct buffer. On success the buffer's position is advanced past the pickle.
+   *
+   * @param <T> olm object type
+   * @param instance olm object
+   * @param key encryption key
+   * @param target direct buffer receiving the pickle
+   * @param pickle method reference to type-specific olm_pickle_TYPE()
+   * @param checkOlmResult method reference to the type-specific error checker
+   * @return number of bytes written
+   * @throws IllegalArgumentException if the buffer isn't direct or is read-only
+   */
+  public static <T extends PointerByReference> int pickle(
+      T instance,
+      PickleKey key,
+      ByteBuffer target,
+      OlmPickler<T, Pointer, NativeSize, Pointer, NativeSize> pickle,
+      Consumer<NativeSize> checkOlmResult)
+      throws IllegalArgumentException {
+
+    ByteBuffer view = nativeView(target, true);
+
+    // call olm
+    NativeSize result =
+        pickle.apply(
+            instance,
+            key.getPointer(),
+            key.getLength(),
+            Native.getDirectBufferPointer(view),
+            new NativeSize(view.remaining()));
+
+    checkOlmResult.accept(result);
+
+    target.position(target.position() + result.intValue());
+
+    return result.intValue();
+  }
+
+  /**
+   * Generic helper method to pickle (serialize and encrypt) olm objects into a byte array.
+   *
+   * @param <T> olm object type
+   * @param instance olm object
+   * @param key encryption key
+   * @param pickleLength method reference to type-specific olm_pickle_TYPE_length()
+   * @param pickle method reference to type-specific olm_pickle_TYPE()
+   * @param checkOlmResult method reference to the type-specific error checker
+   * @return encrypted serialized instance (base64, ASCII)
+   */
+  public static <T extends PointerByReference> byte[] pickleBytes(
+      T instance,
+      PickleKey key,
+      Function<T, NativeSize> pickleLength,
+      OlmPickler<T, Pointer, NativeSize, Pointer, NativeSize> pickle,
+      Consumer<NativeSize> checkOlmResult) {
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // prepare output buffer
+      NativeSize pickledLength = pickleLength.apply(instance);
+      Memory pickled = scratch.buffer(ScratchArena.OUTPUT, pickledLength.longValue());
+
+      // call olm
+      NativeSize result =
+          pickle.apply(instance, key.getPointer(), key.getLength(), pickled, pickledLength);
+
+      checkOlmResult.accept(result);
+
+      return scratch.read(ScratchArena.OUTPUT, result.longValue());
+    } finally {
+      scratch.release();
+    }
   }
 
   /**
@@ -213,25 +474,84 @@ public class Utils {
       OlmPickler<T, Pointer, NativeSize, Pointer, NativeSize> unpickle,
       BiConsumer<T, NativeSize> checkOlmResult) {
 
-    // prepare key and pickle data
-    Memory keyBuffer = Utils.toNative(key);
-    Memory pickledBuffer = Utils.toNative(pickle);
+    try (PickleKey pickleKey = new PickleKey(key)) {
+      unpickle(instance, pickleKey, pickle, unpickle, checkOlmResult);
+    }
+  }
+
+  /**
+   * Generic helper method to unpickle (decrypt and deserialize) olm objects.
+   *
+   * @param <T> olm object type
+   * @param instance olm object
+   * @param key decryption key
+   * @param pickle encrypted serialized instance
+   * @param unpickle method reference to type-specific olm_unpickle_TYPE()
+   * @param checkOlmResult method reference to the type-specific error checker
+   */
+  public static <T extends PointerByReference> void unpickle(
+      T instance,
+      PickleKey key,
+      String pickle,
+      OlmPickler<T, Pointer, NativeSize, Pointer, NativeSize> unpickle,
+      BiConsumer<T, NativeSize> checkOlmResult) {
+
+    // prepare pickle data
+    NativeString pickledBuffer = NativeString.encode(pickle);
 
     // call olm
     NativeSize result =
         unpickle.apply(
             instance,
-            keyBuffer,
-            new NativeSize(keyBuffer),
-            pickledBuffer,
-            new NativeSize(pickledBuffer));
-
-    // clear the key buffer
-    keyBuffer.clear();
+            key.getPointer(),
+            key.getLength(),
+            pickledBuffer.getPointer(),
+            pickledBuffer.getLength());
 
     checkOlmResult.accept(instance, result);
   }
 
+  /**
+   * Generic helper method to unpickle (decrypt and deserialize) olm objects from a (heap or direct)
+   * buffer. The pickle is staged in scratch memory first, since olm decodes it in place. On success
+   * the buffer's position is advanced to its limit.
+   *
+   * @param <T> olm object type
+   * @param instance olm object
+   * @param key decryption key
+   * @param pickle buffer holding the (remaining) encrypted serialized instance
+   * @param unpickle method reference to type-specific olm_unpickle_TYPE()
+   * @param checkOlmResult method reference to the type-specific error checker
+   */
+  public static <T extends PointerByReference> void unpickle(
+      T instance,
+      PickleKey key,
+      ByteBuffer pickle,
+      OlmPickler<T, Pointer, NativeSize, Pointer, NativeSize> unpickle,
+      BiConsumer<T, NativeSize> checkOlmResult) {
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      // prepare pickle data
+      long pickledLength = scratch.write(ScratchArena.INPUT, pickle);
+
+      // call olm
+      NativeSize result =
+          unpickle.apply(
+              instance,
+              key.getPointer(),
+              key.getLength(),
+              scratch.buffer(ScratchArena.INPUT, pickledLength),
+              new NativeSize(pickledLength));
+
+      checkOlmResult.accept(instance, result);
+
+      pickle.position(pickle.limit());
+    } finally {
+      scratch.release();
+    }
+  }
+
   /**
    * Takes a JSON fragment and signs it.
    *
@@ -250,8 +570,7 @@ public class Utils {
       throws OlmException, JsonProcessingException {
 
     // parse JSON string
-    JsonMapper jsonMapper = JsonMapper.builder().build();
-    ObjectNode node = (ObjectNode) jsonMapper.readTree(json);
+    ObjectNode node = (ObjectNode) JSON_MAPPER.readTree(json);
 
     // strip nodes not to be signed
     JsonNode signaturesNode = node.remove(Constant.JSON_SIGNATURES);
@@ -262,9 +581,9 @@ public class Utils {
 
     // add signature node
     if (signaturesNode == null || signaturesNode.isNull()) {
-      signaturesNode = jsonMapper.createObjectNode();
+      signaturesNode = JSON_MAPPER.createObjectNode();
     }
-    ObjectNode keyNode = jsonMapper.createObjectNode();
+    ObjectNode keyNode = JSON_MAPPER.createObjectNode();
     keyNode.put(String.join(":", keyAlgorithm, deviceId), signature);
     ((ObjectNode) signaturesNode).set(userId, keyNode);
     node.set("signatures", signaturesNode);
@@ -287,15 +606,10 @@ public class Utils {
    * @throws JsonProcessingException serialization error
    */
   public static String canonicalizeJson(JsonNode node) throws JsonProcessingException {
-    JsonMapper jsonMapper =
-        JsonMapper.builder()
-            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
-            .build();
-
     // re-sort keys
-    Object object = jsonMapper.treeToValue(node, Object.class);
+    Object object = CANONICAL_JSON_MAPPER.treeToValue(node, Object.class);
 
-    return jsonMapper.writeValueAsString(object);
+    return CANONICAL_JSON_MAPPER.writeValueAsString(object);
   }
 
   /**
@@ -308,18 +622,61 @@ public class Utils {
    * @throws JsonProcessingException (de)serialization error
    */
   public static String canonicalizeJson(String json) throws JsonProcessingException {
-    JsonMapper jsonMapper = JsonMapper.builder().build();
-    JsonNode node = jsonMapper.readTree(json);
+    JsonNode node = JSON_MAPPER.readTree(json);
 
     return Utils.canonicalizeJson(node);
   }
 
-  /** Exception representing error messages returned by olm function calls. */
+  /**
+   * Exception representing errors returned by olm function calls. Exceptions reporting {@link
+   * OlmError#isRoutine() routine} errors are created without a stack trace, and the message of olm
+   * errors is only looked up when requested.
+   */
   public static class OlmException extends Exception {
     private static final long serialVersionUID = 1L;
 
+    private final OlmError error;
+
     public OlmException(String message) {
       super(message);
+      this.error = OlmError.UNKNOWN;
+    }
+
+    /**
+     * Creates an exception reporting an olm error.
+     *
+     * @param error olm error
+     * @param stackTrace whether to capture the stack trace
+     */
+    private OlmException(OlmError error, boolean stackTrace) {
+      super(null, null, true, stackTrace);
+      this.error = error;
+    }
+
+    /**
+     * Creates an exception reporting an olm error code (see {@link OlmError#isRoutine()}).
+     *
+     * @param code olm error code (e.g. as returned by <code>olm_*_last_error_code()</code>)
+     * @return new exception
+     */
+    public static OlmException of(int code) {
+      OlmError error = OlmError.fromCode(code);
+      return new OlmException(error, !error.isRoutine());
+    }
+
+    /**
+     * Gets the reported olm error.
+     *
+     * @return olm error ({@link OlmError#UNKNOWN} if not created from an olm error code)
+     */
+    public OlmError getError() {
+      return error;
+    }
+
+    @Override
+    public String getMessage() {
+      String message = super.getMessage();
+      return message != null ? message : error.getMessage();
     }
   }
 }
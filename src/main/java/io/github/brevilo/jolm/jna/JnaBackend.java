@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Default backend calling libolm through JNA.
+ *
+ * <p>On LP64 platforms the raw direct mapping in {@link OlmLibraryLp64} is used, which doesn't box
+ * any arguments or results. Elsewhere calls fall back to (slower) generic function invocation with
+ * properly sized arguments.
+ */
+final class JnaBackend extends NativeBackend {
+  private static final boolean RAW = LP64;
+
+  @Override
+  public String getName() {
+    return "jna";
+  }
+
+  @Override
+  public long olm_encrypt_message_type(long session) {
+    return RAW
+        ? OlmLibraryLp64.olm_encrypt_message_type(session)
+        : invoke("olm_encrypt_message_type", pointer(session));
+  }
+
+  @Override
+  public long olm_encrypt_random_length(long session) {
+    return RAW
+        ? OlmLibraryLp64.olm_encrypt_random_length(session)
+        : invoke("olm_encrypt_random_length", pointer(session));
+  }
+
+  @Override
+  public long olm_encrypt_message_length(long session, long plainTextLength) {
+    return RAW
+        ? OlmLibraryLp64.olm_encrypt_message_length(session, plainTextLength)
+        : invoke("olm_encrypt_message_length", pointer(session), size(plainTextLength));
+  }
+
+  @Override
+  public long olm_encrypt(
+      long session,
+      long plainText,
+      long plainTextLength,
+      long random,
+      long randomLength,
+      long message,
+      long messageLength) {
+    return RAW
+        ? OlmLibraryLp64.olm_encrypt(
+            session, plainText, plainTextLength, random, randomLength, message, messageLength)
+        : invoke(
+            "olm_encrypt",
+            pointer(session),
+            pointer(plainText),
+            size(plainTextLength),
+            pointer(random),
+            size(randomLength),
+            pointer(message),
+            size(messageLength));
+  }
+
+  @Override
+  public long olm_decrypt(
+      long session,
+      long messageType,
+      long message,
+      long messageLength,
+      long plainText,
+      long maxPlainTextLength) {
+    return RAW
+        ? OlmLibraryLp64.olm_decrypt(
+            session, messageType, message, messageLength, plainText, maxPlainTextLength)
+        : invoke(
+            "olm_decrypt",
+            pointer(session),
+            size(messageType),
+            pointer(message),
+            size(messageLength),
+            pointer(plainText),
+            size(maxPlainTextLength));
+  }
+
+  @Override
+  public long olm_group_encrypt_message_length(long session, long plainTextLength) {
+    return RAW
+        ? OlmLibraryLp64.olm_group_encrypt_message_length(session, plainTextLength)
+        : invoke("olm_group_encrypt_message_length", pointer(session), size(plainTextLength));
+  }
+
+  @Override
+  public long olm_group_encrypt(
+      long session, long plainText, long plainTextLength, long message, long messageLength) {
+    return RAW
+        ? OlmLibraryLp64.olm_group_encrypt(
+            session, plainText, plainTextLength, message, messageLength)
+        : invoke(
+            "olm_group_encrypt",
+            pointer(session),
+            pointer(plainText),
+            size(plainTextLength),
+            pointer(message),
+            size(messageLength));
+  }
+
+  @Override
+  public long olm_group_decrypt(
+      long session,
+      long message,
+      long messageLength,
+      long plainText,
+      long maxPlainTextLength,
+      long messageIndex) {
+    return RAW
+        ? OlmLibraryLp64.olm_group_decrypt(
+            session, message, messageLength, plainText, maxPlainTextLength, messageIndex)
+        : invoke(
+            "olm_group_decrypt",
+            pointer(session),
+            pointer(message),
+            size(messageLength),
+            pointer(plainText),
+            size(maxPlainTextLength),
+            pointer(messageIndex));
+  }
+
+  /**
+   * Calls a libolm function returning <code>size_t</code> (fallback for non-LP64 platforms).
+   *
+   * @param name function name
+   * @param arguments function arguments
+   * @return function result
+   */
+  private static long invoke(String name, Object... arguments) {
+    return ((NativeSize)
+            OlmLibrary.JNA_NATIVE_LIB.getFunction(name).invoke(NativeSize.class, arguments))
+        .longValue();
+  }
+
+  private static Pointer pointer(long address) {
+    return address == 0 ? null : new Pointer(address);
+  }
+
+  private static NativeSize size(long value) {
+    return new NativeSize(value);
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Native call backend for the libolm functions on the encryption/decryption hot paths.
+ *
+ * <p>The default backend calls libolm through the JNA direct mapping in {@link OlmLibrary}. On Java
+ * 22 and later an alternative backend built on the Foreign Function &amp; Memory API (shipped as
+ * part of the multi-release jar) can be selected at startup by setting the system property <code>
+ * jolm.backend</code> to <code>ffm</code>. If it isn't available on the running JVM the JNA backend
+ * is used instead, {@link #getName()} tells which one is active.
+ *
+ * <p>Olm objects and buffers are passed as native addresses (see {@link #address(Pointer)}) and
+ * sizes as primitive longs, so calls don't box any arguments or results. All other libolm functions
+ * are always called through {@link OlmLibrary}. Both backends share the same native library
+ * instance and operate on the same (JNA allocated) memory.
+ */
+public abstract class NativeBackend {
+  /** System property selecting the backend (<code>jna</code> or <code>ffm</code>). */
+  public static final String PROPERTY = "jolm.backend";
+
+  /** Whether <code>size_t</code> and pointers are 64 bits wide on this platform. */
+  public static final boolean LP64 =
+      Native.SIZE_T_SIZE == Long.BYTES && Native.POINTER_SIZE == Long.BYTES;
+
+  private static final String FFM_BACKEND = "io.github.brevilo.jolm.jna.FfmBackend";
+
+  private static final NativeBackend INSTANCE = select();
+
+  /**
+   * Gets the backend selected at startup.
+   *
+   * @return active backend
+   */
+  public static NativeBackend getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Selects the backend according to the system property {@link #PROPERTY}.
+   *
+   * @return selected backend (JNA if the requested one isn't available)
+   */
+  private static NativeBackend select() {
+    if ("ffm".equalsIgnoreCase(System.getProperty(PROPERTY))) {
+      try {
+        return (NativeBackend) Class.forName(FFM_BACKEND).getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // not a Java 22+ runtime (or not running from the multi-release jar)
+      }
+    }
+    return new JnaBackend();
+  }
+
+  /**
+   * Gets the name of this backend.
+   *
+   * @return backend name (<code>jna</code> or <code>ffm</code>)
+   */
+  public abstract String getName();
+
+  /** See <code>olm_encrypt_message_type()</code>. */
+  public abstract long olm_encrypt_message_type(long session);
+
+  /** See <code>olm_encrypt_random_length()</code>. */
+  public abstract long olm_encrypt_random_length(long session);
+
+  /** See <code>olm_encrypt_message_length()</code>. */
+  public abstract long olm_encrypt_message_length(long session, long plainTextLength);
+
+  /** See <code>olm_encrypt()</code>. */
+  public abstract long olm_encrypt(
+      long session,
+      long plainText,
+      long plainTextLength,
+      long random,
+      long randomLength,
+      long message,
+      long messageLength);
+
+  /** See <code>olm_decrypt()</code>. */
+  public abstract long olm_decrypt(
+      long session,
+      long messageType,
+      long message,
+      long messageLength,
+      long plainText,
+      long maxPlainTextLength);
+
+  /** See <code>olm_group_encrypt_message_length()</code>. */
+  public abstract long olm_group_encrypt_message_length(long session, long plainTextLength);
+
+  /** See <code>olm_group_encrypt()</code>. */
+  public abstract long olm_group_encrypt(
+      long session, long plainText, long plainTextLength, long message, long messageLength);
+
+  /** See <code>olm_group_decrypt()</code>. */
+  public abstract long olm_group_decrypt(
+      long session,
+      long message,
+      long messageLength,
+      long plainText,
+      long maxPlainTextLength,
+      long messageIndex);
+
+  /**
+   * Keeps an object strongly reachable up to the point of this call, i.e. a substitute for <code>
+   * Reference.reachabilityFence()</code> which isn't available on Java 8. Must be called after
+   * native calls receiving the raw {@link #address(PointerByReference) address} of an olm object,
+   * so that its backing store can't be released (and reused) while olm still works on it.
+   *
+   * @param object object to keep reachable
+   */
+  public static void reachabilityFence(Object object) {
+    synchronized (object) {
+      // nothing to do, entering the monitor requires the object to be reachable
+    }
+  }
+
+  /**
+   * Gets the native address of an olm object.
+   *
+   * @param object olm object
+   * @return object address
+   */
+  public static long address(PointerByReference object) {
+    return Pointer.nativeValue(object.getPointer());
+  }
+
+  /**
+   * Gets the native address of a buffer.
+   *
+   * @param buffer native memory (may be <code>null</code>)
+   * @return buffer address (<code>0</code> for <code>null</code>)
+   */
+  public static long address(Pointer buffer) {
+    return Pointer.nativeValue(buffer);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Internal cleaner running cleanup actions for native resources once their owners became phantom
+ * reachable (Java 8 compatible equivalent of <code>java.lang.ref.Cleaner</code>). Actions that had
+ * to be run by the cleaner, rather than explicitly by their owners, are counted as leaks.
+ */
+public final class NativeCleaner {
+  private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+  private static final Set<Cleanable> REGISTERED = ConcurrentHashMap.newKeySet();
+  private static final AtomicLong LEAKED = new AtomicLong();
+
+  static {
+    Thread thread = new Thread(NativeCleaner::run, "jOlm native cleaner");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private NativeCleaner() {}
+
+  /**
+   * Registers a cleanup action to be run once the owner became phantom reachable. The action must
+   * not refer to the owner itself (otherwise it would never become unreachable).
+   *
+   * @param owner object whose reachability is tracked
+   * @param action cleanup action
+   * @return cleanable allowing to run the action explicitly (at most once)
+   */
+  public static Cleanable register(Object owner, Runnable action) {
+    Cleanable cleanable = new Cleanable(owner, action);
+    REGISTERED.add(cleanable);
+
+    return cleanable;
+  }
+
+  /**
+   * Gets the number of resources that were released by the cleaner because their owners became
+   * unreachable without being released explicitly (e.g. olm objects that were never closed).
+   *
+   * @return number of leaked resources
+   */
+  public static long getLeakedCount() {
+    return LEAKED.get();
+  }
+
+  /** Cleaner thread: runs the actions of owners that became unreachable. */
+  private static void run() {
+    while (true) {
+      try {
+        if (((Cleanable) QUEUE.remove()).perform()) {
+          LEAKED.incrementAndGet();
+        }
+      } catch (InterruptedException e) {
+        // keep going, daemon thread
+      } catch (RuntimeException e) {
+        // keep going, a failing action must not stop the cleaner
+      }
+    }
+  }
+
+  /** Handle to a registered cleanup action. */
+  public static final class Cleanable extends PhantomReference<Object> {
+    private final Runnable action;
+
+    private Cleanable(Object owner, Runnable action) {
+      super(owner, QUEUE);
+      this.action = action;
+    }
+
+    /** Runs the cleanup action unless it has been run already and unregisters it. */
+    public void clean() {
+      perform();
+    }
+
+    /**
+     * Runs the cleanup action unless it has been run already.
+     *
+     * @return true if the action was run by this call
+     */
+    private boolean perform() {
+      if (REGISTERED.remove(this)) {
+        clear();
+        action.run();
+        return true;
+      }
+      return false;
+    }
+  }
+}
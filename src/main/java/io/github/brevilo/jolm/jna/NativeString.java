@@ -0,0 +1,168 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-aware codec between Java strings and UTF-8 encoded native memory.
+ *
+ * <p>Strings are encoded straight into native memory of exactly their UTF-8 length (no terminating
+ * NUL), decoding reads exactly the given number of bytes (e.g. as returned by olm) without scanning
+ * for NUL or trimming.
+ */
+public final class NativeString {
+  private final Memory memory;
+  private final NativeSize length;
+
+  private NativeString(Memory memory, long length) {
+    this.memory = memory;
+    this.length = new NativeSize(length);
+  }
+
+  /**
+   * Encodes a string as UTF-8 into newly allocated native memory of exactly the required size.
+   *
+   * @param content string to encode
+   * @return encoded string
+   */
+  public static NativeString encode(String content) {
+    long length = encodedLength(content);
+    if (length == 0) {
+      // olm accepts NULL for empty input
+      return new NativeString(null, 0);
+    }
+
+    Memory memory = new Memory(length);
+    encode(content, memory.getByteBuffer(0, length));
+
+    return new NativeString(memory, length);
+  }
+
+  /**
+   * Encodes a string as UTF-8 into the given buffer, starting at its current position (unpaired
+   * surrogates are replaced by <code>'?'</code>, just like {@link
+   * String#getBytes(java.nio.charset.Charset)} does).
+   *
+   * @param content string to encode
+   * @param target buffer with at least {@link #encodedLength(String)} bytes remaining
+   */
+  public static void encode(String content, ByteBuffer target) {
+    for (int i = 0; i < content.length(); i++) {
+      char c = content.charAt(i);
+      if (c < 0x80) {
+        target.put((byte) c);
+      } else if (c < 0x800) {
+        target.put((byte) (0xc0 | (c >> 6)));
+        target.put((byte) (0x80 | (c & 0x3f)));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < content.length()
+          && Character.isLowSurrogate(content.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, content.charAt(++i));
+        target.put((byte) (0xf0 | (codePoint >> 18)));
+        target.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+        target.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+        target.put((byte) (0x80 | (codePoint & 0x3f)));
+      } else if (Character.isSurrogate(c)) {
+        target.put((byte) '?');
+      } else {
+        target.put((byte) (0xe0 | (c >> 12)));
+        target.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+        target.put((byte) (0x80 | (c & 0x3f)));
+      }
+    }
+  }
+
+  /**
+   * Decodes the given number of UTF-8 bytes from native memory.
+   *
+   * @param buffer native memory to decode
+   * @param length number of bytes to decode
+   * @return decoded string
+   */
+  public static String decode(Pointer buffer, long length) {
+    return new String(buffer.getByteArray(0, (int) length), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decodes the given number of UTF-8 bytes from native memory.
+   *
+   * @param buffer native memory to decode
+   * @param length number of bytes to decode (e.g. as returned by olm)
+   * @return decoded string
+   */
+  public static String decode(Pointer buffer, NativeSize length) {
+    return decode(buffer, length.longValue());
+  }
+
+  /**
+   * Computes the length of the UTF-8 encoding of a string, as written by {@link #encode(String,
+   * ByteBuffer)}.
+   *
+   * @param content string to compute the encoded length for
+   * @return encoded length in bytes
+   */
+  public static long encodedLength(String content) {
+    long length = 0;
+    for (int i = 0; i < content.length(); i++) {
+      char c = content.charAt(i);
+      if (c < 0x80) {
+        length += 1;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < content.length()
+          && Character.isLowSurrogate(content.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        length += 1;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Gets the native memory holding the encoded string.
+   *
+   * @return native memory (<code>null</code> for empty strings)
+   */
+  public Pointer getPointer() {
+    return memory;
+  }
+
+  /**
+   * Gets the length of the encoded string.
+   *
+   * @return encoded length in bytes
+   */
+  public NativeSize getLength() {
+    return length;
+  }
+
+  /** Wipes the encoded string (for sensitive content). */
+  public void clear() {
+    if (memory != null) {
+      memory.clear();
+    }
+  }
+}
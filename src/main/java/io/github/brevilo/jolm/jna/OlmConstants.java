@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+/**
+ * Values of libolm functions that never change for the lifetime of the process: the error result,
+ * object sizes and fixed key/signature lengths. They are queried once so that routine calls don't
+ * need extra native calls to obtain them.
+ *
+ * <p>The values are grouped per libolm subsystem in nested holder classes, each initialized on
+ * first access only. That way, using e.g. {@link MegolmInbound#INBOUND_GROUP_SESSION_SIZE} just
+ * registers the native methods of the inbound group session subsystem (see {@link OlmLibrary}).
+ */
+public final class OlmConstants {
+  /** Result signalling a failed libolm call, see <code>olm_error()</code>. */
+  public static final long ERROR = OlmLibrary.olm_error().longValue();
+
+  private OlmConstants() {}
+
+  /** Olm account and session constants (<code>olm/olm.h</code>). */
+  public static final class Olm {
+    public static final long ACCOUNT_SIZE = OlmLibrary.olm_account_size().longValue();
+    public static final long SESSION_SIZE = OlmLibrary.olm_session_size().longValue();
+
+    private Olm() {}
+  }
+
+  /** Inbound Megolm session constants (<code>olm/inbound_group_session.h</code>). */
+  public static final class MegolmInbound {
+    public static final long INBOUND_GROUP_SESSION_SIZE =
+        OlmLibrary.olm_inbound_group_session_size().longValue();
+
+    private MegolmInbound() {}
+  }
+
+  /** Outbound Megolm session constants (<code>olm/outbound_group_session.h</code>). */
+  public static final class MegolmOutbound {
+    public static final long OUTBOUND_GROUP_SESSION_SIZE =
+        OlmLibrary.olm_outbound_group_session_size().longValue();
+
+    private MegolmOutbound() {}
+  }
+
+  /** Public key encryption, decryption and signing constants (<code>olm/pk.h</code>). */
+  public static final class Pk {
+    // object sizes
+    public static final long PK_ENCRYPTION_SIZE = OlmLibrary.olm_pk_encryption_size().longValue();
+    public static final long PK_DECRYPTION_SIZE = OlmLibrary.olm_pk_decryption_size().longValue();
+    public static final long PK_SIGNING_SIZE = OlmLibrary.olm_pk_signing_size().longValue();
+
+    // key and signature lengths
+    public static final long PK_KEY_LENGTH = OlmLibrary.olm_pk_key_length().longValue();
+    public static final long PK_PRIVATE_KEY_LENGTH =
+        OlmLibrary.olm_pk_private_key_length().longValue();
+    public static final long PK_SIGNING_SEED_LENGTH =
+        OlmLibrary.olm_pk_signing_seed_length().longValue();
+    public static final long PK_SIGNING_PUBLIC_KEY_LENGTH =
+        OlmLibrary.olm_pk_signing_public_key_length().longValue();
+    public static final long PK_SIGNATURE_LENGTH = OlmLibrary.olm_pk_signature_length().longValue();
+
+    private Pk() {}
+  }
+
+  /** Short authentication string constants (<code>olm/sas.h</code>). */
+  public static final class Sas {
+    public static final long SAS_SIZE = OlmLibrary.olm_sas_size().longValue();
+
+    private Sas() {}
+  }
+
+  /** Utility constants (<code>olm/olm.h</code>). */
+  public static final class Utility {
+    public static final long UTILITY_SIZE = OlmLibrary.olm_utility_size().longValue();
+
+    private Utility() {}
+  }
+}
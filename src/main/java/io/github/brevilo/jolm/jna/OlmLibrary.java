@@ -17,7 +17,6 @@
 package io.github.brevilo.jolm.jna;
 
 import com.sun.jna.Library;
-import com.sun.jna.Native;
 import com.sun.jna.NativeLibrary;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.IntByReference;
@@ -25,16 +24,19 @@ import com.sun.jna.ptr.PointerByReference;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 
-/** Main JNA mapping class for libolm. */
+/**
+ * Main JNA mapping class for libolm.
+ *
+ * <p>The native methods are bound per subsystem (see the package-private <code>OlmLibrary*</code>
+ * holder classes), each holder registering its methods on first use only. This class loads the
+ * native library and delegates to the holders, so a process only pays for the subsystems it
+ * actually uses.
+ */
 public class OlmLibrary implements Library {
   public static final String JNA_LIBRARY_NAME = "olm";
   public static final NativeLibrary JNA_NATIVE_LIB =
       NativeLibrary.getInstance(OlmLibrary.JNA_LIBRARY_NAME);
 
-  static {
-    Native.register(OlmLibrary.class, OlmLibrary.JNA_NATIVE_LIB);
-  }
-
   // olm/error.h
   public static interface OlmErrorCode {
     public static final int OLM_SUCCESS = 0;
@@ -58,291 +60,509 @@ public class OlmLibrary implements Library {
   }
   ;
 
-  public static native String _olm_error_to_string(int error);
+  public static String _olm_error_to_string(int error) {
+    return OlmLibraryCore._olm_error_to_string(error);
+  }
 
   // olm/olm.h
   public static final long OLM_MESSAGE_TYPE_PRE_KEY = 0;
   public static final long OLM_MESSAGE_TYPE_MESSAGE = 1;
 
   // olm/inbound_group_session.h
-  public static native NativeSize olm_inbound_group_session_size();
+  public static NativeSize olm_inbound_group_session_size() {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_size();
+  }
 
-  public static native OlmInboundGroupSession olm_inbound_group_session(Pointer memory);
+  public static OlmInboundGroupSession olm_inbound_group_session(Pointer memory) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session(memory);
+  }
 
-  public static native String olm_inbound_group_session_last_error(PointerByReference session);
+  public static String olm_inbound_group_session_last_error(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_last_error(session);
+  }
 
-  public static native int olm_inbound_group_session_last_error_code(PointerByReference session);
+  public static int olm_inbound_group_session_last_error_code(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_last_error_code(session);
+  }
 
-  public static native NativeSize olm_clear_inbound_group_session(PointerByReference session);
+  public static NativeSize olm_clear_inbound_group_session(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_clear_inbound_group_session(session);
+  }
 
-  public static native NativeSize olm_pickle_inbound_group_session_length(
-      PointerByReference session);
+  public static NativeSize olm_pickle_inbound_group_session_length(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_pickle_inbound_group_session_length(session);
+  }
 
-  public static native NativeSize olm_pickle_inbound_group_session(
+  public static NativeSize olm_pickle_inbound_group_session(
       PointerByReference session,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryMegolmInbound.olm_pickle_inbound_group_session(
+        session, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_unpickle_inbound_group_session(
+  public static NativeSize olm_unpickle_inbound_group_session(
       PointerByReference session,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryMegolmInbound.olm_unpickle_inbound_group_session(
+        session, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_init_inbound_group_session(
-      PointerByReference session, byte session_key[], NativeSize session_key_length);
+  public static NativeSize olm_init_inbound_group_session(
+      PointerByReference session, byte session_key[], NativeSize session_key_length) {
+    return OlmLibraryMegolmInbound.olm_init_inbound_group_session(
+        session, session_key, session_key_length);
+  }
 
-  public static native NativeSize olm_init_inbound_group_session(
-      PointerByReference session, Pointer session_key, NativeSize session_key_length);
+  public static NativeSize olm_init_inbound_group_session(
+      PointerByReference session, Pointer session_key, NativeSize session_key_length) {
+    return OlmLibraryMegolmInbound.olm_init_inbound_group_session(
+        session, session_key, session_key_length);
+  }
 
-  public static native NativeSize olm_import_inbound_group_session(
-      PointerByReference session, byte session_key[], NativeSize session_key_length);
+  public static NativeSize olm_import_inbound_group_session(
+      PointerByReference session, byte session_key[], NativeSize session_key_length) {
+    return OlmLibraryMegolmInbound.olm_import_inbound_group_session(
+        session, session_key, session_key_length);
+  }
 
-  public static native NativeSize olm_import_inbound_group_session(
-      PointerByReference session, Pointer session_key, NativeSize session_key_length);
+  public static NativeSize olm_import_inbound_group_session(
+      PointerByReference session, Pointer session_key, NativeSize session_key_length) {
+    return OlmLibraryMegolmInbound.olm_import_inbound_group_session(
+        session, session_key, session_key_length);
+  }
 
-  public static native NativeSize olm_group_decrypt_max_plaintext_length(
-      PointerByReference session, ByteBuffer message, NativeSize message_length);
+  public static NativeSize olm_group_decrypt_max_plaintext_length(
+      PointerByReference session, ByteBuffer message, NativeSize message_length) {
+    return OlmLibraryMegolmInbound.olm_group_decrypt_max_plaintext_length(
+        session, message, message_length);
+  }
 
-  public static native NativeSize olm_group_decrypt_max_plaintext_length(
-      PointerByReference session, Pointer message, NativeSize message_length);
+  public static NativeSize olm_group_decrypt_max_plaintext_length(
+      PointerByReference session, Pointer message, NativeSize message_length) {
+    return OlmLibraryMegolmInbound.olm_group_decrypt_max_plaintext_length(
+        session, message, message_length);
+  }
 
-  public static native NativeSize olm_group_decrypt(
+  public static NativeSize olm_group_decrypt(
       PointerByReference session,
       ByteBuffer message,
       NativeSize message_length,
       ByteBuffer plaintext,
       NativeSize max_plaintext_length,
-      IntBuffer message_index);
+      IntBuffer message_index) {
+    return OlmLibraryMegolmInbound.olm_group_decrypt(
+        session, message, message_length, plaintext, max_plaintext_length, message_index);
+  }
+
+  public static NativeSize olm_group_decrypt(
+      PointerByReference session,
+      Pointer message,
+      NativeSize message_length,
+      Pointer plaintext,
+      NativeSize max_plaintext_length,
+      IntByReference message_index) {
+    return OlmLibraryMegolmInbound.olm_group_decrypt(
+        session, message, message_length, plaintext, max_plaintext_length, message_index);
+  }
 
-  public static native NativeSize olm_group_decrypt(
+  public static NativeSize olm_group_decrypt(
       PointerByReference session,
       Pointer message,
       NativeSize message_length,
       Pointer plaintext,
       NativeSize max_plaintext_length,
-      IntByReference message_index);
+      Pointer message_index) {
+    return OlmLibraryMegolmInbound.olm_group_decrypt(
+        session, message, message_length, plaintext, max_plaintext_length, message_index);
+  }
 
-  public static native NativeSize olm_inbound_group_session_id_length(PointerByReference session);
+  public static NativeSize olm_group_decrypt(
+      PointerByReference session,
+      ByteBuffer message,
+      NativeSize message_length,
+      ByteBuffer plaintext,
+      NativeSize max_plaintext_length,
+      Pointer message_index) {
+    return OlmLibraryMegolmInbound.olm_group_decrypt(
+        session, message, message_length, plaintext, max_plaintext_length, message_index);
+  }
 
-  public static native NativeSize olm_inbound_group_session_id(
-      PointerByReference session, ByteBuffer id, NativeSize id_length);
+  public static NativeSize olm_inbound_group_session_id_length(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_id_length(session);
+  }
 
-  public static native NativeSize olm_inbound_group_session_id(
-      PointerByReference session, Pointer id, NativeSize id_length);
+  public static NativeSize olm_inbound_group_session_id(
+      PointerByReference session, ByteBuffer id, NativeSize id_length) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_id(session, id, id_length);
+  }
 
-  public static native int olm_inbound_group_session_first_known_index(PointerByReference session);
+  public static NativeSize olm_inbound_group_session_id(
+      PointerByReference session, Pointer id, NativeSize id_length) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_id(session, id, id_length);
+  }
 
-  public static native int olm_inbound_group_session_is_verified(PointerByReference session);
+  public static int olm_inbound_group_session_first_known_index(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_first_known_index(session);
+  }
 
-  public static native NativeSize olm_export_inbound_group_session_length(
-      PointerByReference session);
+  public static int olm_inbound_group_session_is_verified(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_inbound_group_session_is_verified(session);
+  }
 
-  public static native NativeSize olm_export_inbound_group_session(
-      PointerByReference session, ByteBuffer key, NativeSize key_length, int message_index);
+  public static NativeSize olm_export_inbound_group_session_length(PointerByReference session) {
+    return OlmLibraryMegolmInbound.olm_export_inbound_group_session_length(session);
+  }
 
-  public static native NativeSize olm_export_inbound_group_session(
-      PointerByReference session, Pointer key, NativeSize key_length, int message_index);
+  public static NativeSize olm_export_inbound_group_session(
+      PointerByReference session, ByteBuffer key, NativeSize key_length, int message_index) {
+    return OlmLibraryMegolmInbound.olm_export_inbound_group_session(
+        session, key, key_length, message_index);
+  }
+
+  public static NativeSize olm_export_inbound_group_session(
+      PointerByReference session, Pointer key, NativeSize key_length, int message_index) {
+    return OlmLibraryMegolmInbound.olm_export_inbound_group_session(
+        session, key, key_length, message_index);
+  }
 
   // olm/outbound_group_session.h
-  public static native NativeSize olm_outbound_group_session_size();
+  public static NativeSize olm_outbound_group_session_size() {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_size();
+  }
 
-  public static native OlmOutboundGroupSession olm_outbound_group_session(Pointer memory);
+  public static OlmOutboundGroupSession olm_outbound_group_session(Pointer memory) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session(memory);
+  }
 
-  public static native String olm_outbound_group_session_last_error(PointerByReference session);
+  public static String olm_outbound_group_session_last_error(PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_last_error(session);
+  }
 
-  public static native int olm_outbound_group_session_last_error_code(PointerByReference session);
+  public static int olm_outbound_group_session_last_error_code(PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_last_error_code(session);
+  }
 
-  public static native NativeSize olm_clear_outbound_group_session(PointerByReference session);
+  public static NativeSize olm_clear_outbound_group_session(PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_clear_outbound_group_session(session);
+  }
 
-  public static native NativeSize olm_pickle_outbound_group_session_length(
-      PointerByReference session);
+  public static NativeSize olm_pickle_outbound_group_session_length(PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_pickle_outbound_group_session_length(session);
+  }
 
-  public static native NativeSize olm_pickle_outbound_group_session(
+  public static NativeSize olm_pickle_outbound_group_session(
       PointerByReference session,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryMegolmOutbound.olm_pickle_outbound_group_session(
+        session, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_unpickle_outbound_group_session(
+  public static NativeSize olm_unpickle_outbound_group_session(
       PointerByReference session,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryMegolmOutbound.olm_unpickle_outbound_group_session(
+        session, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_init_outbound_group_session_random_length(
-      PointerByReference session);
+  public static NativeSize olm_init_outbound_group_session_random_length(
+      PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_init_outbound_group_session_random_length(session);
+  }
 
-  public static native NativeSize olm_init_outbound_group_session(
-      PointerByReference session, ByteBuffer random, NativeSize random_length);
+  public static NativeSize olm_init_outbound_group_session(
+      PointerByReference session, ByteBuffer random, NativeSize random_length) {
+    return OlmLibraryMegolmOutbound.olm_init_outbound_group_session(session, random, random_length);
+  }
 
-  public static native NativeSize olm_init_outbound_group_session(
-      PointerByReference session, Pointer random, NativeSize random_length);
+  public static NativeSize olm_init_outbound_group_session(
+      PointerByReference session, Pointer random, NativeSize random_length) {
+    return OlmLibraryMegolmOutbound.olm_init_outbound_group_session(session, random, random_length);
+  }
 
-  public static native NativeSize olm_group_encrypt_message_length(
-      PointerByReference session, NativeSize plaintext_length);
+  public static NativeSize olm_group_encrypt_message_length(
+      PointerByReference session, NativeSize plaintext_length) {
+    return OlmLibraryMegolmOutbound.olm_group_encrypt_message_length(session, plaintext_length);
+  }
 
-  public static native NativeSize olm_group_encrypt(
+  public static NativeSize olm_group_encrypt(
       PointerByReference session,
       byte plaintext[],
       NativeSize plaintext_length,
       ByteBuffer message,
-      NativeSize message_length);
+      NativeSize message_length) {
+    return OlmLibraryMegolmOutbound.olm_group_encrypt(
+        session, plaintext, plaintext_length, message, message_length);
+  }
 
-  public static native NativeSize olm_group_encrypt(
+  public static NativeSize olm_group_encrypt(
       PointerByReference session,
       Pointer plaintext,
       NativeSize plaintext_length,
       Pointer message,
-      NativeSize message_length);
+      NativeSize message_length) {
+    return OlmLibraryMegolmOutbound.olm_group_encrypt(
+        session, plaintext, plaintext_length, message, message_length);
+  }
 
-  public static native NativeSize olm_outbound_group_session_id_length(PointerByReference session);
+  public static NativeSize olm_group_encrypt(
+      PointerByReference session,
+      ByteBuffer plaintext,
+      NativeSize plaintext_length,
+      ByteBuffer message,
+      NativeSize message_length) {
+    return OlmLibraryMegolmOutbound.olm_group_encrypt(
+        session, plaintext, plaintext_length, message, message_length);
+  }
 
-  public static native NativeSize olm_outbound_group_session_id(
-      PointerByReference session, ByteBuffer id, NativeSize id_length);
+  public static NativeSize olm_outbound_group_session_id_length(PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_id_length(session);
+  }
 
-  public static native NativeSize olm_outbound_group_session_id(
-      PointerByReference session, Pointer id, NativeSize id_length);
+  public static NativeSize olm_outbound_group_session_id(
+      PointerByReference session, ByteBuffer id, NativeSize id_length) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_id(session, id, id_length);
+  }
 
-  public static native int olm_outbound_group_session_message_index(PointerByReference session);
+  public static NativeSize olm_outbound_group_session_id(
+      PointerByReference session, Pointer id, NativeSize id_length) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_id(session, id, id_length);
+  }
 
-  public static native NativeSize olm_outbound_group_session_key_length(PointerByReference session);
+  public static int olm_outbound_group_session_message_index(PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_message_index(session);
+  }
 
-  public static native NativeSize olm_outbound_group_session_key(
-      PointerByReference session, ByteBuffer key, NativeSize key_length);
+  public static NativeSize olm_outbound_group_session_key_length(PointerByReference session) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_key_length(session);
+  }
 
-  public static native NativeSize olm_outbound_group_session_key(
-      PointerByReference session, Pointer key, NativeSize key_length);
+  public static NativeSize olm_outbound_group_session_key(
+      PointerByReference session, ByteBuffer key, NativeSize key_length) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_key(session, key, key_length);
+  }
+
+  public static NativeSize olm_outbound_group_session_key(
+      PointerByReference session, Pointer key, NativeSize key_length) {
+    return OlmLibraryMegolmOutbound.olm_outbound_group_session_key(session, key, key_length);
+  }
 
   // olm/olm.h
-  public static native void olm_get_library_version(
-      ByteBuffer major, ByteBuffer minor, ByteBuffer patch);
+  public static void olm_get_library_version(ByteBuffer major, ByteBuffer minor, ByteBuffer patch) {
+    OlmLibraryCore.olm_get_library_version(major, minor, patch);
+  }
 
-  public static native NativeSize olm_account_size();
+  public static NativeSize olm_account_size() {
+    return OlmLibraryOlm.olm_account_size();
+  }
 
-  public static native NativeSize olm_session_size();
+  public static NativeSize olm_session_size() {
+    return OlmLibraryOlm.olm_session_size();
+  }
 
-  public static native NativeSize olm_utility_size();
+  public static NativeSize olm_utility_size() {
+    return OlmLibraryUtility.olm_utility_size();
+  }
 
-  public static native OlmAccount olm_account(Pointer memory);
+  public static OlmAccount olm_account(Pointer memory) {
+    return OlmLibraryOlm.olm_account(memory);
+  }
 
-  public static native OlmSession olm_session(Pointer memory);
+  public static OlmSession olm_session(Pointer memory) {
+    return OlmLibraryOlm.olm_session(memory);
+  }
 
-  public static native OlmUtility olm_utility(Pointer memory);
+  public static OlmUtility olm_utility(Pointer memory) {
+    return OlmLibraryUtility.olm_utility(memory);
+  }
 
-  public static native NativeSize olm_error();
+  public static NativeSize olm_error() {
+    return OlmLibraryCore.olm_error();
+  }
 
-  public static native String olm_account_last_error(PointerByReference account);
+  public static String olm_account_last_error(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_last_error(account);
+  }
 
-  public static native int olm_account_last_error_code(PointerByReference account);
+  public static int olm_account_last_error_code(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_last_error_code(account);
+  }
 
-  public static native String olm_session_last_error(PointerByReference session);
+  public static String olm_session_last_error(PointerByReference session) {
+    return OlmLibraryOlm.olm_session_last_error(session);
+  }
 
-  public static native int olm_session_last_error_code(PointerByReference session);
+  public static int olm_session_last_error_code(PointerByReference session) {
+    return OlmLibraryOlm.olm_session_last_error_code(session);
+  }
 
-  public static native String olm_utility_last_error(PointerByReference utility);
+  public static String olm_utility_last_error(PointerByReference utility) {
+    return OlmLibraryUtility.olm_utility_last_error(utility);
+  }
 
-  public static native int olm_utility_last_error_code(PointerByReference utility);
+  public static int olm_utility_last_error_code(PointerByReference utility) {
+    return OlmLibraryUtility.olm_utility_last_error_code(utility);
+  }
 
-  public static native NativeSize olm_clear_account(PointerByReference account);
+  public static NativeSize olm_clear_account(PointerByReference account) {
+    return OlmLibraryOlm.olm_clear_account(account);
+  }
 
-  public static native NativeSize olm_clear_session(PointerByReference session);
+  public static NativeSize olm_clear_session(PointerByReference session) {
+    return OlmLibraryOlm.olm_clear_session(session);
+  }
 
-  public static native NativeSize olm_clear_utility(PointerByReference utility);
+  public static NativeSize olm_clear_utility(PointerByReference utility) {
+    return OlmLibraryUtility.olm_clear_utility(utility);
+  }
 
-  public static native NativeSize olm_pickle_account_length(PointerByReference account);
+  public static NativeSize olm_pickle_account_length(PointerByReference account) {
+    return OlmLibraryOlm.olm_pickle_account_length(account);
+  }
 
-  public static native NativeSize olm_pickle_session_length(PointerByReference session);
+  public static NativeSize olm_pickle_session_length(PointerByReference session) {
+    return OlmLibraryOlm.olm_pickle_session_length(session);
+  }
 
-  public static native NativeSize olm_pickle_account(
+  public static NativeSize olm_pickle_account(
       PointerByReference account,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryOlm.olm_pickle_account(account, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_pickle_session(
+  public static NativeSize olm_pickle_session(
       PointerByReference session,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryOlm.olm_pickle_session(session, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_unpickle_account(
+  public static NativeSize olm_unpickle_account(
       PointerByReference account,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryOlm.olm_unpickle_account(account, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_unpickle_session(
+  public static NativeSize olm_unpickle_session(
       PointerByReference session,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryOlm.olm_unpickle_session(session, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_create_account_random_length(PointerByReference account);
+  public static NativeSize olm_create_account_random_length(PointerByReference account) {
+    return OlmLibraryOlm.olm_create_account_random_length(account);
+  }
 
-  public static native NativeSize olm_create_account(
-      PointerByReference account, Pointer random, NativeSize random_length);
+  public static NativeSize olm_create_account(
+      PointerByReference account, Pointer random, NativeSize random_length) {
+    return OlmLibraryOlm.olm_create_account(account, random, random_length);
+  }
 
-  public static native NativeSize olm_account_identity_keys_length(PointerByReference account);
+  public static NativeSize olm_account_identity_keys_length(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_identity_keys_length(account);
+  }
 
-  public static native NativeSize olm_account_identity_keys(
-      PointerByReference account, Pointer identity_keys, NativeSize identity_key_length);
+  public static NativeSize olm_account_identity_keys(
+      PointerByReference account, Pointer identity_keys, NativeSize identity_key_length) {
+    return OlmLibraryOlm.olm_account_identity_keys(account, identity_keys, identity_key_length);
+  }
 
-  public static native NativeSize olm_account_signature_length(PointerByReference account);
+  public static NativeSize olm_account_signature_length(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_signature_length(account);
+  }
 
-  public static native NativeSize olm_account_sign(
+  public static NativeSize olm_account_sign(
       PointerByReference account,
       Pointer message,
       NativeSize message_length,
       Pointer signature,
-      NativeSize signature_length);
+      NativeSize signature_length) {
+    return OlmLibraryOlm.olm_account_sign(
+        account, message, message_length, signature, signature_length);
+  }
 
-  public static native NativeSize olm_account_one_time_keys_length(PointerByReference account);
+  public static NativeSize olm_account_one_time_keys_length(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_one_time_keys_length(account);
+  }
 
-  public static native NativeSize olm_account_one_time_keys(
-      PointerByReference account, Pointer one_time_keys, NativeSize one_time_keys_length);
+  public static NativeSize olm_account_one_time_keys(
+      PointerByReference account, Pointer one_time_keys, NativeSize one_time_keys_length) {
+    return OlmLibraryOlm.olm_account_one_time_keys(account, one_time_keys, one_time_keys_length);
+  }
 
-  public static native NativeSize olm_account_mark_keys_as_published(PointerByReference account);
+  public static NativeSize olm_account_mark_keys_as_published(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_mark_keys_as_published(account);
+  }
 
-  public static native NativeSize olm_account_max_number_of_one_time_keys(
-      PointerByReference account);
+  public static NativeSize olm_account_max_number_of_one_time_keys(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_max_number_of_one_time_keys(account);
+  }
 
-  public static native NativeSize olm_account_generate_one_time_keys_random_length(
-      PointerByReference account, NativeSize number_of_keys);
+  public static NativeSize olm_account_generate_one_time_keys_random_length(
+      PointerByReference account, NativeSize number_of_keys) {
+    return OlmLibraryOlm.olm_account_generate_one_time_keys_random_length(account, number_of_keys);
+  }
 
-  public static native NativeSize olm_account_generate_one_time_keys(
+  public static NativeSize olm_account_generate_one_time_keys(
       PointerByReference account,
       NativeSize number_of_keys,
       Pointer random,
-      NativeSize random_length);
+      NativeSize random_length) {
+    return OlmLibraryOlm.olm_account_generate_one_time_keys(
+        account, number_of_keys, random, random_length);
+  }
 
-  public static native NativeSize olm_account_generate_fallback_key_random_length(
-      PointerByReference account);
+  public static NativeSize olm_account_generate_fallback_key_random_length(
+      PointerByReference account) {
+    return OlmLibraryOlm.olm_account_generate_fallback_key_random_length(account);
+  }
 
-  public static native NativeSize olm_account_generate_fallback_key(
-      PointerByReference account, Pointer random, NativeSize random_length);
+  public static NativeSize olm_account_generate_fallback_key(
+      PointerByReference account, Pointer random, NativeSize random_length) {
+    return OlmLibraryOlm.olm_account_generate_fallback_key(account, random, random_length);
+  }
 
-  public static native NativeSize olm_account_unpublished_fallback_key_length(
-      PointerByReference account);
+  public static NativeSize olm_account_unpublished_fallback_key_length(PointerByReference account) {
+    return OlmLibraryOlm.olm_account_unpublished_fallback_key_length(account);
+  }
 
-  public static native NativeSize olm_account_unpublished_fallback_key(
-      PointerByReference account, Pointer fallback_key, NativeSize fallback_key_size);
+  public static NativeSize olm_account_unpublished_fallback_key(
+      PointerByReference account, Pointer fallback_key, NativeSize fallback_key_size) {
+    return OlmLibraryOlm.olm_account_unpublished_fallback_key(
+        account, fallback_key, fallback_key_size);
+  }
 
-  public static native void olm_account_forget_old_fallback_key(PointerByReference account);
+  public static void olm_account_forget_old_fallback_key(PointerByReference account) {
+    OlmLibraryOlm.olm_account_forget_old_fallback_key(account);
+  }
 
-  public static native NativeSize olm_create_outbound_session_random_length(
-      PointerByReference session);
+  public static NativeSize olm_create_outbound_session_random_length(PointerByReference session) {
+    return OlmLibraryOlm.olm_create_outbound_session_random_length(session);
+  }
 
-  public static native NativeSize olm_create_outbound_session(
+  public static NativeSize olm_create_outbound_session(
       PointerByReference session,
       PointerByReference account,
       Pointer their_identity_key,
@@ -350,120 +570,228 @@ public class OlmLibrary implements Library {
       Pointer their_one_time_key,
       NativeSize their_one_time_key_length,
       Pointer random,
-      NativeSize random_length);
+      NativeSize random_length) {
+    return OlmLibraryOlm.olm_create_outbound_session(
+        session,
+        account,
+        their_identity_key,
+        their_identity_key_length,
+        their_one_time_key,
+        their_one_time_key_length,
+        random,
+        random_length);
+  }
 
-  public static native NativeSize olm_create_inbound_session(
+  public static NativeSize olm_create_inbound_session(
       PointerByReference session,
       PointerByReference account,
       Pointer one_time_key_message,
-      NativeSize message_length);
+      NativeSize message_length) {
+    return OlmLibraryOlm.olm_create_inbound_session(
+        session, account, one_time_key_message, message_length);
+  }
 
-  public static native NativeSize olm_create_inbound_session_from(
+  public static NativeSize olm_create_inbound_session_from(
       PointerByReference session,
       PointerByReference account,
       Pointer their_identity_key,
       NativeSize their_identity_key_length,
       Pointer one_time_key_message,
-      NativeSize message_length);
+      NativeSize message_length) {
+    return OlmLibraryOlm.olm_create_inbound_session_from(
+        session,
+        account,
+        their_identity_key,
+        their_identity_key_length,
+        one_time_key_message,
+        message_length);
+  }
 
-  public static native NativeSize olm_session_id_length(PointerByReference session);
+  public static NativeSize olm_session_id_length(PointerByReference session) {
+    return OlmLibraryOlm.olm_session_id_length(session);
+  }
 
-  public static native NativeSize olm_session_id(
-      PointerByReference session, Pointer id, NativeSize id_length);
+  public static NativeSize olm_session_id(
+      PointerByReference session, Pointer id, NativeSize id_length) {
+    return OlmLibraryOlm.olm_session_id(session, id, id_length);
+  }
 
-  public static native int olm_session_has_received_message(PointerByReference session);
+  public static int olm_session_has_received_message(PointerByReference session) {
+    return OlmLibraryOlm.olm_session_has_received_message(session);
+  }
 
-  public static native void olm_session_describe(
-      PointerByReference session, ByteBuffer buf, NativeSize buflen);
+  public static void olm_session_describe(
+      PointerByReference session, ByteBuffer buf, NativeSize buflen) {
+    OlmLibraryOlm.olm_session_describe(session, buf, buflen);
+  }
 
-  public static native void olm_session_describe(
-      PointerByReference session, Pointer buf, NativeSize buflen);
+  public static void olm_session_describe(
+      PointerByReference session, Pointer buf, NativeSize buflen) {
+    OlmLibraryOlm.olm_session_describe(session, buf, buflen);
+  }
 
-  public static native NativeSize olm_matches_inbound_session(
-      PointerByReference session, Pointer one_time_key_message, NativeSize message_length);
+  public static NativeSize olm_matches_inbound_session(
+      PointerByReference session, Pointer one_time_key_message, NativeSize message_length) {
+    return OlmLibraryOlm.olm_matches_inbound_session(session, one_time_key_message, message_length);
+  }
 
-  public static native NativeSize olm_matches_inbound_session_from(
+  public static NativeSize olm_matches_inbound_session_from(
       PointerByReference session,
       Pointer their_identity_key,
       NativeSize their_identity_key_length,
       Pointer one_time_key_message,
-      NativeSize message_length);
+      NativeSize message_length) {
+    return OlmLibraryOlm.olm_matches_inbound_session_from(
+        session,
+        their_identity_key,
+        their_identity_key_length,
+        one_time_key_message,
+        message_length);
+  }
 
-  public static native NativeSize olm_remove_one_time_keys(
-      PointerByReference account, PointerByReference session);
+  public static NativeSize olm_remove_one_time_keys(
+      PointerByReference account, PointerByReference session) {
+    return OlmLibraryOlm.olm_remove_one_time_keys(account, session);
+  }
 
-  public static native NativeSize olm_encrypt_message_type(PointerByReference session);
+  public static NativeSize olm_encrypt_message_type(PointerByReference session) {
+    return OlmLibraryOlm.olm_encrypt_message_type(session);
+  }
 
-  public static native NativeSize olm_encrypt_random_length(PointerByReference session);
+  public static NativeSize olm_encrypt_random_length(PointerByReference session) {
+    return OlmLibraryOlm.olm_encrypt_random_length(session);
+  }
 
-  public static native NativeSize olm_encrypt_message_length(
-      PointerByReference session, NativeSize plaintext_length);
+  public static NativeSize olm_encrypt_message_length(
+      PointerByReference session, NativeSize plaintext_length) {
+    return OlmLibraryOlm.olm_encrypt_message_length(session, plaintext_length);
+  }
 
-  public static native NativeSize olm_encrypt(
+  public static NativeSize olm_encrypt(
       PointerByReference session,
       Pointer plaintext,
       NativeSize plaintext_length,
       Pointer random,
       NativeSize random_length,
       Pointer message,
-      NativeSize message_length);
+      NativeSize message_length) {
+    return OlmLibraryOlm.olm_encrypt(
+        session, plaintext, plaintext_length, random, random_length, message, message_length);
+  }
+
+  public static NativeSize olm_encrypt(
+      PointerByReference session,
+      ByteBuffer plaintext,
+      NativeSize plaintext_length,
+      Pointer random,
+      NativeSize random_length,
+      ByteBuffer message,
+      NativeSize message_length) {
+    return OlmLibraryOlm.olm_encrypt(
+        session, plaintext, plaintext_length, random, random_length, message, message_length);
+  }
 
-  public static native NativeSize olm_decrypt_max_plaintext_length(
+  public static NativeSize olm_decrypt_max_plaintext_length(
       PointerByReference session,
       NativeSize message_type,
       Pointer message,
-      NativeSize message_length);
+      NativeSize message_length) {
+    return OlmLibraryOlm.olm_decrypt_max_plaintext_length(
+        session, message_type, message, message_length);
+  }
 
-  public static native NativeSize olm_decrypt(
+  public static NativeSize olm_decrypt(
       PointerByReference session,
       NativeSize message_type,
       Pointer message,
       NativeSize message_length,
       Pointer plaintext,
-      NativeSize max_plaintext_length);
+      NativeSize max_plaintext_length) {
+    return OlmLibraryOlm.olm_decrypt(
+        session, message_type, message, message_length, plaintext, max_plaintext_length);
+  }
+
+  public static NativeSize olm_decrypt(
+      PointerByReference session,
+      NativeSize message_type,
+      ByteBuffer message,
+      NativeSize message_length,
+      ByteBuffer plaintext,
+      NativeSize max_plaintext_length) {
+    return OlmLibraryOlm.olm_decrypt(
+        session, message_type, message, message_length, plaintext, max_plaintext_length);
+  }
 
-  public static native NativeSize olm_sha256_length(PointerByReference utility);
+  public static NativeSize olm_sha256_length(PointerByReference utility) {
+    return OlmLibraryUtility.olm_sha256_length(utility);
+  }
 
-  public static native NativeSize olm_sha256(
+  public static NativeSize olm_sha256(
       PointerByReference utility,
       Pointer input,
       NativeSize input_length,
       Pointer output,
-      NativeSize output_length);
+      NativeSize output_length) {
+    return OlmLibraryUtility.olm_sha256(utility, input, input_length, output, output_length);
+  }
 
-  public static native NativeSize olm_ed25519_verify(
+  public static NativeSize olm_ed25519_verify(
       PointerByReference utility,
       Pointer key,
       NativeSize key_length,
       Pointer message,
       NativeSize message_length,
       Pointer signature,
-      NativeSize signature_length);
+      NativeSize signature_length) {
+    return OlmLibraryUtility.olm_ed25519_verify(
+        utility, key, key_length, message, message_length, signature, signature_length);
+  }
 
   // olm/pk.h
-  public static native NativeSize olm_pk_encryption_size();
+  public static NativeSize olm_pk_encryption_size() {
+    return OlmLibraryPk.olm_pk_encryption_size();
+  }
 
-  public static native OlmPkEncryption olm_pk_encryption(Pointer memory);
+  public static OlmPkEncryption olm_pk_encryption(Pointer memory) {
+    return OlmLibraryPk.olm_pk_encryption(memory);
+  }
 
-  public static native String olm_pk_encryption_last_error(PointerByReference encryption);
+  public static String olm_pk_encryption_last_error(PointerByReference encryption) {
+    return OlmLibraryPk.olm_pk_encryption_last_error(encryption);
+  }
 
-  public static native int olm_pk_encryption_last_error_code(PointerByReference encryption);
+  public static int olm_pk_encryption_last_error_code(PointerByReference encryption) {
+    return OlmLibraryPk.olm_pk_encryption_last_error_code(encryption);
+  }
 
-  public static native NativeSize olm_clear_pk_encryption(PointerByReference encryption);
+  public static NativeSize olm_clear_pk_encryption(PointerByReference encryption) {
+    return OlmLibraryPk.olm_clear_pk_encryption(encryption);
+  }
 
-  public static native NativeSize olm_pk_encryption_set_recipient_key(
-      PointerByReference encryption, Pointer public_key, NativeSize public_key_length);
+  public static NativeSize olm_pk_encryption_set_recipient_key(
+      PointerByReference encryption, Pointer public_key, NativeSize public_key_length) {
+    return OlmLibraryPk.olm_pk_encryption_set_recipient_key(
+        encryption, public_key, public_key_length);
+  }
 
-  public static native NativeSize olm_pk_ciphertext_length(
-      PointerByReference encryption, NativeSize plaintext_length);
+  public static NativeSize olm_pk_ciphertext_length(
+      PointerByReference encryption, NativeSize plaintext_length) {
+    return OlmLibraryPk.olm_pk_ciphertext_length(encryption, plaintext_length);
+  }
 
-  public static native NativeSize olm_pk_mac_length(PointerByReference encryption);
+  public static NativeSize olm_pk_mac_length(PointerByReference encryption) {
+    return OlmLibraryPk.olm_pk_mac_length(encryption);
+  }
 
-  public static native NativeSize olm_pk_key_length();
+  public static NativeSize olm_pk_key_length() {
+    return OlmLibraryPk.olm_pk_key_length();
+  }
 
-  public static native NativeSize olm_pk_encrypt_random_length(PointerByReference encryption);
+  public static NativeSize olm_pk_encrypt_random_length(PointerByReference encryption) {
+    return OlmLibraryPk.olm_pk_encrypt_random_length(encryption);
+  }
 
-  public static native NativeSize olm_pk_encrypt(
+  public static NativeSize olm_pk_encrypt(
       PointerByReference encryption,
       Pointer plaintext,
       NativeSize plaintext_length,
@@ -474,58 +802,127 @@ public class OlmLibrary implements Library {
       Pointer ephemeral_key,
       NativeSize ephemeral_key_size,
       Pointer random,
-      NativeSize random_length);
+      NativeSize random_length) {
+    return OlmLibraryPk.olm_pk_encrypt(
+        encryption,
+        plaintext,
+        plaintext_length,
+        ciphertext,
+        ciphertext_length,
+        mac,
+        mac_length,
+        ephemeral_key,
+        ephemeral_key_size,
+        random,
+        random_length);
+  }
 
-  public static native NativeSize olm_pk_decryption_size();
+  public static NativeSize olm_pk_encrypt(
+      PointerByReference encryption,
+      ByteBuffer plaintext,
+      NativeSize plaintext_length,
+      ByteBuffer ciphertext,
+      NativeSize ciphertext_length,
+      ByteBuffer mac,
+      NativeSize mac_length,
+      ByteBuffer ephemeral_key,
+      NativeSize ephemeral_key_size,
+      Pointer random,
+      NativeSize random_length) {
+    return OlmLibraryPk.olm_pk_encrypt(
+        encryption,
+        plaintext,
+        plaintext_length,
+        ciphertext,
+        ciphertext_length,
+        mac,
+        mac_length,
+        ephemeral_key,
+        ephemeral_key_size,
+        random,
+        random_length);
+  }
 
-  public static native OlmPkDecryption olm_pk_decryption(Pointer memory);
+  public static NativeSize olm_pk_decryption_size() {
+    return OlmLibraryPk.olm_pk_decryption_size();
+  }
+
+  public static OlmPkDecryption olm_pk_decryption(Pointer memory) {
+    return OlmLibraryPk.olm_pk_decryption(memory);
+  }
 
-  public static native String olm_pk_decryption_last_error(PointerByReference decryption);
+  public static String olm_pk_decryption_last_error(PointerByReference decryption) {
+    return OlmLibraryPk.olm_pk_decryption_last_error(decryption);
+  }
 
-  public static native int olm_pk_decryption_last_error_code(PointerByReference decryption);
+  public static int olm_pk_decryption_last_error_code(PointerByReference decryption) {
+    return OlmLibraryPk.olm_pk_decryption_last_error_code(decryption);
+  }
 
-  public static native NativeSize olm_clear_pk_decryption(PointerByReference decryption);
+  public static NativeSize olm_clear_pk_decryption(PointerByReference decryption) {
+    return OlmLibraryPk.olm_clear_pk_decryption(decryption);
+  }
 
-  public static native NativeSize olm_pk_private_key_length();
+  public static NativeSize olm_pk_private_key_length() {
+    return OlmLibraryPk.olm_pk_private_key_length();
+  }
 
-  public static native NativeSize olm_pk_generate_key_random_length();
+  public static NativeSize olm_pk_generate_key_random_length() {
+    return OlmLibraryPk.olm_pk_generate_key_random_length();
+  }
 
-  public static native NativeSize olm_pk_key_from_private(
+  public static NativeSize olm_pk_key_from_private(
       PointerByReference decryption,
       Pointer pubkey,
       NativeSize pubkey_length,
       Pointer privkey,
-      NativeSize privkey_length);
+      NativeSize privkey_length) {
+    return OlmLibraryPk.olm_pk_key_from_private(
+        decryption, pubkey, pubkey_length, privkey, privkey_length);
+  }
 
-  public static native NativeSize olm_pk_generate_key(
+  public static NativeSize olm_pk_generate_key(
       PointerByReference decryption,
       Pointer pubkey,
       NativeSize pubkey_length,
       Pointer privkey,
-      NativeSize privkey_length);
+      NativeSize privkey_length) {
+    return OlmLibraryPk.olm_pk_generate_key(
+        decryption, pubkey, pubkey_length, privkey, privkey_length);
+  }
 
-  public static native NativeSize olm_pickle_pk_decryption_length(PointerByReference decryption);
+  public static NativeSize olm_pickle_pk_decryption_length(PointerByReference decryption) {
+    return OlmLibraryPk.olm_pickle_pk_decryption_length(decryption);
+  }
 
-  public static native NativeSize olm_pickle_pk_decryption(
+  public static NativeSize olm_pickle_pk_decryption(
       PointerByReference decryption,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
-      NativeSize pickled_length);
+      NativeSize pickled_length) {
+    return OlmLibraryPk.olm_pickle_pk_decryption(
+        decryption, key, key_length, pickled, pickled_length);
+  }
 
-  public static native NativeSize olm_unpickle_pk_decryption(
+  public static NativeSize olm_unpickle_pk_decryption(
       PointerByReference decryption,
       Pointer key,
       NativeSize key_length,
       Pointer pickled,
       NativeSize pickled_length,
       Pointer pubkey,
-      NativeSize pubkey_length);
+      NativeSize pubkey_length) {
+    return OlmLibraryPk.olm_unpickle_pk_decryption(
+        decryption, key, key_length, pickled, pickled_length, pubkey, pubkey_length);
+  }
 
-  public static native NativeSize olm_pk_max_plaintext_length(
-      PointerByReference decryption, NativeSize ciphertext_length);
+  public static NativeSize olm_pk_max_plaintext_length(
+      PointerByReference decryption, NativeSize ciphertext_length) {
+    return OlmLibraryPk.olm_pk_max_plaintext_length(decryption, ciphertext_length);
+  }
 
-  public static native NativeSize olm_pk_decrypt(
+  public static NativeSize olm_pk_decrypt(
       PointerByReference decryption,
       Pointer ephemeral_key,
       NativeSize ephemeral_key_length,
@@ -534,98 +931,188 @@ public class OlmLibrary implements Library {
       Pointer ciphertext,
       NativeSize ciphertext_length,
       Pointer plaintext,
-      NativeSize max_plaintext_length);
+      NativeSize max_plaintext_length) {
+    return OlmLibraryPk.olm_pk_decrypt(
+        decryption,
+        ephemeral_key,
+        ephemeral_key_length,
+        mac,
+        mac_length,
+        ciphertext,
+        ciphertext_length,
+        plaintext,
+        max_plaintext_length);
+  }
 
-  public static native NativeSize olm_pk_get_private_key(
-      PointerByReference decryption, Pointer private_key, NativeSize private_key_length);
+  public static NativeSize olm_pk_decrypt(
+      PointerByReference decryption,
+      ByteBuffer ephemeral_key,
+      NativeSize ephemeral_key_length,
+      ByteBuffer mac,
+      NativeSize mac_length,
+      ByteBuffer ciphertext,
+      NativeSize ciphertext_length,
+      ByteBuffer plaintext,
+      NativeSize max_plaintext_length) {
+    return OlmLibraryPk.olm_pk_decrypt(
+        decryption,
+        ephemeral_key,
+        ephemeral_key_length,
+        mac,
+        mac_length,
+        ciphertext,
+        ciphertext_length,
+        plaintext,
+        max_plaintext_length);
+  }
 
-  public static native NativeSize olm_pk_signing_size();
+  public static NativeSize olm_pk_get_private_key(
+      PointerByReference decryption, Pointer private_key, NativeSize private_key_length) {
+    return OlmLibraryPk.olm_pk_get_private_key(decryption, private_key, private_key_length);
+  }
 
-  public static native OlmPkSigning olm_pk_signing(Pointer memory);
+  public static NativeSize olm_pk_signing_size() {
+    return OlmLibraryPk.olm_pk_signing_size();
+  }
 
-  public static native String olm_pk_signing_last_error(PointerByReference sign);
+  public static OlmPkSigning olm_pk_signing(Pointer memory) {
+    return OlmLibraryPk.olm_pk_signing(memory);
+  }
 
-  public static native int olm_pk_signing_last_error_code(PointerByReference sign);
+  public static String olm_pk_signing_last_error(PointerByReference sign) {
+    return OlmLibraryPk.olm_pk_signing_last_error(sign);
+  }
 
-  public static native NativeSize olm_clear_pk_signing(PointerByReference sign);
+  public static int olm_pk_signing_last_error_code(PointerByReference sign) {
+    return OlmLibraryPk.olm_pk_signing_last_error_code(sign);
+  }
 
-  public static native NativeSize olm_pk_signing_key_from_seed(
+  public static NativeSize olm_clear_pk_signing(PointerByReference sign) {
+    return OlmLibraryPk.olm_clear_pk_signing(sign);
+  }
+
+  public static NativeSize olm_pk_signing_key_from_seed(
       PointerByReference sign,
       Pointer pubkey,
       NativeSize pubkey_length,
       Pointer seed,
-      NativeSize seed_length);
+      NativeSize seed_length) {
+    return OlmLibraryPk.olm_pk_signing_key_from_seed(
+        sign, pubkey, pubkey_length, seed, seed_length);
+  }
 
-  public static native NativeSize olm_pk_signing_seed_length();
+  public static NativeSize olm_pk_signing_seed_length() {
+    return OlmLibraryPk.olm_pk_signing_seed_length();
+  }
 
-  public static native NativeSize olm_pk_signing_public_key_length();
+  public static NativeSize olm_pk_signing_public_key_length() {
+    return OlmLibraryPk.olm_pk_signing_public_key_length();
+  }
 
-  public static native NativeSize olm_pk_signature_length();
+  public static NativeSize olm_pk_signature_length() {
+    return OlmLibraryPk.olm_pk_signature_length();
+  }
 
-  public static native NativeSize olm_pk_sign(
+  public static NativeSize olm_pk_sign(
       PointerByReference sign,
       byte message[],
       NativeSize message_length,
       ByteBuffer signature,
-      NativeSize signature_length);
+      NativeSize signature_length) {
+    return OlmLibraryPk.olm_pk_sign(sign, message, message_length, signature, signature_length);
+  }
 
-  public static native NativeSize olm_pk_sign(
+  public static NativeSize olm_pk_sign(
       PointerByReference sign,
       Pointer message,
       NativeSize message_length,
       Pointer signature,
-      NativeSize signature_length);
+      NativeSize signature_length) {
+    return OlmLibraryPk.olm_pk_sign(sign, message, message_length, signature, signature_length);
+  }
 
   // olm/sas.h
-  public static native String olm_sas_last_error(PointerByReference sas);
+  public static String olm_sas_last_error(PointerByReference sas) {
+    return OlmLibrarySas.olm_sas_last_error(sas);
+  }
 
-  public static native int olm_sas_last_error_code(PointerByReference sas);
+  public static int olm_sas_last_error_code(PointerByReference sas) {
+    return OlmLibrarySas.olm_sas_last_error_code(sas);
+  }
 
-  public static native NativeSize olm_sas_size();
+  public static NativeSize olm_sas_size() {
+    return OlmLibrarySas.olm_sas_size();
+  }
 
-  public static native OlmSas olm_sas(Pointer memory);
+  public static OlmSas olm_sas(Pointer memory) {
+    return OlmLibrarySas.olm_sas(memory);
+  }
 
-  public static native NativeSize olm_clear_sas(PointerByReference sas);
+  public static NativeSize olm_clear_sas(PointerByReference sas) {
+    return OlmLibrarySas.olm_clear_sas(sas);
+  }
 
-  public static native NativeSize olm_create_sas_random_length(PointerByReference sas);
+  public static NativeSize olm_create_sas_random_length(PointerByReference sas) {
+    return OlmLibrarySas.olm_create_sas_random_length(sas);
+  }
 
-  public static native NativeSize olm_create_sas(
-      PointerByReference sas, Pointer random, NativeSize random_length);
+  public static NativeSize olm_create_sas(
+      PointerByReference sas, Pointer random, NativeSize random_length) {
+    return OlmLibrarySas.olm_create_sas(sas, random, random_length);
+  }
 
-  public static native NativeSize olm_sas_pubkey_length(PointerByReference sas);
+  public static NativeSize olm_sas_pubkey_length(PointerByReference sas) {
+    return OlmLibrarySas.olm_sas_pubkey_length(sas);
+  }
 
-  public static native NativeSize olm_sas_get_pubkey(
-      PointerByReference sas, Pointer pubkey, NativeSize pubkey_length);
+  public static NativeSize olm_sas_get_pubkey(
+      PointerByReference sas, Pointer pubkey, NativeSize pubkey_length) {
+    return OlmLibrarySas.olm_sas_get_pubkey(sas, pubkey, pubkey_length);
+  }
 
-  public static native NativeSize olm_sas_set_their_key(
-      PointerByReference sas, Pointer their_key, NativeSize their_key_length);
+  public static NativeSize olm_sas_set_their_key(
+      PointerByReference sas, Pointer their_key, NativeSize their_key_length) {
+    return OlmLibrarySas.olm_sas_set_their_key(sas, their_key, their_key_length);
+  }
 
-  public static native int olm_sas_is_their_key_set(PointerByReference sas);
+  public static int olm_sas_is_their_key_set(PointerByReference sas) {
+    return OlmLibrarySas.olm_sas_is_their_key_set(sas);
+  }
 
-  public static native NativeSize olm_sas_generate_bytes(
+  public static NativeSize olm_sas_generate_bytes(
       PointerByReference sas,
       Pointer info,
       NativeSize info_length,
       Pointer output,
-      NativeSize output_length);
+      NativeSize output_length) {
+    return OlmLibrarySas.olm_sas_generate_bytes(sas, info, info_length, output, output_length);
+  }
 
-  public static native NativeSize olm_sas_mac_length(PointerByReference sas);
+  public static NativeSize olm_sas_mac_length(PointerByReference sas) {
+    return OlmLibrarySas.olm_sas_mac_length(sas);
+  }
 
-  public static native NativeSize olm_sas_calculate_mac(
+  public static NativeSize olm_sas_calculate_mac(
       PointerByReference sas,
       Pointer input,
       NativeSize input_length,
       Pointer info,
       NativeSize info_length,
       Pointer mac,
-      NativeSize mac_length);
+      NativeSize mac_length) {
+    return OlmLibrarySas.olm_sas_calculate_mac(
+        sas, input, input_length, info, info_length, mac, mac_length);
+  }
 
-  public static native NativeSize olm_sas_calculate_mac_fixed_base64(
+  public static NativeSize olm_sas_calculate_mac_fixed_base64(
       PointerByReference sas,
       Pointer input,
       NativeSize input_length,
       Pointer info,
       NativeSize info_length,
       Pointer mac,
-      NativeSize mac_length);
+      NativeSize mac_length) {
+    return OlmLibrarySas.olm_sas_calculate_mac_fixed_base64(
+        sas, input, input_length, info, info_length, mac, mac_length);
+  }
 }
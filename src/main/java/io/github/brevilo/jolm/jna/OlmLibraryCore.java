@@ -0,0 +1,39 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import java.nio.ByteBuffer;
+
+/**
+ * JNA direct mapping of the libolm functions shared by all subsystems (errors, version), registered
+ * on first use. Use {@link OlmLibrary} to call them.
+ */
+final class OlmLibraryCore {
+  static {
+    Native.register(OlmLibraryCore.class, OlmLibrary.JNA_NATIVE_LIB);
+  }
+
+  private OlmLibraryCore() {}
+
+  public static native String _olm_error_to_string(int error);
+
+  public static native void olm_get_library_version(
+      ByteBuffer major, ByteBuffer minor, ByteBuffer patch);
+
+  public static native NativeSize olm_error();
+}
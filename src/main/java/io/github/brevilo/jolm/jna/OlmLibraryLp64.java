@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+
+/**
+ * Raw JNA mapping of the libolm functions on the encryption/decryption hot paths for LP64
+ * platforms.
+ *
+ * <p>Both <code>size_t</code> and pointer arguments are mapped to primitive longs (sizes and native
+ * addresses, <code>0</code> being <code>NULL</code>), so calls don't allocate any argument or
+ * result objects. Must only be used if {@link NativeBackend#LP64} is true, see {@link OlmLibrary}
+ * for the complete (portable) mapping.
+ */
+public final class OlmLibraryLp64 {
+  static {
+    if (NativeBackend.LP64) {
+      Native.register(OlmLibraryLp64.class, OlmLibrary.JNA_NATIVE_LIB);
+    }
+  }
+
+  private OlmLibraryLp64() {}
+
+  // olm/olm.h
+  public static native long olm_encrypt_message_type(long session);
+
+  public static native long olm_encrypt_random_length(long session);
+
+  public static native long olm_encrypt_message_length(long session, long plaintext_length);
+
+  public static native long olm_encrypt(
+      long session,
+      long plaintext,
+      long plaintext_length,
+      long random,
+      long random_length,
+      long message,
+      long message_length);
+
+  public static native long olm_decrypt(
+      long session,
+      long message_type,
+      long message,
+      long message_length,
+      long plaintext,
+      long max_plaintext_length);
+
+  // olm/outbound_group_session.h
+  public static native long olm_group_encrypt_message_length(long session, long plaintext_length);
+
+  public static native long olm_group_encrypt(
+      long session, long plaintext, long plaintext_length, long message, long max_message_length);
+
+  // olm/inbound_group_session.h
+  public static native long olm_group_decrypt(
+      long session,
+      long message,
+      long message_length,
+      long plaintext,
+      long max_plaintext_length,
+      long message_index);
+}
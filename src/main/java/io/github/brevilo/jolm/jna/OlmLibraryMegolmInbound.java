@@ -0,0 +1,135 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * JNA direct mapping of the libolm inbound group session functions (<code>
+ * olm/inbound_group_session.h</code>), registered on first use. Use {@link OlmLibrary} to call
+ * them.
+ */
+final class OlmLibraryMegolmInbound {
+  static {
+    Native.register(OlmLibraryMegolmInbound.class, OlmLibrary.JNA_NATIVE_LIB);
+  }
+
+  private OlmLibraryMegolmInbound() {}
+
+  public static native NativeSize olm_inbound_group_session_size();
+
+  public static native OlmInboundGroupSession olm_inbound_group_session(Pointer memory);
+
+  public static native String olm_inbound_group_session_last_error(PointerByReference session);
+
+  public static native int olm_inbound_group_session_last_error_code(PointerByReference session);
+
+  public static native NativeSize olm_clear_inbound_group_session(PointerByReference session);
+
+  public static native NativeSize olm_pickle_inbound_group_session_length(
+      PointerByReference session);
+
+  public static native NativeSize olm_pickle_inbound_group_session(
+      PointerByReference session,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_unpickle_inbound_group_session(
+      PointerByReference session,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_init_inbound_group_session(
+      PointerByReference session, byte session_key[], NativeSize session_key_length);
+
+  public static native NativeSize olm_init_inbound_group_session(
+      PointerByReference session, Pointer session_key, NativeSize session_key_length);
+
+  public static native NativeSize olm_import_inbound_group_session(
+      PointerByReference session, byte session_key[], NativeSize session_key_length);
+
+  public static native NativeSize olm_import_inbound_group_session(
+      PointerByReference session, Pointer session_key, NativeSize session_key_length);
+
+  public static native NativeSize olm_group_decrypt_max_plaintext_length(
+      PointerByReference session, ByteBuffer message, NativeSize message_length);
+
+  public static native NativeSize olm_group_decrypt_max_plaintext_length(
+      PointerByReference session, Pointer message, NativeSize message_length);
+
+  public static native NativeSize olm_group_decrypt(
+      PointerByReference session,
+      ByteBuffer message,
+      NativeSize message_length,
+      ByteBuffer plaintext,
+      NativeSize max_plaintext_length,
+      IntBuffer message_index);
+
+  public static native NativeSize olm_group_decrypt(
+      PointerByReference session,
+      Pointer message,
+      NativeSize message_length,
+      Pointer plaintext,
+      NativeSize max_plaintext_length,
+      IntByReference message_index);
+
+  public static native NativeSize olm_group_decrypt(
+      PointerByReference session,
+      Pointer message,
+      NativeSize message_length,
+      Pointer plaintext,
+      NativeSize max_plaintext_length,
+      Pointer message_index);
+
+  public static native NativeSize olm_group_decrypt(
+      PointerByReference session,
+      ByteBuffer message,
+      NativeSize message_length,
+      ByteBuffer plaintext,
+      NativeSize max_plaintext_length,
+      Pointer message_index);
+
+  public static native NativeSize olm_inbound_group_session_id_length(PointerByReference session);
+
+  public static native NativeSize olm_inbound_group_session_id(
+      PointerByReference session, ByteBuffer id, NativeSize id_length);
+
+  public static native NativeSize olm_inbound_group_session_id(
+      PointerByReference session, Pointer id, NativeSize id_length);
+
+  public static native int olm_inbound_group_session_first_known_index(PointerByReference session);
+
+  public static native int olm_inbound_group_session_is_verified(PointerByReference session);
+
+  public static native NativeSize olm_export_inbound_group_session_length(
+      PointerByReference session);
+
+  public static native NativeSize olm_export_inbound_group_session(
+      PointerByReference session, ByteBuffer key, NativeSize key_length, int message_index);
+
+  public static native NativeSize olm_export_inbound_group_session(
+      PointerByReference session, Pointer key, NativeSize key_length, int message_index);
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+import java.nio.ByteBuffer;
+
+/**
+ * JNA direct mapping of the libolm outbound group session functions (<code>
+ * olm/outbound_group_session.h</code>), registered on first use. Use {@link OlmLibrary} to call
+ * them.
+ */
+final class OlmLibraryMegolmOutbound {
+  static {
+    Native.register(OlmLibraryMegolmOutbound.class, OlmLibrary.JNA_NATIVE_LIB);
+  }
+
+  private OlmLibraryMegolmOutbound() {}
+
+  public static native NativeSize olm_outbound_group_session_size();
+
+  public static native OlmOutboundGroupSession olm_outbound_group_session(Pointer memory);
+
+  public static native String olm_outbound_group_session_last_error(PointerByReference session);
+
+  public static native int olm_outbound_group_session_last_error_code(PointerByReference session);
+
+  public static native NativeSize olm_clear_outbound_group_session(PointerByReference session);
+
+  public static native NativeSize olm_pickle_outbound_group_session_length(
+      PointerByReference session);
+
+  public static native NativeSize olm_pickle_outbound_group_session(
+      PointerByReference session,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_unpickle_outbound_group_session(
+      PointerByReference session,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_init_outbound_group_session_random_length(
+      PointerByReference session);
+
+  public static native NativeSize olm_init_outbound_group_session(
+      PointerByReference session, ByteBuffer random, NativeSize random_length);
+
+  public static native NativeSize olm_init_outbound_group_session(
+      PointerByReference session, Pointer random, NativeSize random_length);
+
+  public static native NativeSize olm_group_encrypt_message_length(
+      PointerByReference session, NativeSize plaintext_length);
+
+  public static native NativeSize olm_group_encrypt(
+      PointerByReference session,
+      byte plaintext[],
+      NativeSize plaintext_length,
+      ByteBuffer message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_group_encrypt(
+      PointerByReference session,
+      Pointer plaintext,
+      NativeSize plaintext_length,
+      Pointer message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_group_encrypt(
+      PointerByReference session,
+      ByteBuffer plaintext,
+      NativeSize plaintext_length,
+      ByteBuffer message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_outbound_group_session_id_length(PointerByReference session);
+
+  public static native NativeSize olm_outbound_group_session_id(
+      PointerByReference session, ByteBuffer id, NativeSize id_length);
+
+  public static native NativeSize olm_outbound_group_session_id(
+      PointerByReference session, Pointer id, NativeSize id_length);
+
+  public static native int olm_outbound_group_session_message_index(PointerByReference session);
+
+  public static native NativeSize olm_outbound_group_session_key_length(PointerByReference session);
+
+  public static native NativeSize olm_outbound_group_session_key(
+      PointerByReference session, ByteBuffer key, NativeSize key_length);
+
+  public static native NativeSize olm_outbound_group_session_key(
+      PointerByReference session, Pointer key, NativeSize key_length);
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+import java.nio.ByteBuffer;
+
+/**
+ * JNA direct mapping of the libolm account and session functions (<code>olm/olm.h</code>),
+ * registered on first use. Use {@link OlmLibrary} to call them.
+ */
+final class OlmLibraryOlm {
+  static {
+    Native.register(OlmLibraryOlm.class, OlmLibrary.JNA_NATIVE_LIB);
+  }
+
+  private OlmLibraryOlm() {}
+
+  public static native NativeSize olm_account_size();
+
+  public static native NativeSize olm_session_size();
+
+  public static native OlmAccount olm_account(Pointer memory);
+
+  public static native OlmSession olm_session(Pointer memory);
+
+  public static native String olm_account_last_error(PointerByReference account);
+
+  public static native int olm_account_last_error_code(PointerByReference account);
+
+  public static native String olm_session_last_error(PointerByReference session);
+
+  public static native int olm_session_last_error_code(PointerByReference session);
+
+  public static native NativeSize olm_clear_account(PointerByReference account);
+
+  public static native NativeSize olm_clear_session(PointerByReference session);
+
+  public static native NativeSize olm_pickle_account_length(PointerByReference account);
+
+  public static native NativeSize olm_pickle_session_length(PointerByReference session);
+
+  public static native NativeSize olm_pickle_account(
+      PointerByReference account,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_pickle_session(
+      PointerByReference session,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_unpickle_account(
+      PointerByReference account,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_unpickle_session(
+      PointerByReference session,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_create_account_random_length(PointerByReference account);
+
+  public static native NativeSize olm_create_account(
+      PointerByReference account, Pointer random, NativeSize random_length);
+
+  public static native NativeSize olm_account_identity_keys_length(PointerByReference account);
+
+  public static native NativeSize olm_account_identity_keys(
+      PointerByReference account, Pointer identity_keys, NativeSize identity_key_length);
+
+  public static native NativeSize olm_account_signature_length(PointerByReference account);
+
+  public static native NativeSize olm_account_sign(
+      PointerByReference account,
+      Pointer message,
+      NativeSize message_length,
+      Pointer signature,
+      NativeSize signature_length);
+
+  public static native NativeSize olm_account_one_time_keys_length(PointerByReference account);
+
+  public static native NativeSize olm_account_one_time_keys(
+      PointerByReference account, Pointer one_time_keys, NativeSize one_time_keys_length);
+
+  public static native NativeSize olm_account_mark_keys_as_published(PointerByReference account);
+
+  public static native NativeSize olm_account_max_number_of_one_time_keys(
+      PointerByReference account);
+
+  public static native NativeSize olm_account_generate_one_time_keys_random_length(
+      PointerByReference account, NativeSize number_of_keys);
+
+  public static native NativeSize olm_account_generate_one_time_keys(
+      PointerByReference account,
+      NativeSize number_of_keys,
+      Pointer random,
+      NativeSize random_length);
+
+  public static native NativeSize olm_account_generate_fallback_key_random_length(
+      PointerByReference account);
+
+  public static native NativeSize olm_account_generate_fallback_key(
+      PointerByReference account, Pointer random, NativeSize random_length);
+
+  public static native NativeSize olm_account_unpublished_fallback_key_length(
+      PointerByReference account);
+
+  public static native NativeSize olm_account_unpublished_fallback_key(
+      PointerByReference account, Pointer fallback_key, NativeSize fallback_key_size);
+
+  public static native void olm_account_forget_old_fallback_key(PointerByReference account);
+
+  public static native NativeSize olm_create_outbound_session_random_length(
+      PointerByReference session);
+
+  public static native NativeSize olm_create_outbound_session(
+      PointerByReference session,
+      PointerByReference account,
+      Pointer their_identity_key,
+      NativeSize their_identity_key_length,
+      Pointer their_one_time_key,
+      NativeSize their_one_time_key_length,
+      Pointer random,
+      NativeSize random_length);
+
+  public static native NativeSize olm_create_inbound_session(
+      PointerByReference session,
+      PointerByReference account,
+      Pointer one_time_key_message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_create_inbound_session_from(
+      PointerByReference session,
+      PointerByReference account,
+      Pointer their_identity_key,
+      NativeSize their_identity_key_length,
+      Pointer one_time_key_message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_session_id_length(PointerByReference session);
+
+  public static native NativeSize olm_session_id(
+      PointerByReference session, Pointer id, NativeSize id_length);
+
+  public static native int olm_session_has_received_message(PointerByReference session);
+
+  public static native void olm_session_describe(
+      PointerByReference session, ByteBuffer buf, NativeSize buflen);
+
+  public static native void olm_session_describe(
+      PointerByReference session, Pointer buf, NativeSize buflen);
+
+  public static native NativeSize olm_matches_inbound_session(
+      PointerByReference session, Pointer one_time_key_message, NativeSize message_length);
+
+  public static native NativeSize olm_matches_inbound_session_from(
+      PointerByReference session,
+      Pointer their_identity_key,
+      NativeSize their_identity_key_length,
+      Pointer one_time_key_message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_remove_one_time_keys(
+      PointerByReference account, PointerByReference session);
+
+  public static native NativeSize olm_encrypt_message_type(PointerByReference session);
+
+  public static native NativeSize olm_encrypt_random_length(PointerByReference session);
+
+  public static native NativeSize olm_encrypt_message_length(
+      PointerByReference session, NativeSize plaintext_length);
+
+  public static native NativeSize olm_encrypt(
+      PointerByReference session,
+      Pointer plaintext,
+      NativeSize plaintext_length,
+      Pointer random,
+      NativeSize random_length,
+      Pointer message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_encrypt(
+      PointerByReference session,
+      ByteBuffer plaintext,
+      NativeSize plaintext_length,
+      Pointer random,
+      NativeSize random_length,
+      ByteBuffer message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_decrypt_max_plaintext_length(
+      PointerByReference session,
+      NativeSize message_type,
+      Pointer message,
+      NativeSize message_length);
+
+  public static native NativeSize olm_decrypt(
+      PointerByReference session,
+      NativeSize message_type,
+      Pointer message,
+      NativeSize message_length,
+      Pointer plaintext,
+      NativeSize max_plaintext_length);
+
+  public static native NativeSize olm_decrypt(
+      PointerByReference session,
+      NativeSize message_type,
+      ByteBuffer message,
+      NativeSize message_length,
+      ByteBuffer plaintext,
+      NativeSize max_plaintext_length);
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+import java.nio.ByteBuffer;
+
+/**
+ * JNA direct mapping of the libolm public key functions (<code>olm/pk.h</code>), registered on
+ * first use. Use {@link OlmLibrary} to call them.
+ */
+final class OlmLibraryPk {
+  static {
+    Native.register(OlmLibraryPk.class, OlmLibrary.JNA_NATIVE_LIB);
+  }
+
+  private OlmLibraryPk() {}
+
+  public static native NativeSize olm_pk_encryption_size();
+
+  public static native OlmPkEncryption olm_pk_encryption(Pointer memory);
+
+  public static native String olm_pk_encryption_last_error(PointerByReference encryption);
+
+  public static native int olm_pk_encryption_last_error_code(PointerByReference encryption);
+
+  public static native NativeSize olm_clear_pk_encryption(PointerByReference encryption);
+
+  public static native NativeSize olm_pk_encryption_set_recipient_key(
+      PointerByReference encryption, Pointer public_key, NativeSize public_key_length);
+
+  public static native NativeSize olm_pk_ciphertext_length(
+      PointerByReference encryption, NativeSize plaintext_length);
+
+  public static native NativeSize olm_pk_mac_length(PointerByReference encryption);
+
+  public static native NativeSize olm_pk_key_length();
+
+  public static native NativeSize olm_pk_encrypt_random_length(PointerByReference encryption);
+
+  public static native NativeSize olm_pk_encrypt(
+      PointerByReference encryption,
+      Pointer plaintext,
+      NativeSize plaintext_length,
+      Pointer ciphertext,
+      NativeSize ciphertext_length,
+      Pointer mac,
+      NativeSize mac_length,
+      Pointer ephemeral_key,
+      NativeSize ephemeral_key_size,
+      Pointer random,
+      NativeSize random_length);
+
+  public static native NativeSize olm_pk_encrypt(
+      PointerByReference encryption,
+      ByteBuffer plaintext,
+      NativeSize plaintext_length,
+      ByteBuffer ciphertext,
+      NativeSize ciphertext_length,
+      ByteBuffer mac,
+      NativeSize mac_length,
+      ByteBuffer ephemeral_key,
+      NativeSize ephemeral_key_size,
+      Pointer random,
+      NativeSize random_length);
+
+  public static native NativeSize olm_pk_decryption_size();
+
+  public static native OlmPkDecryption olm_pk_decryption(Pointer memory);
+
+  public static native String olm_pk_decryption_last_error(PointerByReference decryption);
+
+  public static native int olm_pk_decryption_last_error_code(PointerByReference decryption);
+
+  public static native NativeSize olm_clear_pk_decryption(PointerByReference decryption);
+
+  public static native NativeSize olm_pk_private_key_length();
+
+  public static native NativeSize olm_pk_generate_key_random_length();
+
+  public static native NativeSize olm_pk_key_from_private(
+      PointerByReference decryption,
+      Pointer pubkey,
+      NativeSize pubkey_length,
+      Pointer privkey,
+      NativeSize privkey_length);
+
+  public static native NativeSize olm_pk_generate_key(
+      PointerByReference decryption,
+      Pointer pubkey,
+      NativeSize pubkey_length,
+      Pointer privkey,
+      NativeSize privkey_length);
+
+  public static native NativeSize olm_pickle_pk_decryption_length(PointerByReference decryption);
+
+  public static native NativeSize olm_pickle_pk_decryption(
+      PointerByReference decryption,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length);
+
+  public static native NativeSize olm_unpickle_pk_decryption(
+      PointerByReference decryption,
+      Pointer key,
+      NativeSize key_length,
+      Pointer pickled,
+      NativeSize pickled_length,
+      Pointer pubkey,
+      NativeSize pubkey_length);
+
+  public static native NativeSize olm_pk_max_plaintext_length(
+      PointerByReference decryption, NativeSize ciphertext_length);
+
+  public static native NativeSize olm_pk_decrypt(
+      PointerByReference decryption,
+      Pointer ephemeral_key,
+      NativeSize ephemeral_key_length,
+      Pointer mac,
+      NativeSize mac_length,
+      Pointer ciphertext,
+      NativeSize ciphertext_length,
+      Pointer plaintext,
+      NativeSize max_plaintext_length);
+
+  public static native NativeSize olm_pk_decrypt(
+      PointerByReference decryption,
+      ByteBuffer ephemeral_key,
+      NativeSize ephemeral_key_length,
+      ByteBuffer mac,
+      NativeSize mac_length,
+      ByteBuffer ciphertext,
+      NativeSize ciphertext_length,
+      ByteBuffer plaintext,
+      NativeSize max_plaintext_length);
+
+  public static native NativeSize olm_pk_get_private_key(
+      PointerByReference decryption, Pointer private_key, NativeSize private_key_length);
+
+  public static native NativeSize olm_pk_signing_size();
+
+  public static native OlmPkSigning olm_pk_signing(Pointer memory);
+
+  public static native String olm_pk_signing_last_error(PointerByReference sign);
+
+  public static native int olm_pk_signing_last_error_code(PointerByReference sign);
+
+  public static native NativeSize olm_clear_pk_signing(PointerByReference sign);
+
+  public static native NativeSize olm_pk_signing_key_from_seed(
+      PointerByReference sign,
+      Pointer pubkey,
+      NativeSize pubkey_length,
+      Pointer seed,
+      NativeSize seed_length);
+
+  public static native NativeSize olm_pk_signing_seed_length();
+
+  public static native NativeSize olm_pk_signing_public_key_length();
+
+  public static native NativeSize olm_pk_signature_length();
+
+  public static native NativeSize olm_pk_sign(
+      PointerByReference sign,
+      byte message[],
+      NativeSize message_length,
+      ByteBuffer signature,
+      NativeSize signature_length);
+
+  public static native NativeSize olm_pk_sign(
+      PointerByReference sign,
+      Pointer message,
+      NativeSize message_length,
+      Pointer signature,
+      NativeSize signature_length);
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * JNA direct mapping of the libolm short authentication string functions (<code>olm/sas.h</code>),
+ * registered on first use. Use {@link OlmLibrary} to call them.
+ */
+final class OlmLibrarySas {
+  static {
+    Native.register(OlmLibrarySas.class, OlmLibrary.JNA_NATIVE_LIB);
+  }
+
+  private OlmLibrarySas() {}
+
+  public static native String olm_sas_last_error(PointerByReference sas);
+
+  public static native int olm_sas_last_error_code(PointerByReference sas);
+
+  public static native NativeSize olm_sas_size();
+
+  public static native OlmSas olm_sas(Pointer memory);
+
+  public static native NativeSize olm_clear_sas(PointerByReference sas);
+
+  public static native NativeSize olm_create_sas_random_length(PointerByReference sas);
+
+  public static native NativeSize olm_create_sas(
+      PointerByReference sas, Pointer random, NativeSize random_length);
+
+  public static native NativeSize olm_sas_pubkey_length(PointerByReference sas);
+
+  public static native NativeSize olm_sas_get_pubkey(
+      PointerByReference sas, Pointer pubkey, NativeSize pubkey_length);
+
+  public static native NativeSize olm_sas_set_their_key(
+      PointerByReference sas, Pointer their_key, NativeSize their_key_length);
+
+  public static native int olm_sas_is_their_key_set(PointerByReference sas);
+
+  public static native NativeSize olm_sas_generate_bytes(
+      PointerByReference sas,
+      Pointer info,
+      NativeSize info_length,
+      Pointer output,
+      NativeSize output_length);
+
+  public static native NativeSize olm_sas_mac_length(PointerByReference sas);
+
+  public static native NativeSize olm_sas_calculate_mac(
+      PointerByReference sas,
+      Pointer input,
+      NativeSize input_length,
+      Pointer info,
+      NativeSize info_length,
+      Pointer mac,
+      NativeSize mac_length);
+
+  public static native NativeSize olm_sas_calculate_mac_fixed_base64(
+      PointerByReference sas,
+      Pointer input,
+      NativeSize input_length,
+      Pointer info,
+      NativeSize info_length,
+      Pointer mac,
+      NativeSize mac_length);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * JNA direct mapping of the libolm utility functions (<code>olm/olm.h</code>), registered on first
+ * use. Use {@link OlmLibrary} to call them.
+ */
+final class OlmLibraryUtility {
+  static {
+    Native.register(OlmLibraryUtility.class, OlmLibrary.JNA_NATIVE_LIB);
+  }
+
+  private OlmLibraryUtility() {}
+
+  public static native NativeSize olm_utility_size();
+
+  public static native OlmUtility olm_utility(Pointer memory);
+
+  public static native String olm_utility_last_error(PointerByReference utility);
+
+  public static native int olm_utility_last_error_code(PointerByReference utility);
+
+  public static native NativeSize olm_clear_utility(PointerByReference utility);
+
+  public static native NativeSize olm_sha256_length(PointerByReference utility);
+
+  public static native NativeSize olm_sha256(
+      PointerByReference utility,
+      Pointer input,
+      NativeSize input_length,
+      Pointer output,
+      NativeSize output_length);
+
+  public static native NativeSize olm_ed25519_verify(
+      PointerByReference utility,
+      Pointer key,
+      NativeSize key_length,
+      Pointer message,
+      NativeSize message_length,
+      Pointer signature,
+      NativeSize signature_length);
+}
@@ -23,6 +23,8 @@ import com.sun.jna.ptr.PointerByReference;
 /** Internal backing store for all libolm objects. */
 public abstract class OlmObject extends PointerByReference {
   private Memory backingStore;
+  private NativeCleaner.Cleanable cleanable;
+  private boolean released;
 
   public OlmObject() {
     super();
@@ -39,4 +41,43 @@ public abstract class OlmObject extends PointerByReference {
   public void setBackingStore(Memory backingStore) {
     this.backingStore = backingStore;
   }
+
+  /**
+   * Sets a slab-allocated backing store. The slot is zeroed and returned to its slab once this
+   * object became unreachable.
+   *
+   * @param slot slab slot backing this object
+   */
+  public void setBackingStore(SlabAllocator.Slot slot) {
+    this.backingStore = slot.getMemory();
+    this.cleanable = NativeCleaner.register(this, slot::free);
+  }
+
+  /**
+   * Releases the backing store right away (instead of waiting for this object to become
+   * unreachable). The native object pointer is reset, so this object must not be used afterwards.
+   * Subsequent calls are no-ops.
+   */
+  public void release() {
+    if (released) {
+      return;
+    }
+    released = true;
+
+    setPointer(Pointer.NULL);
+    backingStore = null;
+    if (cleanable != null) {
+      cleanable.clean();
+      cleanable = null;
+    }
+  }
+
+  /**
+   * Checks if the backing store has been released via {@link #release()}.
+   *
+   * @return true if released
+   */
+  public boolean isReleased() {
+    return released;
+  }
 }
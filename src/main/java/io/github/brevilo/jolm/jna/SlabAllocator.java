@@ -0,0 +1,263 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import com.sun.jna.Memory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Internal size-classed slab allocator providing backing stores for libolm objects.
+ *
+ * <p>Every distinct (aligned) object size forms its own size class. A size class allocates native
+ * memory in slabs holding several slots at once and hands out individual slots. Freed slots are
+ * zeroed and reused by later allocations of the same size class. Slabs that became completely empty
+ * are retired as long as their size class has other slabs left.
+ */
+public class SlabAllocator {
+  /** Alignment (in bytes) of every slot. */
+  public static final int ALIGNMENT = 16;
+
+  /** Target size (in bytes) of a single slab. */
+  public static final long SLAB_SIZE = 256 * 1024;
+
+  /** Minimum number of slots per slab (for very large olm objects). */
+  public static final int MIN_SLOTS_PER_SLAB = 4;
+
+  /** Maximum number of slots per slab (for small olm objects). */
+  public static final int MAX_SLOTS_PER_SLAB = 64;
+
+  private static final SlabAllocator INSTANCE = new SlabAllocator();
+
+  private final ConcurrentMap<Long, SizeClass> sizeClasses = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the allocator shared by all olm objects.
+   *
+   * @return shared allocator instance
+   */
+  public static SlabAllocator getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Allocates a zeroed slot of (at least) the given size.
+   *
+   * @param size required size in bytes
+   * @return allocated slot
+   */
+  public Slot allocate(long size) {
+    long slotSize = (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+
+    return sizeClasses.computeIfAbsent(slotSize, SizeClass::new).allocate();
+  }
+
+  /**
+   * Gets the occupancy statistics of all size classes.
+   *
+   * @return statistics, one entry per size class
+   */
+  public List<Stats> stats() {
+    List<Stats> stats = new ArrayList<>();
+    for (SizeClass sizeClass : sizeClasses.values()) {
+      stats.add(sizeClass.stats());
+    }
+    stats.sort((a, b) -> Long.compare(a.getSlotSize(), b.getSlotSize()));
+
+    return Collections.unmodifiableList(stats);
+  }
+
+  /** Slot (backing store) within a slab, valid for a single allocation. */
+  public static final class Slot {
+    private final Slab slab;
+    private final int index;
+    private final Memory memory;
+    private boolean free;
+
+    private Slot(Slab slab, int index) {
+      this.slab = slab;
+      this.index = index;
+      this.memory =
+          (Memory) slab.memory.share(index * slab.sizeClass.slotSize, slab.sizeClass.slotSize);
+    }
+
+    /**
+     * Gets the slot's native memory.
+     *
+     * @return native memory of this slot
+     */
+    public Memory getMemory() {
+      return memory;
+    }
+
+    /** Zeroes the slot and returns it to its size class for reuse. Subsequent calls are no-ops. */
+    public void free() {
+      slab.sizeClass.free(this);
+    }
+  }
+
+  /** Occupancy statistics of a single size class. */
+  public static final class Stats {
+    private final long slotSize;
+    private final int slabs;
+    private final long capacity;
+    private final long used;
+
+    private Stats(long slotSize, int slabs, long capacity, long used) {
+      this.slotSize = slotSize;
+      this.slabs = slabs;
+      this.capacity = capacity;
+      this.used = used;
+    }
+
+    /**
+     * Gets the size (in bytes) of the slots in this size class.
+     *
+     * @return slot size
+     */
+    public long getSlotSize() {
+      return slotSize;
+    }
+
+    /**
+     * Gets the number of slabs currently allocated.
+     *
+     * @return number of slabs
+     */
+    public int getSlabs() {
+      return slabs;
+    }
+
+    /**
+     * Gets the total number of slots (used or free) in all slabs.
+     *
+     * @return number of slots
+     */
+    public long getCapacity() {
+      return capacity;
+    }
+
+    /**
+     * Gets the number of slots in use.
+     *
+     * @return number of used slots
+     */
+    public long getUsed() {
+      return used;
+    }
+
+    /**
+     * Gets the ratio of used slots to available slots.
+     *
+     * @return occupancy between 0 and 1
+     */
+    public double getOccupancy() {
+      return capacity == 0 ? 0 : (double) used / capacity;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "slot size: %d, slabs: %d, slots: %d/%d (%.1f%%)",
+          slotSize, slabs, used, capacity, getOccupancy() * 100);
+    }
+  }
+
+  /** Slabs and free slots of a single slot size. */
+  private static final class SizeClass {
+    private final long slotSize;
+    private final int slotsPerSlab;
+    private final Deque<Slab> available = new ArrayDeque<>();
+    private int slabs;
+    private long used;
+
+    private SizeClass(long slotSize) {
+      this.slotSize = slotSize;
+      this.slotsPerSlab =
+          (int) Math.max(MIN_SLOTS_PER_SLAB, Math.min(MAX_SLOTS_PER_SLAB, SLAB_SIZE / slotSize));
+    }
+
+    private synchronized Slot allocate() {
+      Slab slab = available.peekFirst();
+      if (slab == null) {
+        slab = new Slab(this);
+        available.addFirst(slab);
+        slabs++;
+      }
+
+      // a fresh handle per allocation keeps stale handles from freeing a reused slot
+      Slot slot = new Slot(slab, slab.freeSlots[--slab.freeCount]);
+      if (slab.freeCount == 0) {
+        available.removeFirst();
+      }
+      used++;
+
+      return slot;
+    }
+
+    private synchronized void free(Slot slot) {
+      if (slot.free) {
+        return;
+      }
+
+      // zero and return slot
+      Slab slab = slot.slab;
+      slab.memory.setMemory(slot.index * slotSize, slotSize, (byte) 0);
+      slot.free = true;
+      slab.freeSlots[slab.freeCount++] = slot.index;
+      used--;
+
+      if (slab.freeCount == 1) {
+        available.addLast(slab);
+      } else if (slab.freeCount == slotsPerSlab && available.size() > 1) {
+        // retire empty slab (native memory is released once the slab is unreachable)
+        available.remove(slab);
+        slabs--;
+      }
+    }
+
+    private synchronized Stats stats() {
+      return new Stats(slotSize, slabs, (long) slabs * slotsPerSlab, used);
+    }
+  }
+
+  /** Contiguous native memory holding the slots of a size class. */
+  private static final class Slab {
+    private final SizeClass sizeClass;
+    private final Memory memory;
+    private final int[] freeSlots;
+    private int freeCount;
+
+    private Slab(SizeClass sizeClass) {
+      this.sizeClass = sizeClass;
+      this.memory = new Memory(sizeClass.slotSize * sizeClass.slotsPerSlab);
+      this.memory.clear();
+      this.freeSlots = new int[sizeClass.slotsPerSlab];
+
+      // hand out low slots first
+      for (int i = 0; i < freeSlots.length; i++) {
+        freeSlots[i] = freeSlots.length - 1 - i;
+      }
+      freeCount = freeSlots.length;
+    }
+  }
+}
@@ -16,18 +16,55 @@
 
 package io.github.brevilo.jolm.model;
 
+import java.nio.charset.StandardCharsets;
+
 /** Model class representing a Megolm message. */
 public class GroupMessage {
-  private String message;
-  private long index;
+  private final String message;
+  private final byte[] messageBytes;
+  private final long index;
 
+  /**
+   * Creates a new group message.
+   *
+   * @param message message to set
+   * @param index message index to set
+   */
   public GroupMessage(String message, long index) {
     this.message = message;
+    this.messageBytes = null;
+    this.index = index;
+  }
+
+  /**
+   * Creates a new group message from raw (UTF-8) message bytes.
+   *
+   * @param message message bytes to set
+   * @param index message index to set
+   */
+  public GroupMessage(byte[] message, long index) {
+    this.message = null;
+    this.messageBytes = message;
     this.index = index;
   }
 
+  /**
+   * Gets the message. Converted on every call if the message was created from bytes.
+   *
+   * @return message
+   */
   public String getMessage() {
-    return message;
+    return message != null ? message : new String(messageBytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Gets the raw (UTF-8) message bytes. Converted on every call if the message was created from a
+   * string.
+   *
+   * @return message bytes
+   */
+  public byte[] getMessageBytes() {
+    return messageBytes != null ? messageBytes : message.getBytes(StandardCharsets.UTF_8);
   }
 
   public long getIndex() {
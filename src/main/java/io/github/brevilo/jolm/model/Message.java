@@ -17,13 +17,21 @@
 package io.github.brevilo.jolm.model;
 
 import io.github.brevilo.jolm.jna.OlmLibrary;
+import java.nio.charset.StandardCharsets;
 
 /** Model class representing an Olm message. */
 public abstract class Message {
-  private String cipherText;
+  private final String cipherText;
+  private final byte[] cipherTextBytes;
 
   private Message(String cipherText) {
     this.cipherText = cipherText;
+    this.cipherTextBytes = null;
+  }
+
+  private Message(byte[] cipherText) {
+    this.cipherText = null;
+    this.cipherTextBytes = cipherText;
   }
 
   /**
@@ -43,6 +51,23 @@ public abstract class Message {
     }
   }
 
+  /**
+   * Creates a new message from raw (base64) cipher text bytes.
+   *
+   * @param cipherText cipher text bytes to set
+   * @param type message type to set
+   * @return new Message instance
+   */
+  public static Message get(byte[] cipherText, long type) {
+    if (type == OlmLibrary.OLM_MESSAGE_TYPE_PRE_KEY) {
+      return new Message.PreKey(cipherText);
+    } else if (type == OlmLibrary.OLM_MESSAGE_TYPE_MESSAGE) {
+      return new Message.Normal(cipherText);
+    } else {
+      return null;
+    }
+  }
+
   /**
    * Gets the message type.
    *
@@ -59,12 +84,32 @@ public abstract class Message {
   }
 
   /**
-   * Gets the cipher text.
+   * Gets the cipher text. Converted on every call if the message was created from cipher text
+   * bytes.
    *
    * @return cipher text
    */
   public String getCipherText() {
-    return cipherText;
+    return cipherText != null ? cipherText : new String(cipherTextBytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Gets the raw (base64) cipher text bytes. Converted on every call if the message was created
+   * from a cipher text string.
+   *
+   * @return cipher text bytes
+   */
+  public byte[] getCipherTextBytes() {
+    return cipherTextBytes != null ? cipherTextBytes : cipherText.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Checks whether the message was created from raw cipher text bytes (rather than a string).
+   *
+   * @return true if the message is backed by cipher text bytes
+   */
+  public boolean hasCipherTextBytes() {
+    return cipherTextBytes != null;
   }
 
   /** Model class representing an Olm <code>PRE_KEY</code> message. */
@@ -72,6 +117,10 @@ public abstract class Message {
     public PreKey(String cipherText) {
       super(cipherText);
     }
+
+    public PreKey(byte[] cipherText) {
+      super(cipherText);
+    }
   }
 
   /** Model class representing a normal Olm message. */
@@ -79,5 +128,9 @@ public abstract class Message {
     public Normal(String cipherText) {
       super(cipherText);
     }
+
+    public Normal(byte[] cipherText) {
+      super(cipherText);
+    }
   }
 }
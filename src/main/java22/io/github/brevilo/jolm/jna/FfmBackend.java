@@ -0,0 +1,203 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.jna;
+
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import com.sun.jna.Pointer;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+
+/**
+ * Backend calling libolm through the Foreign Function &amp; Memory API (Java 22+).
+ *
+ * <p>Downcall handles are bound to the symbols of the native library instance already loaded by
+ * {@link OlmLibrary}, so both backends always talk to the same libolm. The calls are marked as
+ * critical (no thread state transition) since the bound functions neither block nor call back into
+ * Java. Only LP64 platforms are supported: <code>size_t</code> and pointer arguments are both
+ * passed as Java longs.
+ */
+final class FfmBackend extends NativeBackend {
+  private static final Linker LINKER = Linker.nativeLinker();
+
+  private final MethodHandle encryptMessageType;
+  private final MethodHandle encryptRandomLength;
+  private final MethodHandle encryptMessageLength;
+  private final MethodHandle encrypt;
+  private final MethodHandle decrypt;
+  private final MethodHandle groupEncryptMessageLength;
+  private final MethodHandle groupEncrypt;
+  private final MethodHandle groupDecrypt;
+
+  FfmBackend() {
+    if (!LP64) {
+      throw new UnsupportedOperationException("FFM backend requires an LP64 platform");
+    }
+
+    encryptMessageType = downcall("olm_encrypt_message_type", 1);
+    encryptRandomLength = downcall("olm_encrypt_random_length", 1);
+    encryptMessageLength = downcall("olm_encrypt_message_length", 2);
+    encrypt = downcall("olm_encrypt", 7);
+    decrypt = downcall("olm_decrypt", 6);
+    groupEncryptMessageLength = downcall("olm_group_encrypt_message_length", 2);
+    groupEncrypt = downcall("olm_group_encrypt", 5);
+    groupDecrypt = downcall("olm_group_decrypt", 6);
+  }
+
+  @Override
+  public String getName() {
+    return "ffm";
+  }
+
+  @Override
+  public long olm_encrypt_message_type(long session) {
+    try {
+      return (long) encryptMessageType.invokeExact(session);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public long olm_encrypt_random_length(long session) {
+    try {
+      return (long) encryptRandomLength.invokeExact(session);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public long olm_encrypt_message_length(long session, long plainTextLength) {
+    try {
+      return (long) encryptMessageLength.invokeExact(session, plainTextLength);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public long olm_encrypt(
+      long session,
+      long plainText,
+      long plainTextLength,
+      long random,
+      long randomLength,
+      long message,
+      long messageLength) {
+    try {
+      return (long)
+          encrypt.invokeExact(
+              session, plainText, plainTextLength, random, randomLength, message, messageLength);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public long olm_decrypt(
+      long session,
+      long messageType,
+      long message,
+      long messageLength,
+      long plainText,
+      long maxPlainTextLength) {
+    try {
+      return (long)
+          decrypt.invokeExact(
+              session, messageType, message, messageLength, plainText, maxPlainTextLength);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public long olm_group_encrypt_message_length(long session, long plainTextLength) {
+    try {
+      return (long) groupEncryptMessageLength.invokeExact(session, plainTextLength);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public long olm_group_encrypt(
+      long session, long plainText, long plainTextLength, long message, long messageLength) {
+    try {
+      return (long)
+          groupEncrypt.invokeExact(session, plainText, plainTextLength, message, messageLength);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  @Override
+  public long olm_group_decrypt(
+      long session,
+      long message,
+      long messageLength,
+      long plainText,
+      long maxPlainTextLength,
+      long messageIndex) {
+    try {
+      return (long)
+          groupDecrypt.invokeExact(
+              session, message, messageLength, plainText, maxPlainTextLength, messageIndex);
+    } catch (Throwable e) {
+      throw rethrow(e);
+    }
+  }
+
+  /**
+   * Creates a downcall handle for a libolm function taking only <code>size_t</code> and pointer
+   * arguments and returning <code>size_t</code> (all mapped to Java longs).
+   *
+   * @param name function name
+   * @param arity number of arguments
+   * @return downcall handle
+   */
+  private static MethodHandle downcall(String name, int arity) {
+    long address = Pointer.nativeValue(OlmLibrary.JNA_NATIVE_LIB.getFunction(name));
+    MemoryLayout[] arguments = new MemoryLayout[arity];
+    Arrays.fill(arguments, JAVA_LONG);
+
+    return LINKER.downcallHandle(
+        MemorySegment.ofAddress(address),
+        FunctionDescriptor.of(JAVA_LONG, arguments),
+        Linker.Option.critical(false));
+  }
+
+  /**
+   * Rethrows a downcall failure (downcalls don't throw checked exceptions).
+   *
+   * @param e failure
+   * @return never returns normally
+   */
+  private static RuntimeException rethrow(Throwable e) {
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+    throw new IllegalStateException(e);
+  }
+}
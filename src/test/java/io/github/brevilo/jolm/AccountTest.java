@@ -19,10 +19,13 @@ package io.github.brevilo.jolm;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.brevilo.jolm.model.IdentityKeys;
 import io.github.brevilo.jolm.model.OneTimeKeys;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -181,4 +184,60 @@ class AccountTest {
     deserialized.clear();
     baseline.clear();
   }
+
+  @Test
+  void testPickleKeySerialization() throws Exception {
+    final String key = "SECRET";
+
+    try (Account baseline = new Account();
+        PickleKey pickleKey = new PickleKey(key)) {
+      // same result as the plain key variant (pickles are deterministic)
+      String serialized = baseline.pickle(pickleKey);
+      assertEquals(baseline.pickle(key), serialized);
+
+      try (Account deserialized = Account.unpickle(pickleKey, serialized)) {
+        assertEquals(
+            baseline.identityKeys().getCurve25519(), deserialized.identityKeys().getCurve25519());
+      }
+    }
+  }
+
+  @Test
+  void testBinarySerialization() throws Exception {
+    try (Account baseline = new Account();
+        PickleKey key = new PickleKey("SECRET")) {
+      final String expected = baseline.pickle(key);
+
+      // byte array
+      byte[] bytes = baseline.pickleBytes(key);
+      assertEquals(expected, new String(bytes, StandardCharsets.US_ASCII));
+      assertEquals(bytes.length, baseline.pickledLength());
+      try (Account deserialized = Account.unpickle(key, bytes)) {
+        assertEquals(expected, deserialized.pickle(key));
+      }
+
+      // direct buffer with some room to spare
+      ByteBuffer buffer = ByteBuffer.allocateDirect((int) baseline.pickledLength() + 8);
+      buffer.position(4);
+      assertEquals(bytes.length, baseline.pickle(key, buffer));
+      assertEquals(4 + bytes.length, buffer.position());
+
+      buffer.flip().position(4);
+      try (Account deserialized = Account.unpickle(key, buffer)) {
+        assertEquals(expected, deserialized.pickle(key));
+      }
+      assertEquals(buffer.limit(), buffer.position());
+    }
+  }
+
+  @Test
+  void testClose() throws Exception {
+    Account closed = new Account();
+    closed.close();
+
+    // closing is idempotent, using a closed account fails cleanly
+    closed.close();
+    assertThrows(IllegalStateException.class, closed::identityKeys);
+    assertThrows(IllegalStateException.class, () -> closed.sign("HELLO!"));
+  }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.jna.Memory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class EntropyReservoirTest {
+  private static final long CAPACITY = 256;
+  private static final byte PATTERN = 0x5a;
+
+  @Test
+  void testServeFromReservoir() throws Exception {
+    final int length = 100;
+
+    AtomicLong generated = new AtomicLong();
+    RandomSource source = countingSource(generated);
+
+    try (EntropyReservoir reservoir = new EntropyReservoir(CAPACITY, source)) {
+      awaitFull(reservoir);
+      assertEquals(CAPACITY, generated.get());
+
+      Memory buffer = new Memory(length);
+      buffer.clear();
+      reservoir.fill(buffer, length);
+
+      byte[] expected = new byte[length];
+      Arrays.fill(expected, PATTERN);
+      assertArrayEquals(expected, buffer.getByteArray(0, length));
+      assertEquals(1, reservoir.getServed());
+      assertEquals(0, reservoir.getStarvations());
+
+      // served bytes don't come from the underlying source
+      assertEquals(reservoir.getRefilledBytes(), generated.get());
+    }
+  }
+
+  @Test
+  void testStarvation() throws Exception {
+    final int length = (int) CAPACITY + 1;
+
+    AtomicLong generated = new AtomicLong();
+    try (EntropyReservoir reservoir = new EntropyReservoir(CAPACITY, countingSource(generated))) {
+      awaitFull(reservoir);
+
+      // too large for the reservoir: generated synchronously
+      Memory buffer = new Memory(length);
+      reservoir.fill(buffer, length);
+      assertEquals(0, reservoir.getServed());
+      assertEquals(1, reservoir.getStarvations());
+      assertEquals(CAPACITY + length, generated.get());
+    }
+  }
+
+  @Test
+  void testRefill() throws Exception {
+    final int length = (int) CAPACITY / 2 + 1;
+
+    try (EntropyReservoir reservoir =
+        new EntropyReservoir(CAPACITY, countingSource(new AtomicLong()))) {
+      awaitFull(reservoir);
+      long refills = reservoir.getRefills();
+
+      // dropping below the low watermark triggers a refill
+      reservoir.fill(new Memory(length), length);
+      awaitFull(reservoir);
+      assertTrue(reservoir.getRefills() > refills);
+      assertEquals(CAPACITY + length, reservoir.getRefilledBytes());
+    }
+  }
+
+  @Test
+  void testClose() throws Exception {
+    final int length = 16;
+
+    AtomicLong generated = new AtomicLong();
+    EntropyReservoir reservoir = new EntropyReservoir(CAPACITY, countingSource(generated));
+    awaitFull(reservoir);
+    reservoir.close();
+    reservoir.close();
+    assertEquals(0, reservoir.getAvailable());
+
+    // closed reservoir falls back to the underlying source
+    reservoir.fill(new Memory(length), length);
+    assertEquals(1, reservoir.getStarvations());
+    assertEquals(CAPACITY + length, generated.get());
+  }
+
+  @Test
+  void testInvalidCapacity() throws Exception {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new EntropyReservoir(0, countingSource(new AtomicLong())));
+  }
+
+  private static RandomSource countingSource(AtomicLong generated) {
+    return (buffer, length) -> {
+      buffer.setMemory(0, length, PATTERN);
+      generated.addAndGet(length);
+    };
+  }
+
+  private static void awaitFull(EntropyReservoir reservoir) throws InterruptedException {
+    for (int i = 0; i < 500 && reservoir.getAvailable() < reservoir.getCapacity(); i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(reservoir.getCapacity(), reservoir.getAvailable());
+  }
+}
@@ -16,12 +16,22 @@
 
 package io.github.brevilo.jolm;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.github.brevilo.jolm.jna.SlabAllocator;
 import io.github.brevilo.jolm.model.GroupMessage;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -190,4 +200,153 @@ class GroupSessionTest {
 
     assertTrue(bobInboundSession.isVerified());
   }
+
+  @Test
+  void testClose() throws Exception {
+    final SlabAllocator allocator = SlabAllocator.getInstance();
+    final long used = usedSlots(allocator);
+
+    try (OutboundGroupSession outbound = new OutboundGroupSession();
+        InboundGroupSession inbound = new InboundGroupSession(outbound.sessionKey())) {
+      assertEquals(outbound.sessionId(), inbound.sessionId());
+      assertEquals(used + 2, usedSlots(allocator));
+
+      // closing is idempotent
+      inbound.close();
+      assertEquals(used + 1, usedSlots(allocator));
+
+      // using a closed session fails cleanly
+      assertThrows(IllegalStateException.class, inbound::sessionId);
+      assertThrows(IllegalStateException.class, () -> inbound.decrypt(outbound.encrypt(PLAINTEXT)));
+      outbound.close();
+      assertThrows(IllegalStateException.class, outbound::sessionId);
+      assertThrows(IllegalStateException.class, () -> outbound.encrypt(PLAINTEXT));
+    }
+
+    assertEquals(used, usedSlots(allocator));
+  }
+
+  private static long usedSlots(SlabAllocator allocator) {
+    return allocator.stats().stream().mapToLong(SlabAllocator.Stats::getUsed).sum();
+  }
+
+  @Test
+  void testBufferEncryptDecrypt() throws Exception {
+    final byte[] message = PLAINTEXT.getBytes(StandardCharsets.UTF_8);
+
+    try (OutboundGroupSession outbound = new OutboundGroupSession();
+        InboundGroupSession inbound = new InboundGroupSession(outbound.sessionKey())) {
+      ByteBuffer plainText = ByteBuffer.allocateDirect(message.length);
+      plainText.put(message).flip();
+
+      // encrypt into a direct buffer
+      ByteBuffer encrypted =
+          ByteBuffer.allocateDirect((int) outbound.encryptMessageLength(message.length));
+      int length = outbound.encrypt(plainText, encrypted);
+      assertEquals(encrypted.capacity(), length);
+      encrypted.flip();
+
+      // decrypt straight out of the direct buffer
+      ByteBuffer decrypted = ByteBuffer.allocateDirect(encrypted.remaining());
+      assertEquals(0, inbound.decrypt(encrypted, decrypted));
+      assertFalse(encrypted.hasRemaining());
+
+      byte[] result = new byte[decrypted.position()];
+      decrypted.flip();
+      decrypted.get(result);
+      assertArrayEquals(message, result);
+    }
+  }
+
+  @Test
+  void testBytesEncryptDecrypt() throws Exception {
+    final byte[] message = PLAINTEXT.getBytes(StandardCharsets.UTF_8);
+
+    try (OutboundGroupSession outbound = new OutboundGroupSession();
+        InboundGroupSession inbound =
+            new InboundGroupSession(outbound.sessionKey().getBytes(StandardCharsets.UTF_8))) {
+      byte[] encrypted = outbound.encrypt(message);
+
+      GroupMessage decrypted = inbound.decrypt(encrypted);
+      assertArrayEquals(message, decrypted.getMessageBytes());
+      assertEquals(PLAINTEXT, decrypted.getMessage());
+      assertEquals(0, decrypted.getIndex());
+    }
+  }
+
+  @Test
+  void testInboundTryDecrypt() throws Exception {
+    try (OutboundGroupSession outbound = new OutboundGroupSession()) {
+      // message sent before the session key was shared
+      String early = outbound.encrypt(PLAINTEXT);
+
+      try (InboundGroupSession inbound = new InboundGroupSession(outbound.sessionKey())) {
+        String encrypted = outbound.encrypt(PLAINTEXT);
+
+        DecryptResult result = inbound.tryDecrypt(encrypted);
+        assertTrue(result.isSuccess());
+        assertEquals(OlmError.SUCCESS, result.getError());
+        assertEquals(PLAINTEXT, result.getPlainText());
+        assertEquals(1, result.getMessageIndex());
+
+        // result object is reused, failures don't throw
+        assertSame(result, inbound.tryDecrypt(early, result));
+        assertFalse(result.isSuccess());
+        assertEquals(OlmError.UNKNOWN_MESSAGE_INDEX, result.getError());
+        assertNull(result.getPlainText());
+        assertEquals(-1, result.getMessageIndex());
+
+        inbound.tryDecrypt("!!!", result);
+        assertEquals(OlmError.INVALID_BASE64, result.getError());
+
+        inbound.tryDecrypt(encrypted.getBytes(StandardCharsets.UTF_8), result);
+        assertTrue(result.isSuccess());
+        assertArrayEquals(PLAINTEXT.getBytes(StandardCharsets.UTF_8), result.getPlainTextBytes());
+
+        DecryptResult bytesResult = inbound.tryDecrypt(early.getBytes(StandardCharsets.UTF_8));
+        assertFalse(bytesResult.isSuccess());
+        assertEquals(OlmError.UNKNOWN_MESSAGE_INDEX, bytesResult.getError());
+      }
+    }
+  }
+
+  @Test
+  void testInboundCopy() throws Exception {
+    final String key = "SECRET";
+
+    try (OutboundGroupSession outbound = new OutboundGroupSession();
+        InboundGroupSession inbound = new InboundGroupSession(outbound.sessionKey());
+        InboundGroupSession copy = inbound.copy()) {
+      // copy is equivalent to a pickle round trip
+      assertEquals(inbound.pickle(key), copy.pickle(key));
+      assertEquals(inbound.sessionId(), copy.sessionId());
+
+      // both decrypt independently
+      String encrypted = outbound.encrypt(PLAINTEXT);
+      assertEquals(PLAINTEXT, copy.decrypt(encrypted).getMessage());
+      assertEquals(PLAINTEXT, inbound.decrypt(encrypted).getMessage());
+    }
+  }
+
+  @Test
+  void testOutboundPickleSnapshot() throws Exception {
+    final String key = "SECRET";
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (OutboundGroupSession outbound = new OutboundGroupSession()) {
+      int index = outbound.messageIndex();
+      CompletableFuture<String> snapshot = outbound.pickleSnapshot(key, executor);
+
+      // session can be used right away, snapshot reflects the state at capture time
+      outbound.encrypt(PLAINTEXT);
+      assertEquals(index + 1, outbound.messageIndex());
+
+      try (OutboundGroupSession deserialized = OutboundGroupSession.unpickle(key, snapshot.get())) {
+        assertEquals(outbound.sessionId(), deserialized.sessionId());
+        assertEquals(index, deserialized.messageIndex());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class InstancePoolTest {
+  private static final int TARGET = 4;
+
+  @Test
+  void testTakeHits() throws Exception {
+    List<Resource> created = Collections.synchronizedList(new ArrayList<>());
+    try (InstancePool<Resource> pool = new InstancePool<>("test", factory(created), TARGET)) {
+      awaitFull(pool);
+      assertEquals(TARGET, pool.getCreated());
+
+      // every instance is handed out exactly once
+      Set<Resource> taken = new HashSet<>();
+      for (int i = 0; i < TARGET; i++) {
+        assertTrue(taken.add(pool.take()));
+      }
+      assertEquals(TARGET, pool.getHits());
+      assertEquals(0, pool.getMisses());
+
+      // pool is topped up again
+      awaitFull(pool);
+      assertEquals(2 * TARGET, pool.getCreated());
+      assertNotSame(taken.iterator().next(), pool.take());
+    }
+  }
+
+  @Test
+  void testTakeMiss() throws Exception {
+    List<Resource> created = Collections.synchronizedList(new ArrayList<>());
+    try (InstancePool<Resource> pool = new InstancePool<>("test", factory(created), 0)) {
+      Resource resource = pool.take();
+      assertFalse(resource.closed);
+      assertEquals(0, pool.getHits());
+      assertEquals(1, pool.getMisses());
+      assertEquals(0, pool.getCreated());
+    }
+  }
+
+  @Test
+  void testCloseDiscards() throws Exception {
+    List<Resource> created = Collections.synchronizedList(new ArrayList<>());
+    InstancePool<Resource> pool = new InstancePool<>("test", factory(created), TARGET);
+    awaitFull(pool);
+    Resource taken = pool.take();
+
+    pool.close();
+    pool.close();
+    assertEquals(0, pool.getSize());
+
+    // unused instances are discarded, the taken one is left alone
+    for (Resource resource : created) {
+      assertEquals(resource != taken, resource.closed);
+    }
+
+    // closed pool creates synchronously
+    pool.take();
+    assertEquals(1, pool.getMisses());
+  }
+
+  @Test
+  void testInvalidTargetSize() throws Exception {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new InstancePool<>("test", factory(new ArrayList<>()), -1));
+  }
+
+  private static Utils.OlmSupplier<Resource> factory(List<Resource> created) {
+    return () -> {
+      Resource resource = new Resource();
+      created.add(resource);
+      return resource;
+    };
+  }
+
+  private static void awaitFull(InstancePool<?> pool) throws InterruptedException {
+    for (int i = 0; i < 500 && pool.getSize() < pool.getTargetSize(); i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(pool.getTargetSize(), pool.getSize());
+  }
+
+  private static class Resource implements AutoCloseable {
+    private volatile boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.brevilo.jolm.Jolm.Subsystem;
+import io.github.brevilo.jolm.Jolm.WarmUpReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class JolmTest {
+
+  @Test
+  void testWarmUp() throws Exception {
+    final int iterations = 5;
+
+    WarmUpReport report = Jolm.warmUp(iterations);
+    assertEquals(iterations, report.getIterations());
+
+    long total = 0;
+    for (Subsystem subsystem : Subsystem.values()) {
+      assertTrue(report.getNanos(subsystem) > 0);
+      total += report.getNanos(subsystem);
+    }
+    assertEquals(total, report.getTotalNanos());
+  }
+
+  @Test
+  void testWarmUpInvalid() throws Exception {
+    assertThrows(IllegalArgumentException.class, () -> Jolm.warmUp(-1));
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import io.github.brevilo.jolm.jna.NativeBackend;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class NativeBackendTest {
+
+  @Test
+  void testDefaultBackend() throws Exception {
+    // JNA unless explicitly requested otherwise
+    assumeTrue(System.getProperty(NativeBackend.PROPERTY) == null);
+
+    assertEquals("jna", NativeBackend.getInstance().getName());
+    assertSame(NativeBackend.getInstance(), NativeBackend.getInstance());
+  }
+
+  @Test
+  void testAddress() throws Exception {
+    Memory buffer = new Memory(8);
+
+    assertEquals(Pointer.nativeValue(buffer), NativeBackend.address(buffer));
+    assertEquals(0, NativeBackend.address((Pointer) null));
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.brevilo.jolm.jna.NativeCleaner;
+import io.github.brevilo.jolm.jna.NativeCleaner.Cleanable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class NativeCleanerTest {
+
+  @Test
+  void testExplicitClean() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    final Object owner = new Object();
+    final long leaked = NativeCleaner.getLeakedCount();
+
+    Cleanable cleanable = NativeCleaner.register(owner, runs::incrementAndGet);
+    cleanable.clean();
+    cleanable.clean();
+
+    assertEquals(1, runs.get());
+    assertEquals(leaked, NativeCleaner.getLeakedCount());
+  }
+
+  @Test
+  void testUnreachableClean() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    final long leaked = NativeCleaner.getLeakedCount();
+
+    NativeCleaner.register(new Object(), runs::incrementAndGet);
+
+    // wait for the owner to be collected
+    for (int i = 0; i < 100 && runs.get() == 0; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+
+    assertEquals(1, runs.get());
+    assertTrue(NativeCleaner.getLeakedCount() > leaked);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.github.brevilo.jolm.jna.NativeString;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class NativeStringTest {
+
+  @Test
+  void testEncodeDecode() throws Exception {
+    final String[] contents = {"TEST", "日本語", "😀 smile", "x\uD800y", "trailing \u0000"};
+
+    for (String content : contents) {
+      byte[] expected = content.getBytes(StandardCharsets.UTF_8);
+
+      NativeString encoded = NativeString.encode(content);
+      assertEquals(expected.length, NativeString.encodedLength(content));
+      assertEquals(expected.length, encoded.getLength().intValue());
+      assertArrayEquals(expected, encoded.getPointer().getByteArray(0, expected.length));
+
+      // exact length, no trimming
+      assertEquals(
+          new String(expected, StandardCharsets.UTF_8),
+          NativeString.decode(encoded.getPointer(), encoded.getLength()));
+    }
+  }
+
+  @Test
+  void testBoundaries() throws Exception {
+    // last/first code points of each UTF-8 encoding length
+    final int[] codePoints = {0x7f, 0x80, 0x7ff, 0x800, 0xfffd, 0xffff, 0x10000, 0x10ffff};
+
+    for (int codePoint : codePoints) {
+      assertEncoded(new String(Character.toChars(codePoint)));
+      assertEncoded("a" + new String(Character.toChars(codePoint)) + "z");
+    }
+  }
+
+  @Test
+  void testUnpairedSurrogates() throws Exception {
+    // replaced just like the JDK does
+    final String[] contents = {
+      "\uD800",
+      "\uDC00",
+      "a\uD83D",
+      "\uDE00b",
+      "\uD83D\uD83D\uDE00",
+      "\uDE00\uD83D",
+      "\uD800x\uDC00"
+    };
+
+    for (String content : contents) {
+      assertEncoded(content);
+    }
+  }
+
+  @Test
+  void testEmpty() throws Exception {
+    NativeString encoded = NativeString.encode("");
+    assertNull(encoded.getPointer());
+    assertEquals(0, encoded.getLength().intValue());
+
+    // clearing an empty string is a no-op
+    encoded.clear();
+  }
+
+  @Test
+  void testClear() throws Exception {
+    NativeString encoded = NativeString.encode("SECRET");
+    encoded.clear();
+
+    assertArrayEquals(new byte[6], encoded.getPointer().getByteArray(0, 6));
+  }
+
+  /**
+   * Checks that both the native string and the scratch arena encode like {@link
+   * String#getBytes(java.nio.charset.Charset)}.
+   *
+   * @param content string to encode
+   */
+  private static void assertEncoded(String content) {
+    byte[] expected = content.getBytes(StandardCharsets.UTF_8);
+
+    NativeString encoded = NativeString.encode(content);
+    assertEquals(expected.length, NativeString.encodedLength(content));
+    assertArrayEquals(expected, encoded.getPointer().getByteArray(0, expected.length));
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      long length = scratch.encode(ScratchArena.INPUT, content);
+      assertEquals(expected.length, length);
+      assertArrayEquals(
+          expected, scratch.buffer(ScratchArena.INPUT, length).getByteArray(0, (int) length));
+    } finally {
+      scratch.release();
+    }
+  }
+}
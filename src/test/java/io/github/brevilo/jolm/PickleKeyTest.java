@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.jna.Pointer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class PickleKeyTest {
+
+  @Test
+  void testEncoding() throws Exception {
+    final String key = "SECRET 🔑";
+    final byte[] expected = key.getBytes(StandardCharsets.UTF_8);
+
+    try (PickleKey fromString = new PickleKey(key);
+        PickleKey fromBytes = new PickleKey(expected)) {
+      assertEquals(expected.length, fromString.getLength().longValue());
+      assertArrayEquals(expected, fromString.getPointer().getByteArray(0, expected.length));
+      assertEquals(expected.length, fromBytes.getLength().longValue());
+      assertArrayEquals(expected, fromBytes.getPointer().getByteArray(0, expected.length));
+    }
+
+    try (PickleKey empty = new PickleKey("")) {
+      assertNull(empty.getPointer());
+      assertEquals(0, empty.getLength().longValue());
+    }
+  }
+
+  @Test
+  void testCloseWipes() throws Exception {
+    final byte[] key = {1, 2, 3, 4};
+
+    PickleKey pickleKey = new PickleKey(key);
+    Pointer memory = pickleKey.getPointer();
+    pickleKey.close();
+    pickleKey.close();
+
+    assertArrayEquals(new byte[key.length], memory.getByteArray(0, key.length));
+    assertThrows(IllegalStateException.class, pickleKey::getPointer);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.brevilo.jolm.PickleRekeyer.Entry;
+import io.github.brevilo.jolm.PickleRekeyer.Progress;
+import io.github.brevilo.jolm.PickleRekeyer.Type;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class PickleRekeyerTest {
+  private static final String OLD_KEY = "OLD SECRET";
+  private static final String NEW_KEY = "NEW SECRET";
+
+  @Test
+  void testReadWrite() throws Exception {
+    final List<Entry> entries =
+        Arrays.asList(
+            new Entry(Type.ACCOUNT, "@alice:example.org", bytes("cGlja2xl")),
+            new Entry(Type.PK_DECRYPTION, "backup", bytes("a2V5")));
+
+    StringWriter writer = new StringWriter();
+    PickleRekeyer.Sink sink = PickleRekeyer.write(writer);
+    for (Entry entry : entries) {
+      sink.write(entry);
+    }
+    sink.flush();
+
+    Iterator<Entry> read =
+        PickleRekeyer.read(new BufferedReader(new StringReader(writer.toString())));
+    for (Entry entry : entries) {
+      Entry copy = read.next();
+      assertEquals(entry.getType(), copy.getType());
+      assertEquals(entry.getId(), copy.getId());
+      assertArrayEquals(entry.getPickle(), copy.getPickle());
+    }
+    assertFalse(read.hasNext());
+  }
+
+  @Test
+  void testRekey(@TempDir Path directory) throws Exception {
+    final int count = 10;
+    final Path checkpoint = directory.resolve("checkpoint");
+
+    List<Entry> input = new ArrayList<>();
+    List<String> identityKeys = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      try (Account account = new Account()) {
+        input.add(new Entry(Type.ACCOUNT, "account" + i, bytes(account.pickle(OLD_KEY))));
+        identityKeys.add(account.identityKeys().getEd25519());
+      }
+    }
+    try (OutboundGroupSession session = new OutboundGroupSession()) {
+      input.add(new Entry(Type.OUTBOUND_GROUP_SESSION, "room", bytes(session.pickle(OLD_KEY))));
+    }
+
+    List<Entry> output = new ArrayList<>();
+    try (PickleKey oldKey = new PickleKey(OLD_KEY);
+        PickleKey newKey = new PickleKey(NEW_KEY)) {
+      PickleRekeyer rekeyer = new PickleRekeyer(oldKey, newKey, ForkJoinPool.commonPool(), 4);
+
+      // first run is interrupted after the first batch
+      assertThrows(
+          IOException.class,
+          () ->
+              rekeyer.rekey(
+                  input.iterator(),
+                  entry -> {
+                    if (output.size() == 4) {
+                      throw new IOException("Disk full");
+                    }
+                    output.add(entry);
+                  },
+                  checkpoint,
+                  null));
+      assertEquals("4", new String(Files.readAllBytes(checkpoint), StandardCharsets.US_ASCII));
+
+      // second run resumes
+      List<Progress> reports = new ArrayList<>();
+      Progress progress = rekeyer.rekey(input.iterator(), output::add, checkpoint, reports::add);
+      assertEquals(4, progress.getSkipped());
+      assertEquals(input.size() - 4, progress.getProcessed());
+      assertEquals(0, progress.getFailed());
+      assertEquals(2, reports.size());
+      assertEquals(input.size(), output.size());
+    }
+
+    // output is in input order and encrypted with the new key
+    for (int i = 0; i < count; i++) {
+      Entry entry = output.get(i);
+      assertEquals("account" + i, entry.getId());
+      try (Account account =
+          Account.unpickle(NEW_KEY, new String(entry.getPickle(), StandardCharsets.US_ASCII))) {
+        assertEquals(identityKeys.get(i), account.identityKeys().getEd25519());
+      }
+    }
+  }
+
+  @Test
+  void testFailure() throws Exception {
+    List<Entry> input = new ArrayList<>();
+    try (Account account = new Account()) {
+      input.add(new Entry(Type.ACCOUNT, "wrong key", bytes(account.pickle("WRONG"))));
+    }
+
+    List<Entry> failed = new ArrayList<>();
+    try (PickleKey oldKey = new PickleKey(OLD_KEY);
+        PickleKey newKey = new PickleKey(NEW_KEY)) {
+      Progress progress =
+          new PickleRekeyer(oldKey, newKey)
+              .rekey(
+                  input.iterator(),
+                  new PickleRekeyer.Sink() {
+                    @Override
+                    public void write(Entry entry) {}
+
+                    @Override
+                    public void failed(Entry entry, Exception cause) {
+                      failed.add(entry);
+                    }
+                  },
+                  null,
+                  null);
+      assertEquals(1, progress.getFailed());
+      assertEquals("wrong key", failed.get(0).getId());
+    }
+  }
+
+  private static byte[] bytes(String pickle) {
+    return pickle.getBytes(StandardCharsets.US_ASCII);
+  }
+}
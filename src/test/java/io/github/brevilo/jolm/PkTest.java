@@ -16,12 +16,19 @@
 
 package io.github.brevilo.jolm;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.brevilo.jolm.model.PkMessage;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -144,4 +151,103 @@ class PkTest {
     assertNotNull(seed);
     assertEquals(PkSigning.seedLength(), seed.length);
   }
+
+  @Test
+  void testBufferEncryptionDecryption() throws Exception {
+    final byte[] message = "HELLO!".getBytes(StandardCharsets.UTF_8);
+
+    try (PkEncryption encryption = new PkEncryption(decryption.publicKey())) {
+      ByteBuffer plainText = ByteBuffer.allocateDirect(message.length);
+      plainText.put(message).flip();
+
+      // encrypt into direct buffers
+      ByteBuffer cipherText =
+          ByteBuffer.allocateDirect((int) encryption.cipherTextLength(message.length));
+      ByteBuffer mac = ByteBuffer.allocateDirect((int) encryption.macLength());
+      ByteBuffer ephemeral = ByteBuffer.allocateDirect((int) encryption.ephemeralKeyLength());
+      encryption.encrypt(plainText, cipherText, mac, ephemeral);
+      cipherText.flip();
+      mac.flip();
+      ephemeral.flip();
+
+      // decrypt straight out of the direct buffers
+      ByteBuffer decrypted = ByteBuffer.allocateDirect(cipherText.remaining());
+      int length = decryption.decrypt(ephemeral, mac, cipherText, decrypted);
+      assertEquals(message.length, length);
+
+      byte[] result = new byte[length];
+      decrypted.flip();
+      decrypted.get(result);
+      assertArrayEquals(message, result);
+    }
+  }
+
+  @Test
+  void testDecryptionCopy() throws Exception {
+    final String key = "SECRET";
+    final String plainText = "HELLO!";
+
+    try (PkDecryption copy = decryption.copy();
+        PkEncryption encryption = new PkEncryption(decryption.publicKey())) {
+      // copy is equivalent to a pickle round trip
+      assertEquals(decryption.pickle(key), copy.pickle(key));
+      assertEquals(decryption.privateKey(), copy.privateKey());
+      assertEquals(decryption.publicKey(), copy.publicKey());
+
+      assertEquals(plainText, copy.decrypt(encryption.encrypt(plainText)));
+    }
+  }
+
+  @Test
+  void testBulkCreate() throws Exception {
+    final int count = 8;
+
+    List<PkSigning> signings = PkSigning.create(count);
+    List<PkDecryption> decryptions = PkDecryption.create(count);
+    assertEquals(count, signings.size());
+    assertEquals(count, decryptions.size());
+
+    // every key pair is distinct
+    Set<String> keys = new HashSet<>();
+    for (PkSigning signing : signings) {
+      keys.add(signing.publicKey());
+      signing.close();
+    }
+    for (PkDecryption decryption : decryptions) {
+      keys.add(decryption.publicKey());
+      decryption.close();
+    }
+    assertEquals(2 * count, keys.size());
+  }
+
+  @Test
+  void testDecryptionBinarySerialization() throws Exception {
+    try (PickleKey key = new PickleKey("SECRET")) {
+      byte[] bytes = decryption.pickleBytes(key);
+      assertEquals(decryption.pickledLength(), bytes.length);
+
+      try (PkDecryption deserialized = PkDecryption.unpickle(key, bytes)) {
+        assertEquals(decryption.publicKey(), deserialized.publicKey());
+        assertEquals(decryption.privateKey(), deserialized.privateKey());
+      }
+    }
+  }
+
+  @Test
+  void testClose() throws Exception {
+    PkDecryption closedDecryption = new PkDecryption();
+    PkEncryption closedEncryption = new PkEncryption(closedDecryption.publicKey());
+    PkSigning closedSigning = new PkSigning();
+    closedDecryption.close();
+    closedEncryption.close();
+    closedSigning.close();
+
+    // closing is idempotent, using a closed object fails cleanly
+    closedDecryption.close();
+    closedEncryption.close();
+    closedSigning.close();
+    assertThrows(IllegalStateException.class, closedDecryption::privateKey);
+    assertThrows(IllegalStateException.class, () -> closedEncryption.encrypt("HELLO!"));
+    assertThrows(IllegalStateException.class, () -> closedSigning.sign("HELLO!"));
+  }
 }
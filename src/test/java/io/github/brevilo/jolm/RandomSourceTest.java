@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.jna.Memory;
+import io.github.brevilo.jolm.jna.NativeSize;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class RandomSourceTest {
+
+  @Test
+  void testSecureRandomSource() throws Exception {
+    final int length = 37;
+
+    RandomSource source = new SecureRandomSource();
+    Memory first = new Memory(length + 1);
+    Memory second = new Memory(length + 1);
+    first.clear();
+    second.clear();
+
+    source.fill(first, length);
+    source.fill(second, length);
+    assertFalse(Arrays.equals(first.getByteArray(0, length), second.getByteArray(0, length)));
+
+    // nothing written past the requested length
+    assertEquals(0, first.getByte(length));
+    assertEquals(0, second.getByte(length));
+  }
+
+  @Test
+  void testSecureRandomSourceLengths() throws Exception {
+    // alternating lengths (as requested by olm) and one exceeding the staged lengths
+    final int[] lengths = {32, 64, 80, 32, 1024, 64};
+
+    RandomSource source = new SecureRandomSource();
+    for (int length : lengths) {
+      Memory buffer = new Memory(length + 1);
+      buffer.clear();
+
+      source.fill(buffer, length);
+      assertFalse(Arrays.equals(new byte[length], buffer.getByteArray(0, length)));
+      assertEquals(0, buffer.getByte(length));
+    }
+  }
+
+  @Test
+  void testCustomSource() throws Exception {
+    final int length = 16;
+    final byte pattern = 0x5a;
+
+    RandomSource previous = Jolm.getRandomSource();
+    assertTrue(previous instanceof SecureRandomSource);
+
+    RandomSource custom = (buffer, size) -> buffer.setMemory(0, size, pattern);
+    Jolm.setRandomSource(custom);
+    try {
+      assertSame(custom, Jolm.getRandomSource());
+
+      byte[] expected = new byte[length];
+      Arrays.fill(expected, pattern);
+      assertArrayEquals(
+          expected, Utils.randomBuffer(new NativeSize(length)).getByteArray(0, length));
+
+      ScratchArena scratch = ScratchArena.acquire();
+      try {
+        assertArrayEquals(expected, scratch.random(length).getByteArray(0, length));
+      } finally {
+        scratch.release();
+      }
+    } finally {
+      Jolm.setRandomSource(null);
+    }
+
+    // default is restored
+    assertTrue(Jolm.getRandomSource() instanceof SecureRandomSource);
+  }
+}
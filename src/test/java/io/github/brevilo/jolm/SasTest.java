@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.AfterAll;
@@ -92,4 +93,15 @@ class SasTest {
 
     assertEquals(aliceBase64Mac, bobBase64Mac);
   }
+
+  @Test
+  void testClose() throws Exception {
+    Sas closed = new Sas();
+    closed.close();
+
+    // closing is idempotent, using a closed SAS object fails cleanly
+    closed.close();
+    assertThrows(IllegalStateException.class, closed::publicKey);
+    assertThrows(IllegalStateException.class, closed::isTheirKeySet);
+  }
 }
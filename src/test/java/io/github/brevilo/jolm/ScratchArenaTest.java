@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.jna.Memory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class ScratchArenaTest {
+
+  @Test
+  void testEncodeDecode() throws Exception {
+    final String[] contents = {"", "TEST", "日本語", "😀 smile", "x\uD800y"};
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      for (String content : contents) {
+        byte[] expected = content.getBytes(StandardCharsets.UTF_8);
+
+        long length = scratch.encode(ScratchArena.INPUT, content);
+        assertEquals(expected.length, length);
+
+        Memory buffer = scratch.buffer(ScratchArena.INPUT, length);
+        assertArrayEquals(expected, buffer.getByteArray(0, (int) length));
+
+        assertEquals(
+            new String(expected, StandardCharsets.UTF_8),
+            scratch.decode(ScratchArena.INPUT, length));
+      }
+    } finally {
+      scratch.release();
+    }
+  }
+
+  @Test
+  void testReleaseWipes() throws Exception {
+    final String content = "SECRET";
+
+    ScratchArena scratch = ScratchArena.acquire();
+    Memory buffer;
+    try {
+      long length = scratch.encode(ScratchArena.INPUT, content);
+      buffer = scratch.buffer(ScratchArena.INPUT, length);
+    } finally {
+      scratch.release();
+    }
+
+    for (int i = 0; i < content.length(); i++) {
+      assertEquals(0, buffer.getByte(i));
+    }
+  }
+
+  @Test
+  void testGrowth() throws Exception {
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      Memory small = scratch.buffer(ScratchArena.OUTPUT, 16);
+      assertSame(small, scratch.buffer(ScratchArena.OUTPUT, 8));
+
+      Memory large = scratch.buffer(ScratchArena.OUTPUT, 10000);
+      assertNotSame(small, large);
+      assertTrue(large.size() >= 10000);
+    } finally {
+      scratch.release();
+    }
+  }
+
+  @Test
+  void testNestedAcquire() throws Exception {
+    ScratchArena outer = ScratchArena.acquire();
+    try {
+      ScratchArena inner = ScratchArena.acquire();
+      try {
+        assertNotSame(outer, inner);
+      } finally {
+        inner.release();
+      }
+    } finally {
+      outer.release();
+    }
+
+    // released arena is handed out again
+    ScratchArena again = ScratchArena.acquire();
+    again.release();
+    assertSame(outer, again);
+  }
+
+  @Test
+  void testRandom() throws Exception {
+    final int length = 32;
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      byte[] first = scratch.random(length).getByteArray(0, length);
+      byte[] second = scratch.random(length).getByteArray(0, length);
+      assertFalse(Arrays.equals(first, second));
+    } finally {
+      scratch.release();
+    }
+  }
+
+  @Test
+  void testWriteRead() throws Exception {
+    final byte[] content = {1, 2, 3, 0, 4};
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      assertEquals(content.length, scratch.write(ScratchArena.INPUT, content));
+      assertArrayEquals(content, scratch.read(ScratchArena.INPUT, content.length));
+    } finally {
+      scratch.release();
+    }
+  }
+
+  @Test
+  void testWriteBuffer() throws Exception {
+    final byte[] content = {1, 2, 3, 0, 4};
+
+    ByteBuffer buffer = ByteBuffer.wrap(content);
+    buffer.position(1);
+
+    ScratchArena scratch = ScratchArena.acquire();
+    try {
+      assertEquals(content.length - 1, scratch.write(ScratchArena.INPUT, buffer));
+      assertArrayEquals(
+          Arrays.copyOfRange(content, 1, content.length),
+          scratch.read(ScratchArena.INPUT, content.length - 1));
+
+      // source position is left untouched
+      assertEquals(1, buffer.position());
+    } finally {
+      scratch.release();
+    }
+  }
+}
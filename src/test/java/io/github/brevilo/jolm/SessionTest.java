@@ -16,14 +16,24 @@
 
 package io.github.brevilo.jolm;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import io.github.brevilo.jolm.model.Message;
 import io.github.brevilo.jolm.model.OneTimeKeys;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -168,4 +178,119 @@ class SessionTest {
 
     deserialized.clear();
   }
+
+  @Test
+  @Order(4)
+  void testBufferEncryptDecrypt() throws Exception {
+    final byte[] message = "5-BY-5!".getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer plainText = ByteBuffer.allocateDirect(message.length);
+    plainText.put(message).flip();
+
+    // encrypt into a direct buffer
+    ByteBuffer encrypted =
+        ByteBuffer.allocateDirect((int) aliceSession.encryptMessageLength(message.length));
+    long type = aliceSession.encrypt(plainText, encrypted);
+    assertFalse(plainText.hasRemaining());
+    assertFalse(encrypted.hasRemaining());
+    encrypted.flip();
+
+    // decrypt straight out of the direct buffer
+    ByteBuffer decrypted = ByteBuffer.allocateDirect(encrypted.remaining());
+    int length = bobSession.decrypt(type, encrypted, decrypted);
+    assertEquals(message.length, length);
+    assertEquals(message.length, decrypted.position());
+
+    byte[] result = new byte[length];
+    decrypted.flip();
+    decrypted.get(result);
+    assertArrayEquals(message, result);
+
+    // heap buffers are rejected
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> aliceSession.encrypt(ByteBuffer.wrap(message), ByteBuffer.allocate(1024)));
+  }
+
+  @Test
+  @Order(4)
+  void testBytesEncryptDecrypt() throws Exception {
+    final byte[] message = "5-BY-5!".getBytes(StandardCharsets.UTF_8);
+
+    Message encryptedMessage = aliceSession.encrypt(message);
+    assertNotNull(encryptedMessage.getCipherText());
+
+    assertArrayEquals(message, bobSession.decryptBytes(encryptedMessage));
+  }
+
+  @Test
+  @Order(5)
+  void testCopy() throws Exception {
+    final String key = "SECRET";
+    final String message = "5-BY-5!";
+
+    try (Session bobCopy = bobSession.copy()) {
+      // copy is equivalent to a pickle round trip
+      assertEquals(bobSession.pickle(key), bobCopy.pickle(key));
+      assertEquals(bobSession.sessionId(), bobCopy.sessionId());
+
+      // both evolve independently from the same state
+      Message encryptedMessage = aliceSession.encrypt(message);
+      assertEquals(message, bobCopy.decrypt(encryptedMessage));
+      assertEquals(message, bobSession.decrypt(encryptedMessage));
+    }
+  }
+
+  @Test
+  @Order(6)
+  void testPickleSnapshot() throws Exception {
+    final String key = "SECRET";
+    final String message = "5-BY-5!";
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      String expected = aliceSession.pickle(key);
+      CompletableFuture<String> snapshot = aliceSession.pickleSnapshot(key, executor);
+
+      // session can be used right away, snapshot reflects the state at capture time
+      assertEquals(message, bobSession.decrypt(aliceSession.encrypt(message)));
+      assertEquals(expected, snapshot.get());
+      assertNotEquals(expected, aliceSession.pickle(key));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @Order(7)
+  void testTryDecrypt() throws Exception {
+    final String message = "5-BY-5!";
+
+    Message encryptedMessage = aliceSession.encrypt(message);
+
+    DecryptResult result = bobSession.tryDecrypt(encryptedMessage);
+    assertTrue(result.isSuccess());
+    assertEquals(OlmError.SUCCESS, result.getError());
+    assertEquals(message, result.getPlainText());
+
+    // result object is reused, failures don't throw
+    Message invalid = Message.get("!!!", encryptedMessage.type());
+    assertSame(result, bobSession.tryDecrypt(invalid, result));
+    assertFalse(result.isSuccess());
+    assertEquals(OlmError.INVALID_BASE64, result.getError());
+    assertNull(result.getPlainText());
+  }
+
+  @Test
+  @Order(8)
+  void testClose() throws Exception {
+    Session closed = bobSession.copy();
+    closed.close();
+
+    // closing is idempotent, using a closed session fails cleanly
+    closed.close();
+    assertThrows(IllegalStateException.class, closed::sessionId);
+    assertThrows(IllegalStateException.class, () -> closed.encrypt("5-BY-5!"));
+    assertThrows(IllegalStateException.class, closed::copy);
+  }
 }
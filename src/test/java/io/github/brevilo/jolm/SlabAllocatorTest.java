@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.jna.Pointer;
+import io.github.brevilo.jolm.jna.SlabAllocator;
+import io.github.brevilo.jolm.jna.SlabAllocator.Slot;
+import io.github.brevilo.jolm.jna.SlabAllocator.Stats;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class SlabAllocatorTest {
+
+  @Test
+  void testAllocateAligned() throws Exception {
+    SlabAllocator allocator = new SlabAllocator();
+
+    Slot slot = allocator.allocate(100);
+    assertEquals(112, slot.getMemory().size());
+    assertEquals(0, Pointer.nativeValue(slot.getMemory()) % SlabAllocator.ALIGNMENT);
+
+    Slot next = allocator.allocate(100);
+    assertNotEquals(Pointer.nativeValue(slot.getMemory()), Pointer.nativeValue(next.getMemory()));
+  }
+
+  @Test
+  void testZeroedReuse() throws Exception {
+    SlabAllocator allocator = new SlabAllocator();
+
+    Slot slot = allocator.allocate(64);
+    long address = Pointer.nativeValue(slot.getMemory());
+    slot.getMemory().setLong(0, -1);
+    slot.free();
+
+    // freed slot is handed out again, zeroed
+    Slot reused = allocator.allocate(64);
+    assertEquals(address, Pointer.nativeValue(reused.getMemory()));
+    assertEquals(0, reused.getMemory().getLong(0));
+
+    // double free is a no-op
+    slot.free();
+    slot.free();
+    assertEquals(1, allocator.stats().get(0).getUsed());
+  }
+
+  @Test
+  void testStats() throws Exception {
+    SlabAllocator allocator = new SlabAllocator();
+    List<Slot> slots = new ArrayList<>();
+
+    for (int i = 0; i < SlabAllocator.MAX_SLOTS_PER_SLAB + 1; i++) {
+      slots.add(allocator.allocate(32));
+    }
+    allocator.allocate(48);
+
+    List<Stats> stats = allocator.stats();
+    assertEquals(2, stats.size());
+
+    Stats small = stats.get(0);
+    assertEquals(32, small.getSlotSize());
+    assertEquals(2, small.getSlabs());
+    assertEquals(2 * SlabAllocator.MAX_SLOTS_PER_SLAB, small.getCapacity());
+    assertEquals(SlabAllocator.MAX_SLOTS_PER_SLAB + 1, small.getUsed());
+    assertTrue(small.getOccupancy() > 0.5);
+
+    // empty slabs are retired (except for the last one)
+    for (Slot slot : slots) {
+      slot.free();
+    }
+    small = allocator.stats().get(0);
+    assertEquals(1, small.getSlabs());
+    assertEquals(0, small.getUsed());
+  }
+}
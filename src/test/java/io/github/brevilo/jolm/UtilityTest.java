@@ -19,10 +19,12 @@ package io.github.brevilo.jolm;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import io.github.brevilo.jolm.Utils.OlmException;
 import io.github.brevilo.jolm.jna.OlmLibrary;
 import io.github.brevilo.jolm.model.IdentityKeys;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.Base64;
 import org.junit.jupiter.api.AfterAll;
@@ -106,6 +108,10 @@ class UtilityTest {
       assertNotNull(expected);
       assertFalse(expected.isEmpty());
       assertEquals(expected, e.getMessage());
+
+      // routine failure, reported without stack trace
+      assertEquals(OlmError.BAD_MESSAGE_MAC, e.getError());
+      assertEquals(0, e.getStackTrace().length);
     }
   }
 
@@ -123,4 +129,40 @@ class UtilityTest {
 
     assertEquals(trueHash, testHash);
   }
+
+  @Test
+  void testVerifyEd25519Bytes() throws Exception {
+    final byte[] message = "RAW MESSAGE".getBytes(StandardCharsets.UTF_8);
+
+    try (Account account = new Account()) {
+      byte[] key = account.identityKeys().getEd25519().getBytes(StandardCharsets.UTF_8);
+      byte[] signature = account.sign(message);
+
+      // good verification
+      utility.verifyEd25519(key, message, signature);
+
+      // bad message for signature
+      assertThrows(
+          OlmException.class,
+          () -> utility.verifyEd25519(key, "{}".getBytes(StandardCharsets.UTF_8), signature));
+    }
+  }
+
+  @Test
+  void testSha256Bytes() throws Exception {
+    final String testString = "TEST";
+
+    byte[] testHash = utility.sha256(testString.getBytes(StandardCharsets.UTF_8));
+    assertEquals(utility.sha256(testString), new String(testHash, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testClose() throws Exception {
+    Utility closed = new Utility();
+    closed.close();
+
+    // closing is idempotent, using a closed utility object fails cleanly
+    closed.close();
+    assertThrows(IllegalStateException.class, () -> closed.sha256("HELLO!"));
+  }
 }
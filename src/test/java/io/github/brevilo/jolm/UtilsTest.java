@@ -18,9 +18,21 @@ package io.github.brevilo.jolm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.jna.Pointer;
+import io.github.brevilo.jolm.Utils.OlmException;
+import io.github.brevilo.jolm.jna.OlmSession;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
@@ -123,4 +135,123 @@ class UtilsTest {
 
     assertEquals("{\"a\":null}", Utils.canonicalizeJson("{\n" + "    \"a\": null\n" + "}"));
   }
+
+  @Test
+  void testDecodedBase64Length() throws Exception {
+    final Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+
+    for (int length = 0; length < 64; length++) {
+      String encoded = encoder.encodeToString(new byte[length]);
+      assertEquals(length, Utils.decodedBase64Length(encoded.length()));
+    }
+  }
+
+  @Test
+  void testCopy() throws Exception {
+    final long size = 64;
+
+    // fake olm object holding some state
+    OlmSession source = Utils.initialize(UtilsTest::adopt, size);
+    source.getPointer().setLong(0, 42);
+    source.getPointer().setLong(16, -1);
+
+    OlmSession copy = Utils.copy(source, UtilsTest::adopt, size);
+    assertNotEquals(
+        Pointer.nativeValue(source.getPointer()), Pointer.nativeValue(copy.getPointer()));
+    assertEquals(42, copy.getPointer().getLong(0));
+    assertEquals(-1, copy.getPointer().getLong(16));
+
+    // copy is independent of its source
+    source.getPointer().setLong(0, 7);
+    assertEquals(42, copy.getPointer().getLong(0));
+
+    source.release();
+    copy.release();
+  }
+
+  @Test
+  void testOlmException() throws Exception {
+    // olm error codes
+    for (OlmError error : OlmError.values()) {
+      if (error != OlmError.UNKNOWN) {
+        assertEquals(error, OlmError.fromCode(error.getCode()));
+      }
+    }
+    assertEquals(OlmError.UNKNOWN, OlmError.fromCode(-1));
+    assertEquals(OlmError.UNKNOWN, OlmError.fromCode(Integer.MAX_VALUE));
+
+    // routine errors come without stack trace
+    OlmException routine = OlmException.of(OlmError.BAD_MESSAGE_MAC.getCode());
+    assertEquals(OlmError.BAD_MESSAGE_MAC, routine.getError());
+    assertEquals(0, routine.getStackTrace().length);
+
+    OlmException fatal = OlmException.of(OlmError.CORRUPTED_PICKLE.getCode());
+    assertEquals(OlmError.CORRUPTED_PICKLE, fatal.getError());
+    assertTrue(fatal.getStackTrace().length > 0);
+
+    // plain message exceptions
+    OlmException plain = new OlmException("FAILED");
+    assertEquals(OlmError.UNKNOWN, plain.getError());
+    assertEquals("FAILED", plain.getMessage());
+    assertEquals("UNKNOWN", OlmException.of(-1).getMessage());
+  }
+
+  @Test
+  void testCreateAll() throws Exception {
+    final int count = 16;
+
+    List<Resource> created = Utils.createAll(count, ForkJoinPool.commonPool(), Resource::new);
+    assertEquals(count, created.size());
+    for (Resource resource : created) {
+      assertFalse(resource.closed);
+    }
+  }
+
+  @Test
+  void testCreateAllFailure() throws Exception {
+    final int count = 16;
+
+    // every other creation fails: the successful ones must be closed again
+    List<Resource> created = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger calls = new AtomicInteger();
+    OlmException thrown =
+        assertThrows(
+            OlmException.class,
+            () ->
+                Utils.createAll(
+                    count,
+                    ForkJoinPool.commonPool(),
+                    () -> {
+                      if (calls.incrementAndGet() % 2 == 0) {
+                        throw new OlmException("FAILED");
+                      }
+                      Resource resource = new Resource();
+                      created.add(resource);
+                      return resource;
+                    }));
+    assertEquals("FAILED", thrown.getMessage());
+    assertEquals(count / 2, created.size());
+    for (Resource resource : created) {
+      assertTrue(resource.closed);
+    }
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Utils.createAll(-1, ForkJoinPool.commonPool(), Resource::new));
+  }
+
+  private static OlmSession adopt(Pointer memory) {
+    OlmSession session = new OlmSession();
+    session.setPointer(memory);
+    return session;
+  }
+
+  private static class Resource implements AutoCloseable {
+    private volatile boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.benchmark;
+
+import io.github.brevilo.jolm.PkDecryption;
+import io.github.brevilo.jolm.PkSigning;
+import java.security.SecureRandom;
+
+/**
+ * Throughput benchmark for key pair creation, comparing one-by-one construction (with the former
+ * blocking and the current non-blocking seed generation) to the parallel bulk API.
+ *
+ * <p>Run after <code>mvn test-compile</code> with the test class path (incl. the JNA and Jackson
+ * jars), e.g.:
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$DEPENDENCIES \
+ *     io.github.brevilo.jolm.benchmark.KeyPairBenchmark [COUNT]
+ * </pre>
+ */
+public class KeyPairBenchmark {
+  private static final int DEFAULT_COUNT = 1000;
+  private static final int ROUNDS = 3;
+
+  /** Key pair creation strategies. */
+  enum Strategy {
+    SIGNING_BLOCKING_SEED {
+      @Override
+      void run(int count) throws Exception {
+        SecureRandom random = new SecureRandom();
+        for (int i = 0; i < count; i++) {
+          new PkSigning(random.generateSeed(PkSigning.seedLength())).close();
+        }
+      }
+    },
+    SIGNING_SEQUENTIAL {
+      @Override
+      void run(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+          new PkSigning().close();
+        }
+      }
+    },
+    SIGNING_BULK {
+      @Override
+      void run(int count) throws Exception {
+        for (PkSigning signing : PkSigning.create(count)) {
+          signing.close();
+        }
+      }
+    },
+    DECRYPTION_SEQUENTIAL {
+      @Override
+      void run(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+          new PkDecryption().close();
+        }
+      }
+    },
+    DECRYPTION_BULK {
+      @Override
+      void run(int count) throws Exception {
+        for (PkDecryption decryption : PkDecryption.create(count)) {
+          decryption.close();
+        }
+      }
+    };
+
+    abstract void run(int count) throws Exception;
+  }
+
+  /**
+   * Runs all strategies, reporting the best of several rounds.
+   *
+   * @param args number of key pairs per round (optional)
+   * @throws Exception if a strategy failed
+   */
+  public static void main(String[] args) throws Exception {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COUNT;
+
+    // warm up
+    for (Strategy strategy : Strategy.values()) {
+      strategy.run(Math.min(count, 100));
+    }
+
+    System.out.printf("%-24s %12s %14s%n", "strategy", "time [ms]", "key pairs/s");
+    for (Strategy strategy : Strategy.values()) {
+      long best = Long.MAX_VALUE;
+      for (int round = 0; round < ROUNDS; round++) {
+        long start = System.nanoTime();
+        strategy.run(count);
+        best = Math.min(best, System.nanoTime() - start);
+      }
+
+      System.out.printf("%-24s %12.2f %14.0f%n", strategy, best / 1e6, count / (best / 1e9));
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.benchmark;
+
+import io.github.brevilo.jolm.Account;
+import io.github.brevilo.jolm.InboundGroupSession;
+import io.github.brevilo.jolm.OutboundGroupSession;
+import io.github.brevilo.jolm.PkDecryption;
+import io.github.brevilo.jolm.Sas;
+import io.github.brevilo.jolm.Utility;
+import java.io.File;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup benchmark measuring the cost of the first use of jOlm for different usage profiles.
+ *
+ * <p>Every profile runs in a fresh JVM (with the current class path) so that class initialization
+ * and native method registration are measured cold. Reported are the time taken by the first object
+ * creation, the number of classes loaded and the heap used by it.
+ *
+ * <p>Run after <code>mvn test-compile</code> with the test class path (incl. the JNA and Jackson
+ * jars), e.g.:
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$DEPENDENCIES \
+ *     io.github.brevilo.jolm.benchmark.StartupBenchmark [PROFILE...]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+  /** Usage profiles, each touching a different set of libolm subsystems. */
+  enum Profile {
+    OLM,
+    MEGOLM_INBOUND,
+    MEGOLM_OUTBOUND,
+    PK,
+    SAS,
+    UTILITY,
+    ALL;
+
+    void run() throws Exception {
+      switch (this) {
+        case OLM:
+          new Account().close();
+          break;
+        case MEGOLM_INBOUND:
+          new InboundGroupSession().close();
+          break;
+        case MEGOLM_OUTBOUND:
+          new OutboundGroupSession().close();
+          break;
+        case PK:
+          new PkDecryption().close();
+          break;
+        case SAS:
+          new Sas().close();
+          break;
+        case UTILITY:
+          new Utility().close();
+          break;
+        case ALL:
+          for (Profile profile : values()) {
+            if (profile != ALL) {
+              profile.run();
+            }
+          }
+          break;
+        default:
+          throw new IllegalStateException(name());
+      }
+    }
+  }
+
+  /**
+   * Runs the given profiles (all if none given), each in a separate JVM.
+   *
+   * @param args profile names
+   * @throws Exception if a profile run failed
+   */
+  public static void main(String[] args) throws Exception {
+    List<Profile> profiles = new ArrayList<>();
+    for (String arg : args) {
+      profiles.add(Profile.valueOf(arg));
+    }
+    if (profiles.isEmpty()) {
+      for (Profile profile : Profile.values()) {
+        profiles.add(profile);
+      }
+    }
+
+    String java =
+        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    System.out.printf("%-16s %12s %10s %12s%n", "profile", "time [ms]", "classes", "heap [KiB]");
+    for (Profile profile : profiles) {
+      Process process =
+          new ProcessBuilder(
+                  java,
+                  "-cp",
+                  System.getProperty("java.class.path"),
+                  Child.class.getName(),
+                  profile.name())
+              .inheritIO()
+              .start();
+      if (process.waitFor() != 0) {
+        throw new IllegalStateException("Profile " + profile + " failed");
+      }
+    }
+  }
+
+  /** Entry point of the JVM running a single profile. */
+  static class Child {
+
+    public static void main(String[] args) throws Exception {
+      Profile profile = Profile.valueOf(args[0]);
+      ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+      Runtime runtime = Runtime.getRuntime();
+
+      System.gc();
+      long classes = classLoading.getTotalLoadedClassCount();
+      long heap = runtime.totalMemory() - runtime.freeMemory();
+      long start = System.nanoTime();
+
+      profile.run();
+
+      long time = System.nanoTime() - start;
+      classes = classLoading.getTotalLoadedClassCount() - classes;
+      System.gc();
+      heap = runtime.totalMemory() - runtime.freeMemory() - heap;
+
+      System.out.printf(
+          "%-16s %12.2f %10d %12d%n", profile, time / 1e6, classes, Math.max(0, heap) / 1024);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2021 Oliver Behnke
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.brevilo.jolm.benchmark;
+
+import io.github.brevilo.jolm.Account;
+import io.github.brevilo.jolm.OutboundGroupSession;
+import io.github.brevilo.jolm.PkDecryption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cold-start benchmark for loading pickled objects, comparing the allocate-only unpickle path to
+ * the former one (which fully created a random object first, only to overwrite it).
+ *
+ * <p>The former path is reproduced by creating and discarding an object of the same type before
+ * each unpickle. Run after <code>mvn test-compile</code> with the test class path (incl. the JNA
+ * and Jackson jars), e.g.:
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$DEPENDENCIES \
+ *     io.github.brevilo.jolm.benchmark.UnpickleBenchmark [COUNT]
+ * </pre>
+ */
+public class UnpickleBenchmark {
+  private static final int DEFAULT_COUNT = 10000;
+  private static final String KEY = "BENCHMARK";
+
+  /** Pickled object types. */
+  enum Type {
+    ACCOUNT {
+      @Override
+      String pickle() throws Exception {
+        try (Account account = new Account()) {
+          return account.pickle(KEY);
+        }
+      }
+
+      @Override
+      void create() throws Exception {
+        new Account().close();
+      }
+
+      @Override
+      void unpickle(String pickle) throws Exception {
+        Account.unpickle(KEY, pickle).close();
+      }
+    },
+    OUTBOUND_GROUP_SESSION {
+      @Override
+      String pickle() throws Exception {
+        try (OutboundGroupSession session = new OutboundGroupSession()) {
+          return session.pickle(KEY);
+        }
+      }
+
+      @Override
+      void create() throws Exception {
+        new OutboundGroupSession().close();
+      }
+
+      @Override
+      void unpickle(String pickle) throws Exception {
+        OutboundGroupSession.unpickle(KEY, pickle).close();
+      }
+    },
+    PK_DECRYPTION {
+      @Override
+      String pickle() throws Exception {
+        try (PkDecryption decryption = new PkDecryption()) {
+          return decryption.pickle(KEY);
+        }
+      }
+
+      @Override
+      void create() throws Exception {
+        new PkDecryption().close();
+      }
+
+      @Override
+      void unpickle(String pickle) throws Exception {
+        PkDecryption.unpickle(KEY, pickle).close();
+      }
+    };
+
+    abstract String pickle() throws Exception;
+
+    abstract void create() throws Exception;
+
+    abstract void unpickle(String pickle) throws Exception;
+
+    long run(List<String> pickles, boolean createFirst) throws Exception {
+      long start = System.nanoTime();
+      for (String pickle : pickles) {
+        if (createFirst) {
+          create();
+        }
+        unpickle(pickle);
+      }
+      return System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Loads the given number of pickles per type, both ways.
+   *
+   * @param args number of pickles per type (optional)
+   * @throws Exception if a (un)pickle failed
+   */
+  public static void main(String[] args) throws Exception {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COUNT;
+
+    System.out.printf(
+        "%-24s %16s %16s %10s%n", "type", "former [ms]", "alloc-only [ms]", "speedup");
+    for (Type type : Type.values()) {
+      List<String> pickles = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        pickles.add(type.pickle());
+      }
+
+      // cold start: measure the very first pass of each path
+      long allocateOnly = type.run(pickles, false);
+      long former = type.run(pickles, true);
+
+      System.out.printf(
+          "%-24s %16.2f %16.2f %9.1fx%n",
+          type, former / 1e6, allocateOnly / 1e6, (double) former / allocateOnly);
+    }
+  }
+}